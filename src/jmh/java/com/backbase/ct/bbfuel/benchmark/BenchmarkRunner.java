@@ -0,0 +1,31 @@
+package com.backbase.ct.bbfuel.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the regular expression given as first argument single threaded and with a thread per
+ * processor, with the GC profiler to report allocation rates. Results are written as JSON to the target directory.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String includes = args.length > 0 ? args[0] : ".*";
+        int[] threadCounts = {1, Runtime.getRuntime().availableProcessors()};
+
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                .include(BenchmarkRunner.class.getPackage().getName() + "\\..*" + includes)
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result-" + threads + "-threads.json")
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.backbase.ct.bbfuel.benchmark;
+
+import com.backbase.ct.bbfuel.util.CommonHelpers;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the random helpers called for nearly every generated field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommonHelpersBenchmark {
+
+    private final List<String> values = Arrays.asList("EUR", "USD", "GBP", "CAD", "AUD");
+    private final LocalDate min = LocalDate.now().minusYears(1);
+    private final LocalDate max = LocalDate.now();
+
+    @Benchmark
+    public int generateRandomNumberInRange() {
+        return CommonHelpers.generateRandomNumberInRange(1, 100);
+    }
+
+    @Benchmark
+    public BigDecimal generateRandomAmountInRange() {
+        return CommonHelpers.generateRandomAmountInRange(1000L, 99999L);
+    }
+
+    @Benchmark
+    public LocalDate generateRandomDateInRange() {
+        return CommonHelpers.generateRandomDateInRange(min, max);
+    }
+
+    @Benchmark
+    public String getRandomFromList() {
+        return CommonHelpers.getRandomFromList(values);
+    }
+
+    @Benchmark
+    public String generateRandomBranchCode() {
+        return CommonHelpers.generateRandomBranchCode();
+    }
+
+    @Benchmark
+    public String createRandomValidRtn() {
+        return CommonHelpers.createRandomValidRtn();
+    }
+}
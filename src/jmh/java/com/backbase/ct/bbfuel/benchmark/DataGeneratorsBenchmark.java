@@ -0,0 +1,107 @@
+package com.backbase.ct.bbfuel.benchmark;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PAYMENT_TYPE_SEPA_CREDIT_TRANSFER;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PAYMENT_TYPE_US_DOMESTIC_WIRE;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.data.ContactsDataGenerator;
+import com.backbase.ct.bbfuel.data.PaymentsDataGenerator;
+import com.backbase.ct.bbfuel.data.ProductSummaryDataGenerator;
+import com.backbase.ct.bbfuel.data.TransactionsDataGenerator;
+import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
+import com.backbase.ct.bbfuel.input.ProductGroupSeedReader;
+import com.backbase.ct.bbfuel.input.TransactionsReader;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.backbase.dbs.arrangement.integration.inbound.api.v2.model.PostArrangement;
+import com.backbase.dbs.contact.integration.inbound.api.v2.model.ContactsBulkPostRequestBody;
+import com.backbase.dbs.paymentorder.client.api.v3.model.InitiatePaymentOrderWithId;
+import com.backbase.dbs.transaction.client.v2.model.TransactionsPostRequestBody;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of generating the request bodies of the entities ingested in the largest numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataGeneratorsBenchmark {
+
+    private static final String EXTERNAL_LEGAL_ENTITY_ID = "C000001";
+    private static final String EXTERNAL_ARRANGEMENT_ID = "A000001";
+
+    @Param("10")
+    private int numberOfArrangements;
+
+    @Param("10")
+    private int numberOfContacts;
+
+    private ProductGroupSeed productGroupSeed;
+    private TransactionsReader transactionsReader;
+    private IngestionConfig ingestionConfig;
+
+    @Setup
+    public void setUp() {
+        productGroupSeed = new ProductGroupSeedReader().load().stream()
+            .filter(seed -> isNotEmpty(seed.getCurrentAccountNames()) && isNotEmpty(seed.getProductIds()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No product group seed with accounts and products"));
+        transactionsReader = new TransactionsReader();
+        ingestionConfig = IngestionConfig.fromProperties(GlobalProperties.getInstance());
+    }
+
+    @Benchmark
+    public TransactionsPostRequestBody generateTransaction() {
+        return TransactionsDataGenerator.generateTransactionsPostRequestBody(EXTERNAL_ARRANGEMENT_ID, ingestionConfig);
+    }
+
+    @Benchmark
+    public TransactionsPostRequestBody loadSingleTransaction() {
+        return transactionsReader.loadSingle(EXTERNAL_ARRANGEMENT_ID);
+    }
+
+    @Benchmark
+    public List<PostArrangement> generateCurrentAccountArrangements() {
+        return ProductSummaryDataGenerator.generateCurrentAccountArrangementsPostRequestBodies(
+            EXTERNAL_LEGAL_ENTITY_ID, productGroupSeed, numberOfArrangements);
+    }
+
+    @Benchmark
+    public List<PostArrangement> generateNonCurrentAccountArrangements() {
+        return ProductSummaryDataGenerator.generateNonCurrentAccountArrangementsPostRequestBodies(
+            EXTERNAL_LEGAL_ENTITY_ID, productGroupSeed, numberOfArrangements);
+    }
+
+    @Benchmark
+    public ContactsBulkPostRequestBody generateContacts() {
+        return ContactsDataGenerator.generateContactsBulkIngestionPostRequestBody(
+            "sa-" + EXTERNAL_LEGAL_ENTITY_ID, "user", numberOfContacts, 3);
+    }
+
+    @Benchmark
+    public InitiatePaymentOrderWithId generateSepaPayment() {
+        return PaymentsDataGenerator.generateInitiatePaymentOrder(
+            EXTERNAL_ARRANGEMENT_ID, "EUR", PAYMENT_TYPE_SEPA_CREDIT_TRANSFER);
+    }
+
+    @Benchmark
+    public InitiatePaymentOrderWithId generateUsDomesticWirePayment() {
+        return PaymentsDataGenerator.generateInitiatePaymentOrder(
+            EXTERNAL_ARRANGEMENT_ID, "USD", PAYMENT_TYPE_US_DOMESTIC_WIRE);
+    }
+}
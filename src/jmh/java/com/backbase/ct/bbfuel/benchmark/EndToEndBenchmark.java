@@ -0,0 +1,114 @@
+package com.backbase.ct.bbfuel.benchmark;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_PROFILES_JSON_LOCATION;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_REPORT_DIR;
+
+import com.backbase.ct.bbfuel.BbFuelApplication;
+import com.backbase.ct.bbfuel.benchmark.backend.FakeDbsBackend;
+import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.backbase.ct.bbfuel.util.ParserUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bb-fuel end to end against a {@link FakeDbsBackend}, so the throughput of bb-fuel itself is measured offline.
+ * The application exits when ingestion is done, after which the created entities per second are reported on the
+ * console and written to {@value #REPORT} in the report directory.
+ */
+public class EndToEndBenchmark {
+
+    static final String REPORT = "e2e-benchmark.json";
+
+    private static final String[][] PLATFORM_SERVICES = {
+        {"infra", ""},
+        {"identity", ""},
+        {"registry", "/registry/eureka"},
+        {"gateway", "/api"},
+        {"auth", "/api/auth/login"},
+        {"tokenconverter", "/bb-authentication-token-converter-service"}};
+
+    private static final String[][] DBS_SERVICES = {
+        {"accessgroup", "/accessgroup-integration-service"},
+        {"accounts", "/account-integration-service/service-api"},
+        {"approvals", "/approval-service/integration-api"},
+        {"arrangements", "/arrangement-manager/integration-api"},
+        {"billpay", "/billpay-service/client-api"},
+        {"contactmanager", "/contact-manager/integration-api"},
+        {"legalentity", "/legalentity-integration-service"},
+        {"transactions", "/transaction-manager/integration-api"},
+        {"user", "/user-manager/integration-api"},
+        {"accountStatement", "/account-statement-integration-service/service-api"},
+        {"pockets", "/pocket-tailor/client-api"},
+        {"contentservices", "/contentservices/client-api"}};
+
+    public static void main(String[] args) throws IOException {
+        setDefault("spring.profiles.active", "local");
+        setDefault("legal.entities.with.users.json",
+            "data/performance/performance-test-legal-entities-with-users-retail.json");
+        setDefault("ingest.transactions", "true");
+        setDefault("ingest.balance.history", "true");
+        setDefault("ingest.contacts", "true");
+        setDefault("ingest.payments", "true");
+        setDefault("ingest.limits", "true");
+
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        FakeDbsBackend backend = FakeDbsBackend.start(Arrays.asList(ParserUtil.convertJsonToObject(
+            globalProperties.getString(PROPERTY_JOB_PROFILES_JSON_LOCATION), JobProfile[].class)));
+        for (String[] service : PLATFORM_SERVICES) {
+            System.setProperty("bb-fuel.platform." + service[0], backend.getUrl() + service[1]);
+        }
+        for (String[] service : DBS_SERVICES) {
+            System.setProperty("bb-fuel.dbs." + service[0], backend.getUrl() + service[1]);
+        }
+
+        long start = System.nanoTime();
+        Path report = Paths.get(globalProperties.getString(PROPERTY_REPORT_DIR)).resolve(REPORT);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            report(backend, System.nanoTime() - start, report);
+            backend.stop();
+        }, "e2e-benchmark-report"));
+
+        BbFuelApplication.main(args);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static void report(FakeDbsBackend backend, long durationNanos, Path report) {
+        double seconds = durationNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        Map<String, Long> createdEntities = backend.getCreatedEntities();
+        long totalEntities = createdEntities.values().stream().mapToLong(Long::longValue).sum();
+
+        System.out.printf("%nEnd to end benchmark: %.1f s, %d requests (%.1f/s), %d injected errors%n",
+            seconds, backend.getRequests(), backend.getRequests() / seconds, backend.getInjectedErrors());
+        createdEntities.forEach((type, count) ->
+            System.out.printf("%-24s %10d %12.1f/s%n", type, count, count / seconds));
+        System.out.printf("%-24s %10d %12.1f/s%n", "total", totalEntities, totalEntities / seconds);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("durationSeconds", seconds);
+        result.put("requests", backend.getRequests());
+        result.put("injectedErrors", backend.getInjectedErrors());
+        result.put("entities", createdEntities);
+        result.put("entitiesPerSecond", totalEntities / seconds);
+        try {
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            try (OutputStream output = Files.newOutputStream(report)) {
+                ParserUtil.convertObjectToJson(output, result);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed writing " + report.toAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.backbase.ct.bbfuel.benchmark;
+
+import com.backbase.ct.bbfuel.client.common.RestClient;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.data.ContactsDataGenerator;
+import com.backbase.ct.bbfuel.data.TransactionsDataGenerator;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
+import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.backbase.ct.bbfuel.util.ParserUtil;
+import com.backbase.dbs.contact.integration.inbound.api.v2.model.ContactsBulkPostRequestBody;
+import com.backbase.dbs.transaction.client.v2.model.TransactionsPostRequestBody;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of parsing the shipped input files and of serializing large request bodies with the mapper configuration
+ * of {@link RestClient}, both with a new mapper per body as RestAssured does with that configuration and with a shared
+ * mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private final ObjectMapper sharedMapper = RestClient.createObjectMapper();
+
+    @State(Scope.Benchmark)
+    public static class Bodies {
+
+        @Param({"100", "1000"})
+        private int bodySize;
+
+        private List<TransactionsPostRequestBody> transactions;
+        private ContactsBulkPostRequestBody contacts;
+
+        @Setup
+        public void setUp() {
+            IngestionConfig ingestionConfig = IngestionConfig.fromProperties(GlobalProperties.getInstance());
+            transactions = IntStream.range(0, bodySize)
+                .mapToObj(i -> TransactionsDataGenerator.generateTransactionsPostRequestBody(
+                    "A000001", ingestionConfig))
+                .collect(Collectors.toList());
+            contacts = ContactsDataGenerator.generateContactsBulkIngestionPostRequestBody("sa", "user", bodySize, 3);
+        }
+    }
+
+    @Benchmark
+    public JobProfile[] parseJobProfiles() throws IOException {
+        return ParserUtil.convertJsonToObject("data/job-profiles.json", JobProfile[].class);
+    }
+
+    @Benchmark
+    public LegalEntityWithUsers[] parseLegalEntitiesWithUsers() throws IOException {
+        return ParserUtil.convertJsonToObject("data/legal-entities-with-users.json", LegalEntityWithUsers[].class);
+    }
+
+    @Benchmark
+    public ProductGroupSeed[] parseProductGroupSeeds() throws IOException {
+        return ParserUtil.convertJsonToObject("data/product-group-seed.json", ProductGroupSeed[].class);
+    }
+
+    @Benchmark
+    public TransactionsPostRequestBody[] parseRetailTransactions() throws IOException {
+        return ParserUtil.convertJsonToObject("data/retail-transactions.json", TransactionsPostRequestBody[].class);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionsWithNewMapper(Bodies bodies) throws JsonProcessingException {
+        return RestClient.createObjectMapper().writeValueAsBytes(bodies.transactions);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionsWithSharedMapper(Bodies bodies) throws JsonProcessingException {
+        return sharedMapper.writeValueAsBytes(bodies.transactions);
+    }
+
+    @Benchmark
+    public byte[] serializeContactsWithNewMapper(Bodies bodies) throws JsonProcessingException {
+        return RestClient.createObjectMapper().writeValueAsBytes(bodies.contacts);
+    }
+
+    @Benchmark
+    public byte[] serializeContactsWithSharedMapper(Bodies bodies) throws JsonProcessingException {
+        return sharedMapper.writeValueAsBytes(bodies.contacts);
+    }
+}
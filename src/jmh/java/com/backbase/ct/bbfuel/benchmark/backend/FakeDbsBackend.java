@@ -0,0 +1,214 @@
+package com.backbase.ct.bbfuel.benchmark.backend;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.backbase.ct.bbfuel.client.common.RestClient;
+import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Embedded HTTP server standing in for all DBS services and the identity service bb-fuel talks to, so the throughput
+ * of bb-fuel itself can be measured without an environment. Each request is delayed by the configured latency and
+ * fails with the configured error rate before it is handled by the {@link FakeDbsRoutes}, health checks excepted.
+ */
+@Slf4j
+public class FakeDbsBackend {
+
+    public static final String PROPERTY_PORT = "fake.backend.port";
+    public static final String PROPERTY_THREADS = "fake.backend.threads";
+    public static final String PROPERTY_LATENCY_MILLIS = "fake.backend.latency.millis";
+    public static final String PROPERTY_LATENCY_JITTER_MILLIS = "fake.backend.latency.jitter.millis";
+    public static final String PROPERTY_ERROR_RATE = "fake.backend.error.rate";
+    public static final String PROPERTY_ERROR_STATUS = "fake.backend.error.status";
+
+    private static final ObjectMapper MAPPER = RestClient.createObjectMapper();
+    private static final Pattern HEALTH_PATH = Pattern.compile(".*/(actuator|production-support)/health");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final FakeDbsRoutes routes;
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private final double errorRate;
+    private final int errorStatus;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    private FakeDbsBackend(List<JobProfile> jobProfiles) throws IOException {
+        this.routes = new FakeDbsRoutes(jobProfiles);
+        this.latencyMillis = Long.getLong(PROPERTY_LATENCY_MILLIS, 0);
+        this.latencyJitterMillis = Long.getLong(PROPERTY_LATENCY_JITTER_MILLIS, 0);
+        this.errorRate = Double.parseDouble(System.getProperty(PROPERTY_ERROR_RATE, "0"));
+        this.errorStatus = Integer.getInteger(PROPERTY_ERROR_STATUS, 503);
+        this.executor = Executors.newFixedThreadPool(Integer.getInteger(PROPERTY_THREADS, 64),
+            new ThreadFactoryBuilder().setNameFormat("fake-dbs-%d").setDaemon(true).build());
+        this.server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.getInteger(PROPERTY_PORT, 0)), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    /**
+     * Start a backend configured by the system properties of this class.
+     *
+     * @param jobProfiles job profiles that will be ingested, to offer their business functions
+     */
+    public static FakeDbsBackend start(List<JobProfile> jobProfiles) throws IOException {
+        FakeDbsBackend backend = new FakeDbsBackend(jobProfiles);
+        backend.server.start();
+        log.info("Fake DBS backend listening on {} with {} ms latency and error rate {}",
+            backend.getUrl(), backend.latencyMillis, backend.errorRate);
+        return backend;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    /**
+     * @return number of entities created per type since the start
+     */
+    public Map<String, Long> getCreatedEntities() {
+        return routes.getCreatedEntities();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        FakeResponse response;
+        try {
+            if (HEALTH_PATH.matcher(exchange.getRequestURI().getPath()).matches()) {
+                response = FakeResponse.of(200, MAPPER.createObjectNode().put("status", "UP"));
+            } else {
+                injectLatency();
+                response = injectError() ? FakeResponse.empty(errorStatus) : routes.handle(toRequest(exchange));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Fake DBS backend failed handling {} {}", exchange.getRequestMethod(),
+                exchange.getRequestURI(), e);
+            response = FakeResponse.empty(500);
+        }
+        try {
+            send(exchange, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void injectLatency() {
+        long millis = latencyMillis + (latencyJitterMillis > 0
+            ? ThreadLocalRandom.current().nextLong(latencyJitterMillis + 1) : 0);
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean injectError() {
+        boolean error = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+        if (error) {
+            injectedErrors.increment();
+        }
+        return error;
+    }
+
+    private static FakeRequest toRequest(HttpExchange exchange) throws IOException {
+        String contentType = String.valueOf(exchange.getRequestHeaders().getFirst("Content-Type"));
+        String body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = IOUtils.toString(input, UTF_8);
+        }
+
+        JsonNode json = contentType.contains("json") && !body.isEmpty()
+            ? MAPPER.readTree(body) : MAPPER.missingNode();
+        Map<String, String> formParameters = contentType.contains("form-urlencoded")
+            ? parseParameters(body) : Collections.emptyMap();
+
+        return new FakeRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+            parseParameters(exchange.getRequestURI().getRawQuery()), formParameters, json, getUser(exchange));
+    }
+
+    /**
+     * The user is recognized by the token the fake identity service issued, which bb-fuel sends as cookie.
+     */
+    private static String getUser(HttpExchange exchange) {
+        List<String> cookieHeaders = exchange.getRequestHeaders().get("Cookie");
+        if (cookieHeaders == null) {
+            return null;
+        }
+        for (String cookieHeader : cookieHeaders) {
+            for (String cookie : cookieHeader.split(";")) {
+                String[] nameAndValue = cookie.trim().split("=", 2);
+                if (nameAndValue.length == 2 && nameAndValue[0].equals("Authorization")
+                    && nameAndValue[1].startsWith(FakeDbsRoutes.TOKEN_PREFIX)) {
+                    return nameAndValue[1].substring(FakeDbsRoutes.TOKEN_PREFIX.length());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> parseParameters(String encoded) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : encoded.split("&")) {
+            String[] nameAndValue = parameter.split("=", 2);
+            parameters.put(URLDecoder.decode(nameAndValue[0], UTF_8.name()),
+                nameAndValue.length == 2 ? URLDecoder.decode(nameAndValue[1], UTF_8.name()) : "");
+        }
+        return parameters;
+    }
+
+    private static void send(HttpExchange exchange, FakeResponse response) throws IOException {
+        response.getHeaders().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        if (response.getBody() == null) {
+            exchange.sendResponseHeaders(response.getStatus(), -1);
+            return;
+        }
+        byte[] body = MAPPER.writeValueAsBytes(response.getBody());
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.getStatus(), body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package com.backbase.ct.bbfuel.benchmark.backend;
+
+import static org.apache.http.HttpStatus.SC_ACCEPTED;
+import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
+import static org.apache.http.HttpStatus.SC_CREATED;
+import static org.apache.http.HttpStatus.SC_MULTI_STATUS;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_NO_CONTENT;
+import static org.apache.http.HttpStatus.SC_OK;
+
+import com.backbase.ct.bbfuel.client.common.RestClient;
+import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The endpoints of the DBS services bb-fuel ingests into, keeping legal entities, users, service agreements, access
+ * groups and arrangements in memory so later lookups return what has been ingested before. Endpoints bb-fuel only
+ * posts data to are answered with the status it expects, counting the entities that would have been created.
+ * Requests without a route get a generic successful response.
+ */
+class FakeDbsRoutes {
+
+    static final String TOKEN_PREFIX = "fake-token-";
+
+    private static final ObjectMapper MAPPER = RestClient.createObjectMapper();
+    private static final String STATUS_OK = "200";
+    private static final String DEFAULT_PERMISSION_SET = "Regular user APS";
+
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, ObjectNode> legalEntitiesByExternalId = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> legalEntitiesById = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> usersByExternalId = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> serviceAgreementsById = new ConcurrentHashMap<>();
+    private final Map<String, String> serviceAgreementIdsByExternalId = new ConcurrentHashMap<>();
+    private final Map<String, String> masterServiceAgreementIdsByLegalEntityId = new ConcurrentHashMap<>();
+    private final Map<String, List<ObjectNode>> functionGroupsByServiceAgreementId = new ConcurrentHashMap<>();
+    private final Map<String, List<ObjectNode>> dataGroupsByServiceAgreementId = new ConcurrentHashMap<>();
+    private final Map<String, List<ObjectNode>> arrangementsByLegalEntityExternalId = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> createdEntities = new ConcurrentHashMap<>();
+    private final ArrayNode permissionSets;
+    private volatile String rootLegalEntityId;
+
+    /**
+     * @param jobProfiles job profiles to be ingested, their business functions make up the default permission set
+     */
+    FakeDbsRoutes(List<JobProfile> jobProfiles) {
+        this.permissionSets = createPermissionSets(jobProfiles);
+
+        route("POST", ".*/protocol/openid-connect/token", this::identityToken);
+        route("POST", ".*/auth/login", this::login);
+        route("POST", ".*/oauth/token", (request, matcher) -> ok(object().put("access_token", newId())));
+
+        route("POST", ".*/legalentities", this::createLegalEntity);
+        route("GET", ".*/legalentities/([^/]+)/serviceagreements/master", this::getMasterServiceAgreementByExternalId);
+        route("GET", ".*/legal-entities/external/([^/]+)", this::getLegalEntityByExternalId);
+        route("GET", ".*/legal-entities/([^/]+)/service-agreements/master", this::getMasterServiceAgreement);
+
+        route("POST", ".*/users(/identities)?", this::createUser);
+        route("GET", ".*/users/externalids/([^/]+)/legalentities", this::getLegalEntityOfUser);
+        route("GET", ".*/users/externalids/([^/]+)", this::getUser);
+        route("PUT", ".*/users/profile/mock/[^/]+", (request, matcher) -> FakeResponse.empty(SC_NO_CONTENT));
+        route("PUT", ".*/users/permissions/user-permissions", this::assignPermissions);
+
+        route("GET", ".*/accessgroups/user-context/service-agreements", this::getUserContextServiceAgreements);
+        route("POST", ".*/accessgroups/user-context", (request, matcher) -> FakeResponse.empty(SC_NO_CONTENT));
+        route("POST", ".*/service-agreements/admins/add", this::addServiceAgreementAdmins);
+        route("POST", ".*/service-agreements", this::createServiceAgreement);
+        route("PUT", ".*/service-agreements/([^/]+)", this::updateServiceAgreement);
+        route("GET", ".*/service-agreements/([^/]+)", this::getServiceAgreement);
+
+        route("GET", ".*/permission-sets", (request, matcher) -> ok(permissionSets));
+        route("POST", ".*/function-groups", this::createFunctionGroup);
+        route("GET", ".*/accessgroups/function-groups", this::getFunctionGroups);
+        route("POST", ".*/data-groups/batch", this::createDataGroups);
+        route("GET", ".*/accessgroups/data-groups", this::getDataGroups);
+
+        route("POST", ".*/arrangements", this::createArrangement);
+        route("GET", ".*/productsummary/context/arrangements", this::getContextArrangements);
+        route("POST", ".*/balance-history", (request, matcher) -> created("balance history items", 1));
+        route("POST", ".*/transactions", (request, matcher) -> created("transactions", request.getBody().size()));
+        route("POST", ".*/contacts/bulk",
+            (request, matcher) -> created("contacts", request.getBody().path("contacts").size()));
+        route("POST", ".*/payment-orders", this::createPaymentOrder);
+        route("POST", ".*/limits", this::createLimit);
+
+        route("POST", ".*/approval-types", (request, matcher) -> approvalResource("approvalType"));
+        route("POST", ".*/policies", (request, matcher) -> approvalResource("policy"));
+        route("POST", ".*/approval-type-assignments/bulk", (request, matcher) -> FakeResponse.of(SC_CREATED, object()));
+        route("POST", ".*/policy-assignments/bulk", (request, matcher) -> FakeResponse.empty(SC_NO_CONTENT));
+    }
+
+    FakeResponse handle(FakeRequest request) {
+        for (Route route : routes) {
+            if (route.method.equals(request.getMethod())) {
+                Matcher matcher = route.path.matcher(request.getPath());
+                if (matcher.matches()) {
+                    return route.handler.handle(request, matcher);
+                }
+            }
+        }
+        switch (request.getMethod()) {
+            case "GET":
+                return ok(MAPPER.createArrayNode());
+            case "POST":
+                return created("other", 1);
+            case "DELETE":
+                return FakeResponse.empty(SC_NO_CONTENT);
+            default:
+                return ok(object());
+        }
+    }
+
+    /**
+     * @return number of entities created per type since the start
+     */
+    Map<String, Long> getCreatedEntities() {
+        Map<String, Long> entities = new TreeMap<>();
+        createdEntities.forEach((type, count) -> entities.put(type, count.sum()));
+        return Collections.unmodifiableMap(entities);
+    }
+
+    private void route(String method, String path, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(path), handler));
+    }
+
+    private FakeResponse identityToken(FakeRequest request, Matcher matcher) {
+        return ok(object()
+            .put("access_token", TOKEN_PREFIX + request.getFormParameters().get("username"))
+            .put("refresh_token", newId())
+            .put("session_state", newId()));
+    }
+
+    private FakeResponse login(FakeRequest request, Matcher matcher) {
+        return FakeResponse.withHeader(SC_OK, "Set-Cookie",
+            "Authorization=" + TOKEN_PREFIX + request.getFormParameters().get("username"));
+    }
+
+    private FakeResponse createLegalEntity(FakeRequest request, Matcher matcher) {
+        JsonNode body = request.getBody();
+        String id = newId();
+        ObjectNode legalEntity = object()
+            .put("id", id)
+            .put("externalId", text(body, "externalId"))
+            .put("name", text(body, "name"))
+            .put("type", text(body, "type"));
+        String parentExternalId = text(body, "parentExternalId");
+        if (parentExternalId != null && legalEntitiesByExternalId.containsKey(parentExternalId)) {
+            legalEntity.put("parentId", legalEntitiesByExternalId.get(parentExternalId).get("id").asText());
+        }
+
+        if (legalEntitiesByExternalId.putIfAbsent(text(body, "externalId"), legalEntity) != null) {
+            return badRequest("Legal Entity with given external Id already exists");
+        }
+        legalEntitiesById.put(id, legalEntity);
+        if (parentExternalId == null && rootLegalEntityId == null) {
+            rootLegalEntityId = id;
+        }
+        ObjectNode masterServiceAgreement = storeServiceAgreement(null, text(body, "name"), true, id);
+        masterServiceAgreementIdsByLegalEntityId.put(id, masterServiceAgreement.get("id").asText());
+        return created("legal entities", 1, id);
+    }
+
+    private FakeResponse getLegalEntityByExternalId(FakeRequest request, Matcher matcher) {
+        return okOrNotFound(legalEntitiesByExternalId.get(matcher.group(1)), "Legal entity does not exist");
+    }
+
+    private FakeResponse getMasterServiceAgreementByExternalId(FakeRequest request, Matcher matcher) {
+        ObjectNode legalEntity = legalEntitiesByExternalId.get(matcher.group(1));
+        return okOrNotFound(legalEntity == null ? null : getMasterServiceAgreement(legalEntity.get("id").asText()),
+            "Legal entity does not exist");
+    }
+
+    private FakeResponse getMasterServiceAgreement(FakeRequest request, Matcher matcher) {
+        return okOrNotFound(getMasterServiceAgreement(matcher.group(1)), "Legal entity does not exist");
+    }
+
+    private FakeResponse createUser(FakeRequest request, Matcher matcher) {
+        JsonNode body = request.getBody();
+        String legalEntityExternalId = text(body, "legalEntityExternalId");
+        ObjectNode legalEntity = legalEntityExternalId != null
+            ? legalEntitiesByExternalId.get(legalEntityExternalId)
+            : legalEntitiesById.get(String.valueOf(text(body, "legalEntityInternalId")));
+        if (legalEntity == null) {
+            return badRequest("Legal entity does not exist");
+        }
+
+        String id = newId();
+        ObjectNode user = object()
+            .put("id", id)
+            .put("externalId", text(body, "externalId"))
+            .put("legalEntityId", legalEntity.get("id").asText())
+            .put("fullName", text(body, "fullName"));
+        if (usersByExternalId.putIfAbsent(text(body, "externalId"), user) != null) {
+            return badRequest("User already exists");
+        }
+        return created("users", 1, id);
+    }
+
+    private FakeResponse getUser(FakeRequest request, Matcher matcher) {
+        return okOrNotFound(usersByExternalId.get(matcher.group(1)), "User does not exist");
+    }
+
+    private FakeResponse getLegalEntityOfUser(FakeRequest request, Matcher matcher) {
+        ObjectNode user = usersByExternalId.get(matcher.group(1));
+        return okOrNotFound(user == null ? null : legalEntitiesById.get(user.get("legalEntityId").asText()),
+            "User does not exist");
+    }
+
+    private FakeResponse assignPermissions(FakeRequest request, Matcher matcher) {
+        ArrayNode results = MAPPER.createArrayNode();
+        request.getBody().forEach(assignment -> results.add(batchResult(text(assignment, "externalUserId"))));
+        return FakeResponse.of(SC_MULTI_STATUS, results);
+    }
+
+    /**
+     * The service agreements of the user context are those of the logged in user, which is the master service
+     * agreement of the legal entity of the user or of the root legal entity when the user is unknown.
+     */
+    private FakeResponse getUserContextServiceAgreements(FakeRequest request, Matcher matcher) {
+        ObjectNode user = request.getUser() == null ? null : usersByExternalId.get(request.getUser());
+        String legalEntityId = user == null ? rootLegalEntityId : user.get("legalEntityId").asText();
+        ArrayNode serviceAgreements = MAPPER.createArrayNode();
+        if (legalEntityId != null) {
+            serviceAgreements.add(getMasterServiceAgreement(legalEntityId));
+        }
+        return ok(serviceAgreements);
+    }
+
+    private FakeResponse addServiceAgreementAdmins(FakeRequest request, Matcher matcher) {
+        ArrayNode results = MAPPER.createArrayNode();
+        request.getBody().forEach(admin -> results.add(batchResult(text(admin, "externalUserId"))));
+        return FakeResponse.of(SC_MULTI_STATUS, results);
+    }
+
+    private FakeResponse createServiceAgreement(FakeRequest request, Matcher matcher) {
+        ObjectNode serviceAgreement = storeServiceAgreement(
+            text(request.getBody(), "externalId"), text(request.getBody(), "name"), false, null);
+        return created("service agreements", 1, serviceAgreement.get("id").asText());
+    }
+
+    private FakeResponse updateServiceAgreement(FakeRequest request, Matcher matcher) {
+        ObjectNode serviceAgreement = findServiceAgreement(matcher.group(1));
+        if (serviceAgreement == null) {
+            return notFound("Service agreement does not exist");
+        }
+        String externalId = text(request.getBody(), "externalId");
+        synchronized (serviceAgreement) {
+            if (externalId != null) {
+                serviceAgreement.put("externalId", externalId);
+                serviceAgreementIdsByExternalId.put(externalId, serviceAgreement.get("id").asText());
+            }
+            serviceAgreement.put("name", text(request.getBody(), "name"));
+            serviceAgreement.put("description", text(request.getBody(), "description"));
+        }
+        return ok(object());
+    }
+
+    private FakeResponse getServiceAgreement(FakeRequest request, Matcher matcher) {
+        return okOrNotFound(findServiceAgreement(matcher.group(1)), "Service agreement does not exist");
+    }
+
+    private FakeResponse createFunctionGroup(FakeRequest request, Matcher matcher) {
+        String serviceAgreementId = serviceAgreementIdsByExternalId.get(
+            String.valueOf(text(request.getBody(), "externalServiceAgreementId")));
+        if (serviceAgreementId == null) {
+            return badRequest("Service agreement does not exist");
+        }
+        String id = newId();
+        ObjectNode functionGroup = object()
+            .put("id", id)
+            .put("name", text(request.getBody(), "name"))
+            .put("description", text(request.getBody(), "description"))
+            .put("serviceAgreementId", serviceAgreementId)
+            .put("type", text(request.getBody(), "type"));
+        if (!addIfNameIsUnique(functionGroupsByServiceAgreementId, serviceAgreementId, functionGroup)) {
+            return badRequest("Function Group with given name already exists");
+        }
+        return created("function groups", 1, id);
+    }
+
+    private FakeResponse getFunctionGroups(FakeRequest request, Matcher matcher) {
+        return ok(MAPPER.valueToTree(functionGroupsByServiceAgreementId.getOrDefault(
+            String.valueOf(request.getQueryParameters().get("serviceAgreementId")), Collections.emptyList())));
+    }
+
+    private FakeResponse createDataGroups(FakeRequest request, Matcher matcher) {
+        ArrayNode results = MAPPER.createArrayNode();
+        for (JsonNode dataGroupCreate : request.getBody()) {
+            String serviceAgreementId = serviceAgreementIdsByExternalId.get(
+                String.valueOf(text(dataGroupCreate, "externalServiceAgreementId")));
+            if (serviceAgreementId == null) {
+                return badRequest("Service agreement does not exist");
+            }
+            String id = newId();
+            ObjectNode dataGroup = object()
+                .put("id", id)
+                .put("name", text(dataGroupCreate, "name"))
+                .put("description", text(dataGroupCreate, "description"))
+                .put("serviceAgreementId", serviceAgreementId)
+                .put("type", text(dataGroupCreate, "type"));
+            ArrayNode items = dataGroup.putArray("items");
+            dataGroupCreate.path("dataItems").forEach(item -> items.add(item.path("internalIdIdentifier").asText()));
+            if (!addIfNameIsUnique(dataGroupsByServiceAgreementId, serviceAgreementId, dataGroup)) {
+                return badRequest("Data Group with given name already exists");
+            }
+            count("data groups", 1);
+            results.add(batchResult(id));
+        }
+        return FakeResponse.of(SC_MULTI_STATUS, results);
+    }
+
+    private FakeResponse getDataGroups(FakeRequest request, Matcher matcher) {
+        return ok(MAPPER.valueToTree(dataGroupsByServiceAgreementId.getOrDefault(
+            String.valueOf(request.getQueryParameters().get("serviceAgreementId")), Collections.emptyList())));
+    }
+
+    private FakeResponse createArrangement(FakeRequest request, Matcher matcher) {
+        String id = newId();
+        ObjectNode arrangement = request.getBody().deepCopy();
+        arrangement.put("externalArrangementId", text(request.getBody(), "id"));
+        arrangement.put("id", id);
+        request.getBody().path("legalEntityIds").forEach(legalEntityExternalId -> arrangementsByLegalEntityExternalId
+            .computeIfAbsent(legalEntityExternalId.asText(), key -> new CopyOnWriteArrayList<>())
+            .add(arrangement));
+        return created("arrangements", 1, id);
+    }
+
+    private FakeResponse getContextArrangements(FakeRequest request, Matcher matcher) {
+        ObjectNode user = request.getUser() == null ? null : usersByExternalId.get(request.getUser());
+        ObjectNode legalEntity = user == null ? null : legalEntitiesById.get(user.get("legalEntityId").asText());
+        return ok(MAPPER.valueToTree(legalEntity == null ? Collections.emptyList()
+            : arrangementsByLegalEntityExternalId.getOrDefault(legalEntity.get("externalId").asText(),
+                Collections.emptyList())));
+    }
+
+    private FakeResponse createPaymentOrder(FakeRequest request, Matcher matcher) {
+        count("payment orders", 1);
+        return FakeResponse.of(SC_ACCEPTED, object().put("id", newId()).put("status", "ENTERED"));
+    }
+
+    private FakeResponse createLimit(FakeRequest request, Matcher matcher) {
+        count("limits", 1);
+        return FakeResponse.of(SC_CREATED, object().put("uuid", newId()));
+    }
+
+    private FakeResponse approvalResource(String resource) {
+        count("approval " + resource + "s", 1);
+        ObjectNode body = object();
+        body.putObject(resource).put("id", newId());
+        return FakeResponse.of(SC_CREATED, body);
+    }
+
+    private ObjectNode storeServiceAgreement(String externalId, String name, boolean master, String legalEntityId) {
+        String id = newId();
+        ObjectNode serviceAgreement = object()
+            .put("id", id)
+            .put("externalId", externalId)
+            .put("name", name)
+            .put("description", name)
+            .put("isMaster", master)
+            .put("creatorLegalEntity", legalEntityId)
+            .put("status", "ENABLED");
+        serviceAgreementsById.put(id, serviceAgreement);
+        if (externalId != null) {
+            serviceAgreementIdsByExternalId.put(externalId, id);
+        }
+        return serviceAgreement;
+    }
+
+    private ObjectNode getMasterServiceAgreement(String legalEntityId) {
+        String serviceAgreementId = masterServiceAgreementIdsByLegalEntityId.get(legalEntityId);
+        return serviceAgreementId == null ? null : serviceAgreementsById.get(serviceAgreementId);
+    }
+
+    private ObjectNode findServiceAgreement(String id) {
+        ObjectNode serviceAgreement = serviceAgreementsById.get(id);
+        if (serviceAgreement == null && serviceAgreementIdsByExternalId.containsKey(id)) {
+            serviceAgreement = serviceAgreementsById.get(serviceAgreementIdsByExternalId.get(id));
+        }
+        return serviceAgreement;
+    }
+
+    private static boolean addIfNameIsUnique(Map<String, List<ObjectNode>> groupsByServiceAgreementId,
+        String serviceAgreementId, ObjectNode group) {
+        List<ObjectNode> groups = groupsByServiceAgreementId
+            .computeIfAbsent(serviceAgreementId, key -> new CopyOnWriteArrayList<>());
+        synchronized (groups) {
+            if (groups.stream().anyMatch(existing -> existing.get("name").equals(group.get("name")))) {
+                return false;
+            }
+            return groups.add(group);
+        }
+    }
+
+    /**
+     * A single permission set holding all business functions of the job profiles, each with all privileges any of
+     * the job profiles requires.
+     */
+    private static ArrayNode createPermissionSets(List<JobProfile> jobProfiles) {
+        Map<String, Set<String>> privilegesByFunction = new TreeMap<>();
+        jobProfiles.stream()
+            .filter(jobProfile -> jobProfile.getPermissions() != null)
+            .flatMap(jobProfile -> jobProfile.getPermissions().stream())
+            .forEach(permission -> privilegesByFunction
+                .computeIfAbsent(permission.getBusinessFunction(), function -> new TreeSet<>())
+                .addAll(permission.getPrivileges()));
+
+        ArrayNode permissionSets = MAPPER.createArrayNode();
+        ObjectNode permissionSet = permissionSets.addObject()
+            .put("id", 1)
+            .put("name", DEFAULT_PERMISSION_SET)
+            .put("description", DEFAULT_PERMISSION_SET);
+        ArrayNode permissions = permissionSet.putArray("permissions");
+        privilegesByFunction.forEach((function, privileges) -> {
+            ObjectNode permission = permissions.addObject()
+                .put("functionId", String.valueOf(1000 + permissions.size()))
+                .put("functionName", function)
+                .put("resourceName", function);
+            privileges.forEach(permission.putArray("privileges")::add);
+        });
+        return permissionSets;
+    }
+
+    private FakeResponse created(String entityType, int entities) {
+        return created(entityType, entities, newId());
+    }
+
+    private FakeResponse created(String entityType, int entities, String id) {
+        count(entityType, entities);
+        return FakeResponse.of(SC_CREATED, object().put("id", id));
+    }
+
+    private void count(String entityType, int entities) {
+        createdEntities.computeIfAbsent(entityType, type -> new LongAdder()).add(entities);
+    }
+
+    private static ObjectNode batchResult(String resourceId) {
+        return object().put("resourceId", resourceId).put("status", STATUS_OK);
+    }
+
+    private static FakeResponse ok(JsonNode body) {
+        return FakeResponse.of(SC_OK, body);
+    }
+
+    private static FakeResponse okOrNotFound(JsonNode body, String message) {
+        return body == null ? notFound(message) : ok(body);
+    }
+
+    private static FakeResponse badRequest(String message) {
+        return FakeResponse.of(SC_BAD_REQUEST, error(message));
+    }
+
+    private static FakeResponse notFound(String message) {
+        return FakeResponse.of(SC_NOT_FOUND, error(message));
+    }
+
+    private static ObjectNode error(String message) {
+        ObjectNode error = object().put("message", message);
+        error.putArray("errors").addObject().put("message", message);
+        return error;
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.path(field).asText(null);
+    }
+
+    private static ObjectNode object() {
+        return MAPPER.createObjectNode();
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+
+        FakeResponse handle(FakeRequest request, Matcher matcher);
+    }
+
+    private static class Route {
+
+        private final String method;
+        private final Pattern path;
+        private final Handler handler;
+
+        private Route(String method, Pattern path, Handler handler) {
+            this.method = method;
+            this.path = path;
+            this.handler = handler;
+        }
+    }
+}
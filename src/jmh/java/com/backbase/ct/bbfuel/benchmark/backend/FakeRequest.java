@@ -0,0 +1,27 @@
+package com.backbase.ct.bbfuel.benchmark.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Map;
+import lombok.Value;
+
+/**
+ * Request received by the {@link FakeDbsBackend}, with the body parsed as JSON or as form parameters.
+ */
+@Value
+class FakeRequest {
+
+    String method;
+
+    String path;
+
+    Map<String, String> queryParameters;
+
+    Map<String, String> formParameters;
+
+    JsonNode body;
+
+    /**
+     * External id of the user of the token sent along as cookie, null when not logged in.
+     */
+    String user;
+}
@@ -0,0 +1,33 @@
+package com.backbase.ct.bbfuel.benchmark.backend;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Map;
+import lombok.Value;
+
+/**
+ * Response of the {@link FakeDbsBackend}, without a body when it is null.
+ */
+@Value
+class FakeResponse {
+
+    int status;
+
+    JsonNode body;
+
+    Map<String, String> headers;
+
+    static FakeResponse of(int status, JsonNode body) {
+        return new FakeResponse(status, body, emptyMap());
+    }
+
+    static FakeResponse withHeader(int status, String name, String value) {
+        return new FakeResponse(status, null, singletonMap(name, value));
+    }
+
+    static FakeResponse empty(int status) {
+        return new FakeResponse(status, null, emptyMap());
+    }
+}
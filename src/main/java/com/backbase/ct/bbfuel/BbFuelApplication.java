@@ -1,5 +1,10 @@
 package com.backbase.ct.bbfuel;
 
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_ENABLED;
+
+import com.backbase.ct.bbfuel.server.JobServer;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import java.io.IOException;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
@@ -14,7 +19,14 @@ import org.springframework.context.annotation.ComponentScan;
     "com.backbase.integration"})
 public class BbFuelApplication {
 
-    public static void main(String[] args) {
+    /**
+     * Ingest once, or keep running as job server that starts an application context per ingestion job.
+     */
+    public static void main(String[] args) throws IOException {
+        if (GlobalProperties.getInstance().getBoolean(PROPERTY_JOB_SERVER_ENABLED)) {
+            new JobServer(args).start();
+            return;
+        }
         new SpringApplicationBuilder(BbFuelApplication.class)
             .web(WebApplicationType.NONE)
             .run(args);
@@ -1,20 +1,54 @@
 package com.backbase.ct.bbfuel;
 
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_EXPORT_IDS_ENABLED;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_EXPORT_IDS_FORMAT;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_ENABLED;
 import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_LEGAL_ENTITIES_WITH_USERS_JSON;
 import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_M10Y_LEGAL_ENTITIES_WITH_USERS_JSON;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_PLAN_ENABLED;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_REPORT_DIR;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_REQUEST_BUDGET_PER_ENTITY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_REQUEST_FINGERPRINTS_TOP;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_STARTUP_BUDGET_MILLIS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRAFFIC_ARRANGEMENTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRAFFIC_ENABLED;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_ENABLED;
 
+import com.backbase.ct.bbfuel.client.common.RetryFilter;
+import com.backbase.ct.bbfuel.config.MultiTenancyConfig;
+import com.backbase.ct.bbfuel.dto.User;
+import com.backbase.ct.bbfuel.export.IdMapExport;
 import com.backbase.ct.bbfuel.healthcheck.AccessControlHealthCheck;
 import com.backbase.ct.bbfuel.healthcheck.BillPayHealthCheck;
+import com.backbase.ct.bbfuel.healthcheck.HealthCheck;
 import com.backbase.ct.bbfuel.healthcheck.ProductSummaryHealthCheck;
 import com.backbase.ct.bbfuel.healthcheck.TransactionsHealthCheck;
+import com.backbase.ct.bbfuel.metrics.RequestFingerprints;
+import com.backbase.ct.bbfuel.metrics.RequestMetrics;
+import com.backbase.ct.bbfuel.metrics.Timeline;
+import com.backbase.ct.bbfuel.metrics.tracing.Tracing;
+import com.backbase.ct.bbfuel.plan.IngestionPlan;
+import com.backbase.ct.bbfuel.plan.IngestionPlanner;
 import com.backbase.ct.bbfuel.setup.AccessControlSetup;
 import com.backbase.ct.bbfuel.setup.CapabilitiesDataSetup;
 import com.backbase.ct.bbfuel.setup.ServiceAgreementsSetup;
+import com.backbase.ct.bbfuel.traffic.TrafficResult;
+import com.backbase.ct.bbfuel.traffic.TransactionTraffic;
 import com.backbase.ct.bbfuel.util.GlobalProperties;
-import com.backbase.ct.bbfuel.config.MultiTenancyConfig;
+import com.backbase.ct.bbfuel.warmup.ReadPathWarmup;
+import com.backbase.ct.bbfuel.warmup.WarmupResult;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -34,9 +68,22 @@ public class Runner implements ApplicationRunner {
     private final ProductSummaryHealthCheck productSummaryHealthCheck;
     private final TransactionsHealthCheck transactionsHealthCheck;
     private final BillPayHealthCheck billPayHealthCheck;
+    private final IngestionPlanner ingestionPlanner;
+    private final TransactionTraffic transactionTraffic;
+    private final ReadPathWarmup readPathWarmup;
+    private final IdMapExport idMapExport;
+    private long ingestedEntities;
 
+    /**
+     * Ingest and exit, unless running a job of the job server, which reports the outcome and keeps running.
+     */
     @Override
-    public void run(ApplicationArguments args) {
+    public void run(ApplicationArguments args) throws IOException {
+        if (isJob()) {
+            doIt();
+            return;
+        }
+        logStartupTime();
         try {
             doIt();
             System.exit(0);
@@ -52,17 +99,45 @@ public class Runner implements ApplicationRunner {
      * @throws IOException when setupAccessControl throws it
      */
     private void doIt() throws IOException {
+        if (GlobalProperties.getInstance().getBoolean(PROPERTY_PLAN_ENABLED)) {
+            planIngestion();
+            return;
+        }
         if (log.isInfoEnabled()) {
             String environment = GlobalProperties.getInstance().getString("environment.name");
             log.info("Ingesting data into {}", (environment == null ? "environment" : environment));
         }
 
         Instant start = Instant.now();
-        ingestEnvironment();
+        try (Timeline.Phase phase = Timeline.start("ingestion")) {
+            ingestEnvironment();
+        }
         logDuration(start);
+        if (GlobalProperties.getInstance().getBoolean(PROPERTY_EXPORT_IDS_ENABLED)) {
+            exportIds();
+        }
+        if (GlobalProperties.getInstance().getBoolean(PROPERTY_TRAFFIC_ENABLED)) {
+            generateTransactionTraffic();
+        }
+        logRetries();
+        reportRequestMetrics();
+        reportTimeline();
+        if (isJob()) {
+            Tracing.flush();
+        } else {
+            Tracing.shutdown();
+        }
+        reportRequestFingerprints();
     }
 
-    private void ingestEnvironment() throws IOException {
+    private static boolean isJob() {
+        return GlobalProperties.getInstance().getBoolean(PROPERTY_JOB_SERVER_ENABLED);
+    }
+
+    /**
+     * @return the files of legal entities with users to ingest, one per tenant, or none when misconfigured
+     */
+    private String[] getTenants() {
         String[] tenants = new String[]{
             GlobalProperties.getInstance().getString(PROPERTY_LEGAL_ENTITIES_WITH_USERS_JSON)};
         if (MultiTenancyConfig.isMultiTenancyEnvironment()) {
@@ -72,23 +147,67 @@ public class Runner implements ApplicationRunner {
             if (tenants.length < 2) {
                 log.error("Your multi-tenant environment needs at least 2 tenants, you configured only #{}: {}={}",
                     tenants.length, PROPERTY_M10Y_LEGAL_ENTITIES_WITH_USERS_JSON, legalEntityResource);
-                return;
+                return new String[0];
             }
         }
+        return tenants;
+    }
+
+    /**
+     * Only plan the ingestion and estimate its duration from the reports of the previous run, which are not
+     * overwritten.
+     */
+    private void planIngestion() throws IOException {
+        IngestionPlan plan = ingestionPlanner.plan(getTenants());
+        Path reportDir = Paths.get(GlobalProperties.getInstance().getString(PROPERTY_REPORT_DIR));
+        ingestionPlanner.estimate(plan, reportDir);
+        plan.logSummary();
+        Files.createDirectories(reportDir);
+        plan.writeJson(reportDir.resolve(IngestionPlan.JSON_REPORT));
+        log.info("Ingestion plan written to {}", reportDir.toAbsolutePath());
+    }
 
-        for (String tenant : tenants) {
-            accessControlSetup.prepare(tenant);
-            performHealthChecks();
-            setupAccessControl();
-            ingestCapabilityData();
+    private void ingestEnvironment() throws IOException {
+        for (String tenant : getTenants()) {
+            try (Timeline.Phase tenantPhase = Timeline.start("tenant " + tenant)) {
+                try (Timeline.Phase phase = Timeline.start("prepare")) {
+                    accessControlSetup.prepare(tenant);
+                    tenantPhase.setEntities(countIngestedEntities());
+                }
+                try (Timeline.Phase phase = Timeline.start("health checks")) {
+                    performHealthChecks();
+                }
+                try (Timeline.Phase phase = Timeline.start("access control")) {
+                    setupAccessControl();
+                }
+                try (Timeline.Phase phase = Timeline.start("capabilities")) {
+                    ingestCapabilityData();
+                }
+                if (GlobalProperties.getInstance().getBoolean(PROPERTY_WARMUP_ENABLED)) {
+                    warmUpReadPath(tenant);
+                }
+            }
         }
     }
 
+    private long countIngestedEntities() {
+        long tenantEntities = accessControlSetup.getLegalEntitiesWithUsers().stream()
+            .mapToLong(legalEntityWithUsers -> 1 + legalEntityWithUsers.getUsers().size())
+            .sum();
+        ingestedEntities += tenantEntities;
+        return tenantEntities;
+    }
+
+    /**
+     * Start all health checks at once, but only wait for the services of access control. Transactions and bill pay
+     * ingestion wait for their own services when they get to them.
+     */
     private void performHealthChecks() {
-        accessControlHealthCheck.checkAccessControlServicesHealth();
-        productSummaryHealthCheck.checkProductSummaryServicesHealth();
-        transactionsHealthCheck.checkTransactionsServicesHealth();
-        billPayHealthCheck.checkBillPayServicesHealth();
+        transactionsHealthCheck.startTransactionsServicesHealthCheck();
+        billPayHealthCheck.startBillPayServicesHealthCheck();
+        HealthCheck.await(CompletableFuture.allOf(
+            accessControlHealthCheck.startAccessControlServicesHealthCheck(),
+            productSummaryHealthCheck.startProductSummaryServicesHealthCheck()));
     }
 
     private void setupAccessControl() throws IOException {
@@ -100,9 +219,138 @@ public class Runner implements ApplicationRunner {
         capabilitiesDataSetup.initiate();
     }
 
+    /**
+     * Log the time from the start of the JVM until the application is ready to ingest, and warn when it exceeds the
+     * startup budget.
+     */
+    private static void logStartupTime() {
+        long startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        long budgetMillis = GlobalProperties.getInstance().getLong(PROPERTY_STARTUP_BUDGET_MILLIS);
+        if (budgetMillis > 0 && startupMillis > budgetMillis) {
+            log.warn("Started in {} milliseconds, exceeding the startup budget of {} milliseconds", startupMillis,
+                budgetMillis);
+        } else {
+            log.info("Started in {} milliseconds", startupMillis);
+        }
+    }
+
+    private void exportIds() {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        Path reportDir = Paths.get(globalProperties.getString(PROPERTY_REPORT_DIR));
+        try {
+            idMapExport.export(reportDir, globalProperties.getString(PROPERTY_EXPORT_IDS_FORMAT));
+        } catch (IOException e) {
+            log.warn("Failed exporting ids to {}", reportDir.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Let the users of the tenant just ingested warm up the caches of the read path.
+     */
+    private void warmUpReadPath(String tenant) {
+        List<String> externalUserIds = accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().stream()
+            .flatMap(legalEntityWithUsers -> legalEntityWithUsers.getUsers().stream())
+            .map(User::getExternalId)
+            .distinct()
+            .collect(Collectors.toList());
+        WarmupResult result;
+        try (Timeline.Phase phase = Timeline.start("warmup")) {
+            phase.setEntities(externalUserIds.size());
+            result = readPathWarmup.warmUp(externalUserIds);
+        }
+        result.logSummary();
+        Path reportDir = Paths.get(GlobalProperties.getInstance().getString(PROPERTY_REPORT_DIR));
+        String reportName = MultiTenancyConfig.isMultiTenancyEnvironment()
+            ? Paths.get(tenant).getFileName() + "-" + WarmupResult.JSON_REPORT
+            : WarmupResult.JSON_REPORT;
+        try {
+            Files.createDirectories(reportDir);
+            result.writeJson(reportDir.resolve(reportName));
+        } catch (IOException e) {
+            log.warn("Failed writing warmup to {}", reportDir.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Keep posting transactions for the configured arrangements, or else the ones ingested by this run.
+     */
+    private void generateTransactionTraffic() {
+        Map<String, Boolean> arrangements = new LinkedHashMap<>();
+        GlobalProperties.getInstance().getList(PROPERTY_TRAFFIC_ARRANGEMENTS).stream()
+            .filter(StringUtils::isNotBlank)
+            .forEach(externalArrangementId -> arrangements.put(externalArrangementId.trim(), false));
+        if (arrangements.isEmpty()) {
+            idMapExport.getArrangements().stream()
+                .filter(arrangement -> arrangement.getExternalArrangementId() != null)
+                .forEach(arrangement -> arrangements.put(arrangement.getExternalArrangementId(),
+                    arrangement.isRetail()));
+        }
+        if (arrangements.isEmpty()) {
+            log.warn("No arrangements to generate transaction traffic for, set {} for arrangements of a previous run",
+                PROPERTY_TRAFFIC_ARRANGEMENTS);
+            return;
+        }
+        TrafficResult result;
+        try (Timeline.Phase phase = Timeline.start("transaction traffic")) {
+            result = transactionTraffic.generate(arrangements);
+        }
+        result.logSummary();
+        Path reportDir = Paths.get(GlobalProperties.getInstance().getString(PROPERTY_REPORT_DIR));
+        try {
+            Files.createDirectories(reportDir);
+            result.writeJson(reportDir.resolve(TrafficResult.JSON_REPORT));
+        } catch (IOException e) {
+            log.warn("Failed writing transaction traffic to {}", reportDir.toAbsolutePath(), e);
+        }
+    }
+
     private void logDuration(Instant start) {
         Instant end = Instant.now();
         long totalSeconds = Duration.between(start, end).getSeconds();
         log.info("Time to ingest data was {} minutes and {} seconds", totalSeconds / 60, totalSeconds % 60);
     }
+
+    private void logRetries() {
+        RetryFilter.getRetryCounts().forEach((endpoint, retries) ->
+            log.info("Retried [{}] {} times", endpoint, retries));
+    }
+
+    private void reportRequestMetrics() {
+        if (RequestMetrics.getMetrics().isEmpty()) {
+            return;
+        }
+        RequestMetrics.logSummary();
+        Path reportDir = Paths.get(GlobalProperties.getInstance().getString(PROPERTY_REPORT_DIR));
+        try {
+            Files.createDirectories(reportDir);
+            RequestMetrics.writeJson(reportDir.resolve(RequestMetrics.JSON_REPORT));
+            RequestMetrics.writePrometheus(reportDir.resolve(RequestMetrics.PROMETHEUS_REPORT));
+            log.info("Request metrics written to {}", reportDir.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Failed writing request metrics to {}", reportDir.toAbsolutePath(), e);
+        }
+    }
+
+    private void reportTimeline() {
+        Timeline.logSummary();
+        Path reportDir = Paths.get(GlobalProperties.getInstance().getString(PROPERTY_REPORT_DIR));
+        try {
+            Files.createDirectories(reportDir);
+            Timeline.writeJson(reportDir.resolve(Timeline.JSON_REPORT));
+        } catch (IOException e) {
+            log.warn("Failed writing timeline to {}", reportDir.toAbsolutePath(), e);
+        }
+    }
+
+    private void reportRequestFingerprints() {
+        if (RequestFingerprints.getTotalRequests() == 0) {
+            return;
+        }
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        RequestFingerprints.logTopRedundant(globalProperties.getInt(PROPERTY_REQUEST_FINGERPRINTS_TOP));
+        double budgetPerEntity = globalProperties.getDouble(PROPERTY_REQUEST_BUDGET_PER_ENTITY);
+        if (budgetPerEntity > 0) {
+            RequestFingerprints.verifyBudget(ingestedEntities, budgetPerEntity);
+        }
+    }
 }
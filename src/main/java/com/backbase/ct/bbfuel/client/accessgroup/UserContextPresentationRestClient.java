@@ -34,13 +34,17 @@ public class UserContextPresentationRestClient extends RestClient {
         setInitialPath(config.getDbsServiceNames().getAccessgroup() + "/" + CLIENT_API);
     }
 
-    public void selectContextBasedOnMasterServiceAgreement() {
+    /**
+     * @return the master service agreement selected
+     */
+    public ServiceAgreementItem selectContextBasedOnMasterServiceAgreement() {
         ServiceAgreementItem masterServiceAgreement = getMasterServiceAgreementForUserContext();
 
         postUserContext(new UserContextPost()
                 .serviceAgreementId(masterServiceAgreement.getId()))
                 .then()
                 .statusCode(SC_NO_CONTENT);
+        return masterServiceAgreement;
     }
 
     private Response postUserContext(UserContextPost userContextPostRequestBody) {
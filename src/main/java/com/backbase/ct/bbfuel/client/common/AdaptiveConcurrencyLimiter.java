@@ -0,0 +1,103 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limits the number of concurrent requests to a single service with an additive increase/multiplicative decrease
+ * (AIMD) algorithm.
+ * <p>
+ * The limit grows by one per window of successful requests, as long as the current limit is actually used. It shrinks
+ * by {@link #BACKOFF_RATIO} when a request is dropped by the service (5xx, 429 or no response at all) or when its
+ * latency exceeds the smoothed latency of the service by the given tolerance. It shrinks at most once per window: only
+ * requests sent after the previous decrease can decrease it again, so a burst of failures of requests that were in
+ * flight together counts as a single congestion event.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_SMOOTHING = 0.05;
+
+    private final String service;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final LongSupplier nanoTime;
+
+    private double limit;
+    private int inFlight;
+    private double smoothedLatencyNanos;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(String service, int initialLimit, int minLimit, int maxLimit,
+        double latencyTolerance) {
+        this(service, initialLimit, minLimit, maxLimit, latencyTolerance, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String service, int initialLimit, int minLimit, int maxLimit,
+        double latencyTolerance, LongSupplier nanoTime) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid concurrency limits for [%s]: initial %d, min %d, max %d",
+                service, initialLimit, minLimit, maxLimit));
+        }
+        this.service = service;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.nanoTime = nanoTime;
+        this.lastDecreaseNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Wait until a request is allowed to be sent to the service.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= getLimit()) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Release the permit of a completed request and adjust the limit to its outcome.
+     *
+     * @param latencyNanos duration of the request
+     * @param dropped whether the service failed to handle the request due to overload or unavailability
+     */
+    public synchronized void release(long latencyNanos, boolean dropped) {
+        boolean limitUsed = inFlight >= limit / 2;
+        inFlight--;
+
+        if (dropped || isSlow(latencyNanos)) {
+            long now = nanoTime.getAsLong();
+            if (now - latencyNanos - lastDecreaseNanos >= 0) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                lastDecreaseNanos = now;
+                log.debug("Concurrency limit of [{}] decreased to [{}]", service, getLimit());
+            }
+        } else if (limitUsed) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        if (!dropped) {
+            smoothedLatencyNanos = smoothedLatencyNanos == 0
+                ? latencyNanos
+                : (1 - LATENCY_SMOOTHING) * smoothedLatencyNanos + LATENCY_SMOOTHING * latencyNanos;
+        }
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private boolean isSlow(long latencyNanos) {
+        return smoothedLatencyNanos > 0 && latencyNanos > smoothedLatencyNanos * latencyTolerance;
+    }
+}
@@ -0,0 +1,105 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stops sending requests to a service after a number of consecutive failures, so an unavailable service fails fast
+ * instead of making every request wait for a timeout.
+ * <p>
+ * After being open for the configured duration, a single trial request is let through. The circuit closes again when
+ * it succeeds and stays open for another period when it fails.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String service;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoTime;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+
+    public CircuitBreaker(String service, int failureThreshold, long openDurationMillis) {
+        this(service, failureThreshold, openDurationMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(String service, int failureThreshold, long openDurationMillis, LongSupplier nanoTime) {
+        if (failureThreshold < 1 || openDurationMillis < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid circuit breaker settings for [%s]: failure threshold %d, open duration %d ms",
+                service, failureThreshold, openDurationMillis));
+        }
+        this.service = service;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Check whether a request may be sent to the service.
+     *
+     * @throws CircuitBreakerOpenException when the circuit is open or a trial request is already in progress
+     */
+    public synchronized void acquirePermission() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        long remainingOpenNanos = openedAtNanos + openDurationNanos - nanoTime.getAsLong();
+        if (state == State.OPEN && remainingOpenNanos <= 0) {
+            log.info("Circuit breaker of [{}] is half open, sending a trial request", service);
+            state = State.HALF_OPEN;
+            return;
+        }
+        throw new CircuitBreakerOpenException(service, Math.max(0, TimeUnit.NANOSECONDS.toMillis(remainingOpenNanos)));
+    }
+
+    /**
+     * Wait until a trial request may be sent, or until the circuit has been closed again by the trial request of
+     * another thread.
+     */
+    public synchronized void awaitPermission() throws InterruptedException {
+        while (state != State.CLOSED) {
+            if (state == State.OPEN) {
+                long remainingOpenNanos = openedAtNanos + openDurationNanos - nanoTime.getAsLong();
+                if (remainingOpenNanos <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remainingOpenNanos);
+            } else {
+                // a trial request is in progress, of which the outcome decides whether the circuit closes again
+                TimeUnit.NANOSECONDS.timedWait(this, openDurationNanos + 1);
+            }
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit breaker of [{}] is closed again", service);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        notifyAll();
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            log.warn("Circuit breaker of [{}] is open after {} consecutive failures", service, consecutiveFailures);
+            state = State.OPEN;
+            openedAtNanos = nanoTime.getAsLong();
+            notifyAll();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
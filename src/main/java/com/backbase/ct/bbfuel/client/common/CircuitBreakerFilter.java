@@ -0,0 +1,80 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CIRCUIT_BREAKER_OPEN_DURATION_MILLIS;
+import static org.apache.http.HttpStatus.SC_INTERNAL_SERVER_ERROR;
+
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guards every request with the {@link CircuitBreaker} of its service. Server errors and requests without any
+ * response count as failures.
+ */
+public class CircuitBreakerFilter implements Filter {
+
+    private static final Map<String, CircuitBreaker> CIRCUIT_BREAKERS = new ConcurrentHashMap<>();
+
+    private final CircuitBreaker circuitBreaker;
+
+    private CircuitBreakerFilter(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Create a filter sharing the circuit breaker with all other requests to given service.
+     */
+    public static CircuitBreakerFilter forService(String serviceUri) {
+        return new CircuitBreakerFilter(
+            CIRCUIT_BREAKERS.computeIfAbsent(serviceUri, CircuitBreakerFilter::createCircuitBreaker));
+    }
+
+    /**
+     * Wait until the circuit breaker of given service lets a trial request through or has been closed again.
+     */
+    public static void awaitPermission(String serviceUri) throws InterruptedException {
+        CircuitBreaker circuitBreaker = CIRCUIT_BREAKERS.get(serviceUri);
+        if (circuitBreaker != null) {
+            circuitBreaker.awaitPermission();
+        }
+    }
+
+    /**
+     * Forget the circuit breakers of a previous run in the same JVM.
+     */
+    public static void resetCircuitBreakers() {
+        CIRCUIT_BREAKERS.clear();
+    }
+
+    private static CircuitBreaker createCircuitBreaker(String serviceUri) {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        return new CircuitBreaker(serviceUri,
+            globalProperties.getInt(PROPERTY_CIRCUIT_BREAKER_FAILURE_THRESHOLD),
+            globalProperties.getLong(PROPERTY_CIRCUIT_BREAKER_OPEN_DURATION_MILLIS));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+        FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        circuitBreaker.acquirePermission();
+
+        boolean failed = true;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            failed = response.statusCode() >= SC_INTERNAL_SERVER_ERROR;
+            return response;
+        } finally {
+            if (failed) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        }
+    }
+}
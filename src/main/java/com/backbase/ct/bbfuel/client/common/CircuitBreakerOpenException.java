@@ -0,0 +1,21 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import com.backbase.ct.bbfuel.IngestException;
+import lombok.Getter;
+
+/**
+ * Thrown instead of sending a request to a service of which the {@link CircuitBreaker} is open.
+ */
+@Getter
+public class CircuitBreakerOpenException extends IngestException {
+
+    private final String service;
+    private final long remainingOpenMillis;
+
+    public CircuitBreakerOpenException(String service, long remainingOpenMillis) {
+        super(String.format("Circuit breaker of [%s] is open, not sending requests for another %d ms",
+            service, remainingOpenMillis));
+        this.service = service;
+        this.remainingOpenMillis = remainingOpenMillis;
+    }
+}
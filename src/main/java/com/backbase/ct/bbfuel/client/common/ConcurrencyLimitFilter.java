@@ -0,0 +1,78 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONCURRENCY_LIMITER_INITIAL_LIMIT;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONCURRENCY_LIMITER_LATENCY_TOLERANCE;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONCURRENCY_LIMITER_MAX_LIMIT;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONCURRENCY_LIMITER_MIN_LIMIT;
+import static org.apache.http.HttpStatus.SC_INTERNAL_SERVER_ERROR;
+
+import com.backbase.ct.bbfuel.IngestException;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes every request acquire a permit of the {@link AdaptiveConcurrencyLimiter} of its service, so all concurrent
+ * ingestion paths together adapt to the capacity of each service.
+ */
+public class ConcurrencyLimitFilter implements Filter {
+
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    private static final Map<String, AdaptiveConcurrencyLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Create a filter sharing the limiter with all other requests to given service.
+     */
+    public static ConcurrencyLimitFilter forService(String serviceUri) {
+        return new ConcurrencyLimitFilter(LIMITERS.computeIfAbsent(serviceUri, ConcurrencyLimitFilter::createLimiter));
+    }
+
+    /**
+     * Forget the limits learned by a previous run in the same JVM.
+     */
+    public static void resetLimiters() {
+        LIMITERS.clear();
+    }
+
+    private static AdaptiveConcurrencyLimiter createLimiter(String serviceUri) {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        return new AdaptiveConcurrencyLimiter(serviceUri,
+            globalProperties.getInt(PROPERTY_CONCURRENCY_LIMITER_INITIAL_LIMIT),
+            globalProperties.getInt(PROPERTY_CONCURRENCY_LIMITER_MIN_LIMIT),
+            globalProperties.getInt(PROPERTY_CONCURRENCY_LIMITER_MAX_LIMIT),
+            globalProperties.getDouble(PROPERTY_CONCURRENCY_LIMITER_LATENCY_TOLERANCE));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+        FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestException("Interrupted while waiting for a request permit of " + requestSpec.getURI(), e);
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            dropped = response.statusCode() >= SC_INTERNAL_SERVER_ERROR
+                || response.statusCode() == SC_TOO_MANY_REQUESTS;
+            return response;
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+}
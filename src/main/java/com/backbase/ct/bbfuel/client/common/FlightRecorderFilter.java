@@ -0,0 +1,34 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import com.backbase.ct.bbfuel.metrics.RequestMetrics;
+import com.backbase.ct.bbfuel.metrics.jfr.IngestionEvents;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Emits a flight recorder event for every request, attributed to the REST client sending it.
+ */
+public class FlightRecorderFilter implements Filter {
+
+    private final String client;
+    private final String serviceUri;
+
+    public FlightRecorderFilter(String client, String serviceUri) {
+        this.client = client;
+        this.serviceUri = serviceUri;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+        FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        try (IngestionEvents.Scope scope = IngestionEvents.httpRequest(client, serviceUri, requestSpec.getMethod(),
+            RequestMetrics.toPathTemplate(requestSpec.getUserDefinedPath()))) {
+            Response response = ctx.next(requestSpec, responseSpec);
+            scope.setStatus(response.statusCode());
+            return response;
+        }
+    }
+}
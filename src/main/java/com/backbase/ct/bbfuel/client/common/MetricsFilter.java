@@ -0,0 +1,50 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
+
+import com.backbase.ct.bbfuel.metrics.EndpointKey;
+import com.backbase.ct.bbfuel.metrics.RequestMetrics;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records latency, status and size of every request in {@link RequestMetrics}.
+ */
+public class MetricsFilter implements Filter {
+
+    private final String serviceUri;
+
+    public MetricsFilter(String serviceUri) {
+        this.serviceUri = serviceUri;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+        FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String pathTemplate = RequestMetrics.toPathTemplate(requestSpec.getUserDefinedPath());
+        long requestBytes = getBodySize(requestSpec.getBody());
+        long start = System.nanoTime();
+        Response response = null;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+            return response;
+        } finally {
+            long end = System.nanoTime();
+            int status = response == null ? 0 : response.statusCode();
+            long responseBytes = response == null ? 0 : response.asByteArray().length;
+            RequestMetrics.record(new EndpointKey(serviceUri, requestSpec.getMethod(), pathTemplate, status),
+                start, end, requestBytes, responseBytes, response == null || status >= SC_BAD_REQUEST);
+        }
+    }
+
+    private static long getBodySize(Object body) {
+        if (body instanceof byte[]) {
+            return ((byte[]) body).length;
+        }
+        return body == null ? 0 : body.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,26 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import com.backbase.ct.bbfuel.metrics.RequestFingerprints;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the fingerprint of every request in {@link RequestFingerprints}.
+ */
+public class RequestFingerprintFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+        FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        Map<String, Object> params = new HashMap<>(requestSpec.getRequestParams());
+        params.putAll(requestSpec.getFormParams());
+        RequestFingerprints.record(RequestFingerprints.fingerprint(requestSpec.getMethod(), requestSpec.getURI(),
+            requestSpec.getBody(), params));
+        return ctx.next(requestSpec, responseSpec);
+    }
+}
@@ -1,12 +1,18 @@
 package com.backbase.ct.bbfuel.client.common;
 
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CIRCUIT_BREAKER_ENABLED;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONCURRENCY_LIMITER_ENABLED;
 import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_LOG_ALL_REQUESTS_RESPONSES;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_METRICS_ENABLED;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_REQUEST_FINGERPRINTS_ENABLED;
 import static io.restassured.config.HttpClientConfig.httpClientConfig;
 import static java.util.Objects.*;
 import static org.apache.http.HttpStatus.SC_OK;
 
 import com.backbase.ct.bbfuel.config.MultiTenancyConfig;
 import com.backbase.ct.bbfuel.data.CommonConstants;
+import com.backbase.ct.bbfuel.metrics.jfr.IngestionEvents;
+import com.backbase.ct.bbfuel.metrics.tracing.Tracing;
 import com.backbase.ct.bbfuel.util.GlobalProperties;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -33,6 +39,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -84,6 +91,11 @@ public class RestClient {
     private String version;
 
     private static Map<String, String> cookiesJar = new LinkedHashMap<>();
+    private static final ThreadLocal<Map<String, String>> sessionCookiesJar = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> withoutRetries = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> withoutConcurrencyLimit = new ThreadLocal<>();
+    private final RetryPolicy defaultRetryPolicy = RetryPolicy.fromProperties();
+    private final Map<String, RetryPolicy> retryPolicies = new LinkedHashMap<>();
     private final ResponseParserRegistrar responseParserRegistrar = new ResponseParserRegistrar();
 
     public RestClient setInitialPath(String initialPath) {
@@ -103,6 +115,30 @@ public class RestClient {
         return version + endpoint;
     }
 
+    /**
+     * @return retry policy of all requests without a policy of their endpoint, as configured in the properties
+     */
+    public RetryPolicy getDefaultRetryPolicy() {
+        return defaultRetryPolicy;
+    }
+
+    /**
+     * Override the default retry policy for all requests with a path containing the given endpoint.
+     */
+    public RestClient setRetryPolicy(String endpoint, RetryPolicy retryPolicy) {
+        this.retryPolicies.put(endpoint, retryPolicy);
+        return this;
+    }
+
+    /**
+     * Services behind the gateway share the base URI, so the initial path is part of the identification.
+     *
+     * @return URI identifying the service this client sends its requests to
+     */
+    public String getServiceUri() {
+        return getBaseURI().toString() + "/" + getInitialPath();
+    }
+
     /**
      * Returns true when the health endpoint of the server returns 200 and status: "UP".
      *
@@ -115,14 +151,30 @@ public class RestClient {
     }
 
     public RequestSpecification requestSpec() {
+        RequestSpecification requestSpec = createRequestSpec();
+        setRetryFilter(requestSpec);
+        setLoggingFilters(requestSpec);
+        setCircuitBreakerFilter(requestSpec);
+        setConcurrencyLimitFilter(requestSpec);
+        setMetricsFilter(requestSpec);
+        setRequestFingerprintFilter(requestSpec);
+        if (IngestionEvents.isEnabled()) {
+            requestSpec.filter(new FlightRecorderFilter(getClass().getSimpleName(), getServiceUri()));
+        }
+        if (Tracing.isEnabled()) {
+            requestSpec.filter(new TracingFilter(getClass().getSimpleName(), getServiceUri()));
+        }
+        return requestSpec;
+    }
+
+    /**
+     * @return specification with the session of this client but without any filter
+     */
+    private RequestSpecification createRequestSpec() {
         LogRepository logRepository = new LogRepository();
         restAssuredConfig = RestAssuredConfig.config()
             .objectMapperConfig(new ObjectMapperConfig().jackson2ObjectMapperFactory(
-                (aClass, s) -> new ObjectMapper().configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
-                        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-                        .registerModule(new JavaTimeModule())
-                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
-            ))
+                (aClass, s) -> createObjectMapper()))
             .logConfig(LogConfig.logConfig().enableLoggingOfRequestAndResponseIfValidationFails())
             .httpClient(httpClientConfig().setParam(PARAMETER_NAME, TIMEOUT_VALUE));
 
@@ -134,8 +186,6 @@ public class RestClient {
                 this.responseParserRegistrar, restAssuredConfig, logRepository))
             .getRequestSpecification();
 
-        setLoggingFilters(requestSpec);
-
 //        requestSpec.queryParam("_csrf", getCookies().get("XSRF-TOKEN"));
         if (!isNull(getCookies().get(XSRF_TOKEN_NAME))) {
             requestSpec.header(X_XSRF_TOKEN_NAME, getCookies().get(XSRF_TOKEN_NAME));
@@ -149,8 +199,56 @@ public class RestClient {
         return requestSpec;
     }
 
+    /**
+     * @return mapper (de)serializing the bodies of requests and responses
+     */
+    public static ObjectMapper createObjectMapper() {
+        return new ObjectMapper().configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
     protected static void setUpCookies(Map<String, String> cookies) {
-        cookiesJar.putAll(cookies);
+        getCookies().putAll(cookies);
+    }
+
+    /**
+     * Forget the cookies of the session shared by all threads, e.g. the login of a previous run in the same JVM.
+     */
+    public static void clearCookies() {
+        cookiesJar.clear();
+    }
+
+    /**
+     * Run given task in a session of its own, so users logging in on several threads at once do not replace each
+     * other's cookies, nor the ones of the session shared by all other threads.
+     */
+    public static void runInOwnSession(Runnable task) {
+        sessionCookiesJar.set(new LinkedHashMap<>());
+        try {
+            task.run();
+        } finally {
+            sessionCookiesJar.remove();
+        }
+    }
+
+    /**
+     * Run given task without retrying its requests nor limiting their concurrency, for requests that are sent at a
+     * rate of their own, which retries and waiting for a permit would distort.
+     */
+    public static <T> T runUnthrottled(Supplier<T> task) {
+        return runWith(withoutConcurrencyLimit, () -> runWith(withoutRetries, task));
+    }
+
+    /**
+     * Run given task without retrying its requests, so the latency of each request is that of a single attempt.
+     */
+    public static void runWithoutRetries(Runnable task) {
+        runWith(withoutRetries, () -> {
+            task.run();
+            return null;
+        });
     }
 
     protected void setBaseUri(String baseUri) {
@@ -161,21 +259,104 @@ public class RestClient {
         }
     }
 
-    private Map<String, String> getCookies() {
-        return cookiesJar;
+    private static <T> T runWith(ThreadLocal<Boolean> flag, Supplier<T> task) {
+        Boolean previous = flag.get();
+        flag.set(true);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                flag.remove();
+            } else {
+                flag.set(previous);
+            }
+        }
+    }
+
+    private static Map<String, String> getCookies() {
+        Map<String, String> sessionCookies = sessionCookiesJar.get();
+        return sessionCookies == null ? cookiesJar : sessionCookies;
     }
 
     /**
+     * Polls go without retries, circuit breaker, concurrency limit, metrics and fingerprints: a down service is the
+     * expected answer while waiting and must neither open the breaker nor count towards the report.
+     *
      * @return Response containing information about the health of this service: https://docs.spring.io/spring-boot/docs/current/reference/html/production-ready-endpoints.html
      */
     private Response getHealth() {
-        return requestSpec()
+        RequestSpecification requestSpec = createRequestSpec();
+        setLoggingFilters(requestSpec);
+        return requestSpec
             .contentType(ContentType.JSON)
             .get(globalProperties.getBoolean(CommonConstants.PROPERTY_HEALTH_CHECK_USE_ACTUATOR)
                 ? ACTUATOR_HEALTH_PATH
                 : PRODUCTION_SUPPORT_HEALTH_PATH);
     }
 
+    private void setCircuitBreakerFilter(RequestSpecification requestSpec) {
+        boolean circuitBreakerEnabled;
+        try {
+            circuitBreakerEnabled = globalProperties.getBoolean(PROPERTY_CIRCUIT_BREAKER_ENABLED);
+        } catch (NoSuchElementException e) {
+            circuitBreakerEnabled = false;
+        }
+
+        if (circuitBreakerEnabled) {
+            requestSpec.filter(CircuitBreakerFilter.forService(getServiceUri()));
+        }
+    }
+
+    private void setConcurrencyLimitFilter(RequestSpecification requestSpec) {
+        boolean concurrencyLimiterEnabled;
+        try {
+            concurrencyLimiterEnabled = globalProperties.getBoolean(PROPERTY_CONCURRENCY_LIMITER_ENABLED);
+        } catch (NoSuchElementException e) {
+            concurrencyLimiterEnabled = false;
+        }
+
+        if (concurrencyLimiterEnabled && !Boolean.TRUE.equals(withoutConcurrencyLimit.get())) {
+            requestSpec.filter(ConcurrencyLimitFilter.forService(getServiceUri()));
+        }
+    }
+
+    private void setMetricsFilter(RequestSpecification requestSpec) {
+        boolean metricsEnabled;
+        try {
+            metricsEnabled = globalProperties.getBoolean(PROPERTY_METRICS_ENABLED);
+        } catch (NoSuchElementException e) {
+            metricsEnabled = false;
+        }
+
+        if (metricsEnabled) {
+            requestSpec.filter(new MetricsFilter(getServiceUri()));
+        }
+    }
+
+    private void setRequestFingerprintFilter(RequestSpecification requestSpec) {
+        boolean requestFingerprintsEnabled;
+        try {
+            requestFingerprintsEnabled = globalProperties.getBoolean(PROPERTY_REQUEST_FINGERPRINTS_ENABLED);
+        } catch (NoSuchElementException e) {
+            requestFingerprintsEnabled = false;
+        }
+
+        if (requestFingerprintsEnabled) {
+            requestSpec.filter(new RequestFingerprintFilter());
+        }
+    }
+
+    /**
+     * The retry filter resends a request through all other filters, so it has to be added first. It is left out when
+     * none of the requests of this client may be retried.
+     */
+    private void setRetryFilter(RequestSpecification requestSpec) {
+        boolean retrying = defaultRetryPolicy.getMaxAttempts() > 1 || !retryPolicies.isEmpty();
+        if (retrying && !Boolean.TRUE.equals(withoutRetries.get())) {
+            requestSpec.filter(new RetryFilter(getServiceUri(), defaultRetryPolicy, retryPolicies));
+        }
+    }
+
     private void setLoggingFilters(RequestSpecification requestSpec) {
         boolean logAllRequestsResponses;
         try {
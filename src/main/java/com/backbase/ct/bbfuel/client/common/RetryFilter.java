@@ -0,0 +1,128 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import com.backbase.ct.bbfuel.IngestException;
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retries requests that failed with a retryable status code or without any response, according to the
+ * {@link RetryPolicy} of the endpoint.
+ * <p>
+ * The filter chain of a request can only be passed once, so each retry sends a fresh copy of the request, which passes
+ * the other filters of the request specification again but not this one. This filter has to be the first filter of a
+ * request specification, so the circuit breaker and concurrency limiter see each attempt as a request of its own and a
+ * request does not hold a permit while waiting to be retried.
+ */
+@Slf4j
+public class RetryFilter implements Filter {
+
+    private static final Map<String, AtomicLong> RETRY_COUNTS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> RESENDING = ThreadLocal.withInitial(() -> false);
+
+    private final String serviceUri;
+    private final RetryPolicy defaultPolicy;
+    private final Map<String, RetryPolicy> endpointPolicies;
+
+    /**
+     * @param serviceUri service the requests are sent to
+     * @param defaultPolicy policy of all endpoints of the service without an explicit policy
+     * @param endpointPolicies policies of endpoints, applied to each request with a path containing the endpoint
+     */
+    public RetryFilter(String serviceUri, RetryPolicy defaultPolicy, Map<String, RetryPolicy> endpointPolicies) {
+        this.serviceUri = serviceUri;
+        this.defaultPolicy = defaultPolicy;
+        this.endpointPolicies = endpointPolicies;
+    }
+
+    /**
+     * @return number of retries per endpoint (method, service and path) since the start of the run
+     */
+    public static Map<String, Long> getRetryCounts() {
+        Map<String, Long> retryCounts = new TreeMap<>();
+        RETRY_COUNTS.forEach((endpoint, count) -> retryCounts.put(endpoint, count.get()));
+        return Collections.unmodifiableMap(retryCounts);
+    }
+
+    /**
+     * Forget the retries of a previous run in the same JVM.
+     */
+    public static void resetRetryCounts() {
+        RETRY_COUNTS.clear();
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+        FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        if (RESENDING.get()) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        String path = requestSpec.getUserDefinedPath();
+        RetryPolicy policy = getPolicy(path);
+        boolean retryableMethod = policy.isRetryableMethod(requestSpec.getMethod());
+        String endpoint = requestSpec.getMethod() + " " + serviceUri + path;
+
+        for (int attempt = 1; ; attempt++) {
+            boolean lastAttempt = !retryableMethod || attempt >= policy.getMaxAttempts();
+            try {
+                Response response = attempt == 1 ? ctx.next(requestSpec, responseSpec) : resend(requestSpec);
+                if (lastAttempt || !policy.isRetryableStatusCode(response.statusCode())) {
+                    return response;
+                }
+                log.warn("[{}] failed with status [{}], attempt {} of {}",
+                    endpoint, response.statusCode(), attempt, policy.getMaxAttempts());
+            } catch (CircuitBreakerOpenException e) {
+                throw e;
+            } catch (Exception e) {
+                if (lastAttempt) {
+                    throw e;
+                }
+                log.warn("[{}] failed with [{}], attempt {} of {}",
+                    endpoint, e.getMessage(), attempt, policy.getMaxAttempts());
+            }
+            RETRY_COUNTS.computeIfAbsent(endpoint, key -> new AtomicLong()).incrementAndGet();
+            backoff(policy.getBackoffMillis(attempt));
+        }
+    }
+
+    /**
+     * Send a copy of given request, with the same base URI, path, parameters, headers, cookies, body and filters.
+     */
+    private static Response resend(FilterableRequestSpecification requestSpec) {
+        RESENDING.set(true);
+        try {
+            return RestAssured.given()
+                .spec(requestSpec)
+                .request(requestSpec.getMethod(), requestSpec.getUserDefinedPath(),
+                    requestSpec.getUnnamedPathParamValues().toArray());
+        } finally {
+            RESENDING.remove();
+        }
+    }
+
+    private RetryPolicy getPolicy(String path) {
+        return endpointPolicies.entrySet().stream()
+            .filter(endpointPolicy -> path.contains(endpointPolicy.getKey()))
+            .map(Map.Entry::getValue)
+            .findFirst()
+            .orElse(defaultPolicy);
+    }
+
+    private static void backoff(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestException("Interrupted while waiting to retry a request", e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_RETRY_INITIAL_BACKOFF_MILLIS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_RETRY_MAX_ATTEMPTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_RETRY_MAX_BACKOFF_MILLIS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_RETRY_NON_IDEMPOTENT_METHODS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_RETRY_STATUS_CODES;
+import static java.util.Arrays.asList;
+
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+/**
+ * Describes when and how often a failed request is retried, with exponential backoff and jitter between attempts.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class RetryPolicy {
+
+    private static final List<String> IDEMPOTENT_METHODS = asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+
+    /**
+     * Total number of attempts, including the first one.
+     */
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    @Singular
+    private final Set<Integer> retryableStatusCodes;
+
+    /**
+     * Whether POST and PATCH requests may be retried, only safe when the service detects duplicates.
+     */
+    private final boolean retryNonIdempotentMethods;
+
+    /**
+     * Create the default policy as configured in the properties.
+     */
+    public static RetryPolicy fromProperties() {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        RetryPolicyBuilder builder = RetryPolicy.builder()
+            .maxAttempts(globalProperties.getInt(PROPERTY_RETRY_MAX_ATTEMPTS))
+            .initialBackoffMillis(globalProperties.getLong(PROPERTY_RETRY_INITIAL_BACKOFF_MILLIS))
+            .maxBackoffMillis(globalProperties.getLong(PROPERTY_RETRY_MAX_BACKOFF_MILLIS))
+            .retryNonIdempotentMethods(globalProperties.getBoolean(PROPERTY_RETRY_NON_IDEMPOTENT_METHODS));
+        globalProperties.getList(PROPERTY_RETRY_STATUS_CODES)
+            .forEach(statusCode -> builder.retryableStatusCode(Integer.valueOf(statusCode.trim())));
+        return builder.build();
+    }
+
+    public boolean isRetryableMethod(String method) {
+        return retryNonIdempotentMethods || IDEMPOTENT_METHODS.contains(method.toUpperCase());
+    }
+
+    public boolean isRetryableStatusCode(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * Backoff before given retry, doubling per attempt up to the maximum, of which a random half is jitter.
+     *
+     * @param retry number of the retry, starting at 1
+     * @return milliseconds to wait before sending the retry
+     */
+    public long getBackoffMillis(int retry) {
+        long exponentialBackoff = initialBackoffMillis << Math.min(retry - 1, 30);
+        long backoff = Math.min(maxBackoffMillis, exponentialBackoff);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+}
@@ -0,0 +1,55 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static org.apache.http.HttpStatus.SC_INTERNAL_SERVER_ERROR;
+
+import com.backbase.ct.bbfuel.metrics.RequestMetrics;
+import com.backbase.ct.bbfuel.metrics.tracing.Tracing;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Traces every request as client span and passes its trace context to the service, so the traces of the service link
+ * to the ingestion step sending the request.
+ */
+public class TracingFilter implements Filter {
+
+    private final String client;
+    private final String serviceUri;
+
+    public TracingFilter(String client, String serviceUri) {
+        this.client = client;
+        this.serviceUri = serviceUri;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+        FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String pathTemplate = RequestMetrics.toPathTemplate(requestSpec.getUserDefinedPath());
+        try (Tracing.SpanScope span = Tracing.startSpan(requestSpec.getMethod() + " " + pathTemplate, SpanKind.CLIENT,
+            Attributes.builder()
+                .put("http.request.method", requestSpec.getMethod())
+                .put("url.full", requestSpec.getURI())
+                .put("bbfuel.service", serviceUri)
+                .put("bbfuel.client", client)
+                .build())) {
+            // A resent request copies the headers of the original one, so replace rather than add the context.
+            Tracing.injectContext((name, value) -> requestSpec.removeHeader(name).header(name, value));
+            try {
+                Response response = ctx.next(requestSpec, responseSpec);
+                span.setAttribute("http.response.status_code", response.statusCode());
+                if (response.statusCode() >= SC_INTERNAL_SERVER_ERROR) {
+                    span.setError(new IllegalStateException(response.getStatusLine()));
+                }
+                return response;
+            } catch (RuntimeException e) {
+                span.setError(e);
+                throw e;
+            }
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.backbase.ct.bbfuel.client.legalentity;
 
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
 import static org.apache.http.HttpStatus.SC_OK;
 
 import com.backbase.ct.bbfuel.client.common.RestClient;
 import com.backbase.ct.bbfuel.config.BbFuelConfiguration;
 import com.backbase.dbs.user.manager.models.v2.LegalEntity;
 import com.backbase.dbs.accesscontrol.client.v3.model.ServiceAgreementItem;
+import io.restassured.response.Response;
 import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -39,6 +41,22 @@ public class LegalEntityPresentationRestClient extends RestClient {
             .as(LegalEntity.class);
     }
 
+    /**
+     * @return the legal entity, or null when it does not exist
+     */
+    public LegalEntity findLegalEntityByExternalId(String externalLegalEntityId) {
+        Response response = requestSpec()
+            .get(String.format(getPath(ENDPOINT_EXTERNAL), externalLegalEntityId));
+        if (response.statusCode() == SC_NOT_FOUND) {
+            return null;
+        }
+        return response
+            .then()
+            .statusCode(SC_OK)
+            .extract()
+            .as(LegalEntity.class);
+    }
+
 
     public ServiceAgreementItem getMasterServiceAgreementOfLegalEntity(String internalLegalEntityId) {
         return requestSpec()
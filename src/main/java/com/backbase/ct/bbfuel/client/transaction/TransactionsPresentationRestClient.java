@@ -0,0 +1,38 @@
+package com.backbase.ct.bbfuel.client.transaction;
+
+import static org.apache.http.HttpStatus.SC_OK;
+
+import com.backbase.ct.bbfuel.client.common.RestClient;
+import com.backbase.ct.bbfuel.config.BbFuelConfiguration;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TransactionsPresentationRestClient extends RestClient {
+
+    private final BbFuelConfiguration config;
+
+    private static final String SERVICE_VERSION = "v2";
+    private static final String ENDPOINT_TRANSACTIONS = "/transactions";
+
+    @PostConstruct
+    public void init() {
+        setBaseUri(config.getPlatform().getGateway());
+        setVersion(SERVICE_VERSION);
+        setInitialPath(config.getDbsServiceNames().getTransactions() + "/" + CLIENT_API);
+    }
+
+    /**
+     * Retrieve the first page of transactions of an arrangement, as the user logged in.
+     */
+    public void retrieveTransactions(String internalArrangementId, int size) {
+        requestSpec()
+            .queryParam("arrangementId", internalArrangementId)
+            .queryParam("size", size)
+            .get(getPath(ENDPOINT_TRANSACTIONS))
+            .then()
+            .statusCode(SC_OK);
+    }
+}
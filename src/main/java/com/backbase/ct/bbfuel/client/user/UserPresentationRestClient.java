@@ -3,6 +3,7 @@ package com.backbase.ct.bbfuel.client.user;
 import static com.backbase.ct.bbfuel.util.ResponseUtils.isBadRequestException;
 import static com.backbase.ct.bbfuel.util.ResponseUtils.isConflictException;
 import static org.apache.http.HttpStatus.SC_CREATED;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
 import static org.apache.http.HttpStatus.SC_OK;
 
 import com.backbase.ct.bbfuel.client.common.RestClient;
@@ -57,6 +58,22 @@ public class UserPresentationRestClient extends RestClient {
             .as(GetUser.class);
     }
 
+    /**
+     * @return the user, or null when it does not exist
+     */
+    public GetUser findUserByExternalId(String userExternalId) {
+        Response response = requestSpec()
+            .get(String.format(getPath(ENDPOINT_USER_BY_EXTERNAL_ID), userExternalId));
+        if (response.statusCode() == SC_NOT_FOUND) {
+            return null;
+        }
+        return response
+            .then()
+            .statusCode(SC_OK)
+            .extract()
+            .as(GetUser.class);
+    }
+
     public void createIdentityUserAndLogResponse(UserExternal user, String legalEntityId) {
 
         Response response = createIdentity(user, legalEntityId);
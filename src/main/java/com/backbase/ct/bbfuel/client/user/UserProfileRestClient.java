@@ -1,5 +1,7 @@
 package com.backbase.ct.bbfuel.client.user;
 
+import static org.apache.http.HttpStatus.SC_INTERNAL_SERVER_ERROR;
+
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +22,8 @@ public class UserProfileRestClient extends RestClient {
 
     private static final String SERVICE_VERSION = "v2";
     private static final String ENDPOINT_CREATE_USER_PROFILE = "/user-profile";
+    private static final int WARM_UP_MAX_ATTEMPTS = 2;
+    private static final long WARM_UP_BACKOFF_MILLIS = 10000;
 
     private final BbFuelConfiguration config;
 
@@ -28,6 +32,14 @@ public class UserProfileRestClient extends RestClient {
         setBaseUri(config.getDbs().getUserProfileManager());
         setVersion(SERVICE_VERSION);
         setInitialPath(config.getDbsServiceNames().getUserProfileManager() + "/" + CLIENT_API);
+        // user-profile-manager returns 500 while warming up, creating a profile twice is rejected as bad request
+        setRetryPolicy(ENDPOINT_CREATE_USER_PROFILE, getDefaultRetryPolicy().toBuilder()
+            .maxAttempts(Math.max(WARM_UP_MAX_ATTEMPTS, getDefaultRetryPolicy().getMaxAttempts()))
+            .retryNonIdempotentMethods(true)
+            .retryableStatusCode(SC_INTERNAL_SERVER_ERROR)
+            .initialBackoffMillis(WARM_UP_BACKOFF_MILLIS)
+            .maxBackoffMillis(WARM_UP_BACKOFF_MILLIS)
+            .build());
     }
 
     public Response createUserProfile(String userId, String externalUserId) {
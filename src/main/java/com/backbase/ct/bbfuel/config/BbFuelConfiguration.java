@@ -1,5 +1,6 @@
 package com.backbase.ct.bbfuel.config;
 
+import com.backbase.ct.bbfuel.util.GlobalProperties;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -45,6 +46,16 @@ public class BbFuelConfiguration {
         return builder.build();
     }
 
+    /**
+     * Properties read while ingesting each entity, resolved once at startup.
+     *
+     * @return the ingestion config
+     */
+    @Bean
+    public IngestionConfig ingestionConfig() {
+        return IngestionConfig.fromProperties(GlobalProperties.getInstance());
+    }
+
     /**
      * Needed to satisfy the com.backbase.buildingblocks.eureka.ManagementMetadataProviderAutoConfiguration.
      * @return a web app context
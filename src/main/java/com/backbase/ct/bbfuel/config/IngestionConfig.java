@@ -0,0 +1,154 @@
+package com.backbase.ct.bbfuel.config;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.IBAN_ACCOUNT_TYPE;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_BATCH_SIZE;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_CONCURRENCY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_PIPELINED;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONTACTS_ACCOUNT_TYPES;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_ACCESS_CONTROL;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_BATCHES;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_CONTACTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_PAYMENTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_BALANCE_HISTORY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_DELTA;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_POCKETS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_POSITIVE_PAY_CHECKS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_TRANSACTIONS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_COUNT;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_INDEX;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_RUN_ID;
+import static com.google.common.base.Strings.nullToEmpty;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRANSACTIONS_CURRENCY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRANSACTIONS_MAX;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRANSACTIONS_MIN;
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.toList;
+
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import java.util.Collections;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Typed snapshot of the properties read while ingesting each entity, resolved once from {@link GlobalProperties} so
+ * the same sources take precedence. Unlike {@link GlobalProperties} it can be read concurrently without locking and
+ * without parsing values again.
+ */
+@Value
+@Builder
+public class IngestionConfig {
+
+    boolean ingestAccessControl;
+
+    /**
+     * Whether the existing state of the input is read first, to only ingest what is missing.
+     */
+    boolean ingestDelta;
+
+    boolean ingestApprovalsForPayments;
+
+    boolean ingestApprovalsForContacts;
+
+    boolean ingestApprovalsForBatches;
+
+    boolean arrangementsPipelined;
+
+    /**
+     * Number of arrangements ingested by one task, of which arrangementsConcurrency run at the same time.
+     */
+    int arrangementsBatchSize;
+
+    int arrangementsConcurrency;
+
+    boolean ingestTransactions;
+
+    boolean ingestBalanceHistory;
+
+    boolean ingestPositivePayChecks;
+
+    boolean ingestPockets;
+
+    int transactionsMin;
+
+    int transactionsMax;
+
+    /**
+     * Currencies of generated transactions, one of which is picked per transaction.
+     */
+    List<String> transactionCurrencies;
+
+    /**
+     * Whether counterparty accounts are IBANs rather than BBANs.
+     */
+    boolean ibanCounterPartyAccounts;
+
+    /**
+     * Shard of the input ingested by this process, of shardCount processes ingesting the same environment.
+     */
+    int shardIndex;
+
+    int shardCount;
+
+    /**
+     * Identifies the run all shards take part in, so the shards do not mistake the markers of an earlier run for those
+     * of this one.
+     */
+    String shardRunId;
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * Whether this process performs the steps that are not specific to a legal entity, which is the first shard.
+     */
+    public boolean isGlobalShard() {
+        return shardIndex == 0;
+    }
+
+    public static IngestionConfig fromProperties(GlobalProperties globalProperties) {
+        int shardIndex = globalProperties.getInt(PROPERTY_SHARD_INDEX);
+        int shardCount = globalProperties.getInt(PROPERTY_SHARD_COUNT);
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException(String.format("Invalid shard %s=%d of %s=%d",
+                PROPERTY_SHARD_INDEX, shardIndex, PROPERTY_SHARD_COUNT, shardCount));
+        }
+        String shardRunId = nullToEmpty(globalProperties.getString(PROPERTY_SHARD_RUN_ID)).trim();
+        if (shardCount > 1 && shardRunId.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Missing %s, shared by all %d shards of the run",
+                PROPERTY_SHARD_RUN_ID, shardCount));
+        }
+        int arrangementsBatchSize = globalProperties.getInt(PROPERTY_ARRANGEMENTS_BATCH_SIZE);
+        int arrangementsConcurrency = globalProperties.getInt(PROPERTY_ARRANGEMENTS_CONCURRENCY);
+        if (arrangementsBatchSize < 1 || arrangementsConcurrency < 1) {
+            throw new IllegalArgumentException(String.format("Invalid %s=%d or %s=%d, both must be at least 1",
+                PROPERTY_ARRANGEMENTS_BATCH_SIZE, arrangementsBatchSize,
+                PROPERTY_ARRANGEMENTS_CONCURRENCY, arrangementsConcurrency));
+        }
+        return IngestionConfig.builder()
+            .ingestAccessControl(globalProperties.getBoolean(PROPERTY_INGEST_ACCESS_CONTROL))
+            .ingestDelta(globalProperties.getBoolean(PROPERTY_INGEST_DELTA))
+            .ingestApprovalsForPayments(globalProperties.getBoolean(PROPERTY_INGEST_APPROVALS_FOR_PAYMENTS))
+            .ingestApprovalsForContacts(globalProperties.getBoolean(PROPERTY_INGEST_APPROVALS_FOR_CONTACTS))
+            .ingestApprovalsForBatches(globalProperties.getBoolean(PROPERTY_INGEST_APPROVALS_FOR_BATCHES))
+            .arrangementsPipelined(globalProperties.getBoolean(PROPERTY_ARRANGEMENTS_PIPELINED))
+            .arrangementsBatchSize(arrangementsBatchSize)
+            .arrangementsConcurrency(arrangementsConcurrency)
+            .ingestTransactions(globalProperties.getBoolean(PROPERTY_INGEST_TRANSACTIONS))
+            .ingestBalanceHistory(globalProperties.getBoolean(PROPERTY_INGEST_BALANCE_HISTORY))
+            .ingestPositivePayChecks(globalProperties.getBoolean(PROPERTY_INGEST_POSITIVE_PAY_CHECKS))
+            .ingestPockets(globalProperties.getBoolean(PROPERTY_INGEST_POCKETS))
+            .transactionsMin(globalProperties.getInt(PROPERTY_TRANSACTIONS_MIN))
+            .transactionsMax(globalProperties.getInt(PROPERTY_TRANSACTIONS_MAX))
+            .transactionCurrencies(globalProperties.getList(PROPERTY_TRANSACTIONS_CURRENCY).stream()
+                .map(String::trim)
+                .collect(collectingAndThen(toList(), Collections::unmodifiableList)))
+            .ibanCounterPartyAccounts(globalProperties.getList(PROPERTY_CONTACTS_ACCOUNT_TYPES).stream()
+                .anyMatch(accountType -> accountType.trim().equals(IBAN_ACCOUNT_TYPE)))
+            .shardIndex(shardIndex)
+            .shardCount(shardCount)
+            .shardRunId(shardRunId)
+            .build();
+    }
+}
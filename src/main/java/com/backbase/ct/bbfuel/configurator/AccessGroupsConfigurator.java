@@ -10,6 +10,8 @@ import com.backbase.ct.bbfuel.dto.ArrangementId;
 import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
 import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
 import com.backbase.ct.bbfuel.service.AccessGroupService;
+import com.backbase.ct.bbfuel.service.IngestionJournal;
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
 import com.backbase.ct.bbfuel.service.JobProfileService;
 import com.backbase.ct.bbfuel.service.ProductGroupService;
 import com.backbase.integration.accessgroup.rest.spec.v2.accessgroups.config.functions.FunctionsGetResponseBody;
@@ -31,6 +33,8 @@ public class AccessGroupsConfigurator {
 
     private final ProductGroupService productGroupService;
 
+    private final IngestionJournal ingestionJournal;
+
     private static final String ARRANGEMENTS = "ARRANGEMENTS";
 
     public JobProfile ingestAdminFunctionGroup(String externalServiceAgreementId) {
@@ -44,12 +48,14 @@ public class AccessGroupsConfigurator {
     /**
      * Ingest a function group aka job profile.
      * A profile without explicit permissions will be granted all.
+     * A profile ingested before, also by a journaled previous run, gets the id of its function group.
      */
     public synchronized void ingestFunctionGroup(JobProfile jobProfile) {
         List<FunctionsGetResponseBody> functions = this.accessGroupIntegrationRestClient.retrieveFunctions();
 
         String functionGroupId = jobProfileService.retrieveIdFromCache(jobProfile);
         if (functionGroupId != null) {
+            jobProfile.setId(functionGroupId);
             return;
         }
         List<Permission> permissions = jobProfile.getPermissions() == null
@@ -61,6 +67,7 @@ public class AccessGroupsConfigurator {
         jobProfile.setId(functionGroupId);
 
         jobProfileService.storeInCache(jobProfile);
+        ingestionJournal.complete(Unit.FUNCTION_GROUP, JobProfileService.createCacheKey(jobProfile), functionGroupId);
     }
 
     public synchronized void ingestDataGroupForArrangements(ProductGroupSeed productGroupSeed,
@@ -71,6 +78,8 @@ public class AccessGroupsConfigurator {
 
         String dataGroupId = productGroupService.retrieveIdFromCache(productGroupSeed);
         if (dataGroupId != null) {
+            productGroupSeed.setId(dataGroupId);
+            productGroupService.saveAssignedProductGroup(productGroupSeed);
             return;
         }
 
@@ -79,5 +88,6 @@ public class AccessGroupsConfigurator {
         productGroupSeed.setId(dataGroupId);
 
         productGroupService.saveAssignedProductGroup(productGroupSeed);
+        ingestionJournal.complete(Unit.DATA_GROUP, ProductGroupService.createCacheKey(productGroupSeed), dataGroupId);
     }
 }
@@ -33,9 +33,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AccountStatementsConfigurator {
 
-    private static final int RETRY_LIMIT = 2;
     private static final GlobalProperties globalProperties = GlobalProperties.getInstance();
-    private static int retryCounter;
     private final LoginRestClient loginRestClient;
     private final UserContextPresentationRestClient userContextPresentationRestClient;
     private final ProductSummaryPresentationRestClient productSummaryPresentationRestClient;
@@ -97,17 +95,6 @@ public class AccountStatementsConfigurator {
         if (userProfileCreationResponse.getStatusCode() == SC_INTERNAL_SERVER_ERROR) {
             log.warn("User profile for externalId [{}] and userId [{}] was not created due to server error.",
                 externalUserId, userId);
-            retryCounter++;
-            if (retryCounter < RETRY_LIMIT) {
-                // This retry is because of 500 returned from user-profile-manager when service is warming up
-                log.info("Retrying creation in 10 seconds.");
-                try {
-                    Thread.sleep(10000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                ingestUserProfile(externalUserId);
-            }
             log.warn(userProfileCreationResponse.getStatusLine());
         }
         if (userProfileCreationResponse.getStatusCode() == SC_CREATED) {
@@ -32,6 +32,7 @@ import com.backbase.rest.spec.common.types.Currency;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -69,6 +70,34 @@ public class ApprovalsConfigurator {
         createPolicies();
     }
 
+    /**
+     * @return the ids of the approval types and policies set up, to hand them over to another process
+     */
+    public Map<String, String> getApprovalTypeAndPolicyIds() {
+        Map<String, String> ids = new LinkedHashMap<>();
+        ids.put("approvalTypeA", approvalTypeAId);
+        ids.put("approvalTypeB", approvalTypeBId);
+        ids.put("approvalTypeC", approvalTypeCId);
+        ids.put("policyZero", policyZeroId);
+        ids.put("policyA", policyAId);
+        ids.put("policyAB", policyABId);
+        ids.put("policyABC", policyABCId);
+        return ids;
+    }
+
+    /**
+     * Use the approval types and policies another process set up, instead of setting them up again.
+     */
+    public void restoreApprovalTypeAndPolicyIds(Map<String, String> ids) {
+        approvalTypeAId = ids.get("approvalTypeA");
+        approvalTypeBId = ids.get("approvalTypeB");
+        approvalTypeCId = ids.get("approvalTypeC");
+        policyZeroId = ids.get("policyZero");
+        policyAId = ids.get("policyA");
+        policyABId = ids.get("policyAB");
+        policyABCId = ids.get("policyABC");
+    }
+
     public void setupAccessControlAndPerformApprovalAssignments(String externalServiceAgreementId, int numberOfUsers) {
         loginRestClient.loginBankAdmin();
         userContextPresentationRestClient.selectContextBasedOnMasterServiceAgreement();
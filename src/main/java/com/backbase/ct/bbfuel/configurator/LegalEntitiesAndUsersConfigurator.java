@@ -19,6 +19,8 @@ import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
 
 
 import com.backbase.ct.bbfuel.dto.User;
+import com.backbase.ct.bbfuel.service.IngestionJournal;
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
 import com.backbase.ct.bbfuel.service.LegalEntityService;
 import com.backbase.ct.bbfuel.util.GlobalProperties;
 
@@ -26,6 +28,7 @@ import com.backbase.ct.bbfuel.util.GlobalProperties;
 import com.backbase.dbs.user.manager.models.v2.UserExternal;
 import com.backbase.dbs.accesscontrol.legalentity.client.v2.model.LegalEntityCreateItem;
 import io.restassured.response.Response;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -43,6 +46,7 @@ public class LegalEntitiesAndUsersConfigurator {
     private final LegalEntityPresentationRestClient legalEntityPresentationRestClient;
     private final LegalEntityService legalEntityService;
     private final ServiceAgreementsConfigurator serviceAgreementsConfigurator;
+    private final IngestionJournal ingestionJournal;
 
     protected static GlobalProperties globalProperties = GlobalProperties.getInstance();
 
@@ -57,12 +61,21 @@ public class LegalEntitiesAndUsersConfigurator {
         }
     }
 
+    /**
+     * The root legal entity is only ingested when not journaled, while its entitlements admin is always ingested and
+     * set up, as the rest of the ingestion logs in with it.
+     */
     private void ingestRootLegalEntityAndEntitlementsAdmin(LegalEntityWithUsers root) {
-        String externalLegalEntityId = this.legalEntityService
-            .ingestLegalEntity(LegalEntitiesAndUsersDataGenerator
-                .generateRootLegalEntitiesPostRequestBody(EXTERNAL_ROOT_LEGAL_ENTITY_ID));
-        this.serviceAgreementsConfigurator
-            .updateMasterServiceAgreementWithExternalIdByLegalEntity(externalLegalEntityId);
+        if (this.ingestionJournal.isCompleted(Unit.LEGAL_ENTITY, EXTERNAL_ROOT_LEGAL_ENTITY_ID)) {
+            log.info("Root legal entity journaled, skipped ingesting it");
+        } else {
+            String externalLegalEntityId = this.legalEntityService
+                .ingestLegalEntity(LegalEntitiesAndUsersDataGenerator
+                    .generateRootLegalEntitiesPostRequestBody(EXTERNAL_ROOT_LEGAL_ENTITY_ID));
+            this.serviceAgreementsConfigurator
+                .updateMasterServiceAgreementWithExternalIdByLegalEntity(externalLegalEntityId);
+            this.ingestionJournal.complete(Unit.LEGAL_ENTITY, EXTERNAL_ROOT_LEGAL_ENTITY_ID, externalLegalEntityId);
+        }
 
         User admin = root. getUsers().get(0);
         this.userIntegrationRestClient.ingestAdminAndLogResponse(LegalEntitiesAndUsersDataGenerator
@@ -72,24 +85,69 @@ public class LegalEntitiesAndUsersConfigurator {
     }
 
     private void ingestLegalEntityAndUsers(LegalEntityWithUsers legalEntityWithUsers) {
-        final LegalEntityCreateItem requestBody = LegalEntitiesAndUsersDataGenerator
-            .composeLegalEntitiesPostRequestBody(
-                legalEntityWithUsers.getLegalEntityExternalId(),
-                legalEntityWithUsers.getLegalEntityName(),
-                legalEntityWithUsers.getParentLegalEntityExternalId(),
-                legalEntityWithUsers.getLegalEntityType());
+        this.loginRestClient.loginBankAdmin();
+        this.userContextPresentationRestClient.selectContextBasedOnMasterServiceAgreement();
+
+        ingestLegalEntity(legalEntityWithUsers);
+        ingestUsersAsBankAdmin(legalEntityWithUsers);
+    }
+
+    /**
+     * Ingest the legal entities level by level of their hierarchy. All legal entities of a level are ingested
+     * concurrently, as their parents have been ingested with one of the previous levels.
+     */
+    public void ingestLegalEntities(List<LegalEntityWithUsers> legalEntitiesWithUsers) {
+        this.loginRestClient.loginBankAdmin();
+        this.userContextPresentationRestClient.selectContextBasedOnMasterServiceAgreement();
 
+        List<List<LegalEntityWithUsers>> levels = this.legalEntityService
+            .groupByHierarchyLevel(legalEntitiesWithUsers);
+        for (int level = 0; level < levels.size(); level++) {
+            log.info("Ingesting [{}] legal entities of hierarchy level [{}]", levels.get(level).size(), level);
+            levels.get(level).parallelStream()
+                .forEach(this::ingestLegalEntity);
+        }
+    }
+
+    /**
+     * Ingest the users of a legal entity that has been ingested already, except those journaled by a previous run.
+     */
+    public void ingestUsers(LegalEntityWithUsers legalEntityWithUsers) {
         this.loginRestClient.loginBankAdmin();
         this.userContextPresentationRestClient.selectContextBasedOnMasterServiceAgreement();
 
-        String externalLegalEntityId = this.legalEntityService.ingestLegalEntity(requestBody);
+        ingestUsersAsBankAdmin(legalEntityWithUsers);
+    }
 
+    private void ingestUsersAsBankAdmin(LegalEntityWithUsers legalEntityWithUsers) {
         legalEntityWithUsers.getUsers().parallelStream()
+            .filter(user -> !this.ingestionJournal.isCompleted(Unit.USER, user.getExternalId()))
             .forEach(
                 user -> this.ingestUserAndLogResponse(LegalEntitiesAndUsersDataGenerator
-                    .generateUsersPostRequestBody(user, externalLegalEntityId)));
+                    .generateUsersPostRequestBody(user, legalEntityWithUsers.getLegalEntityExternalId())));
+    }
+
+    /**
+     * The external id is stored on the given legalEntityWithUsers, as it is generated when not set in the input.
+     * Only legal entities with an external id in the input can be recognized as journaled by a previous run.
+     */
+    private void ingestLegalEntity(LegalEntityWithUsers legalEntityWithUsers) {
+        if (this.ingestionJournal.isCompleted(Unit.LEGAL_ENTITY, legalEntityWithUsers.getLegalEntityExternalId())) {
+            log.info("Legal entity [{}] journaled, skipped ingesting it",
+                legalEntityWithUsers.getLegalEntityExternalId());
+            return;
+        }
+        final LegalEntityCreateItem requestBody = LegalEntitiesAndUsersDataGenerator
+            .composeLegalEntitiesPostRequestBody(
+                legalEntityWithUsers.getLegalEntityExternalId(),
+                legalEntityWithUsers.getLegalEntityName(),
+                legalEntityWithUsers.getParentLegalEntityExternalId(),
+                legalEntityWithUsers.getLegalEntityType());
+
+        legalEntityWithUsers.setLegalEntityExternalId(this.legalEntityService.ingestLegalEntity(requestBody));
+        this.ingestionJournal.complete(Unit.LEGAL_ENTITY, legalEntityWithUsers.getLegalEntityExternalId(),
+            legalEntityWithUsers.getLegalEntityExternalId());
     }
-    
 
     private void ingestUserAndLogResponse(UserExternal user) {
 
@@ -129,5 +187,6 @@ public class LegalEntitiesAndUsersConfigurator {
             response.then()
                 .statusCode(SC_CREATED);
         }
+        this.ingestionJournal.complete(Unit.USER, user.getExternalId(), user.getLegalEntityExternalId());
     }
 }
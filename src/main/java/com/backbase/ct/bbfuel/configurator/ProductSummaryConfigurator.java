@@ -1,21 +1,37 @@
 package com.backbase.ct.bbfuel.configurator;
 
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_CONCURRENCY;
 import static com.backbase.ct.bbfuel.data.ProductSummaryDataGenerator.generateBalanceHistoryPostRequestBodies;
 import static com.backbase.ct.bbfuel.data.ProductSummaryDataGenerator.generateCurrentAccountArrangementsPostRequestBodies;
 import static com.backbase.ct.bbfuel.data.ProductSummaryDataGenerator.generateNonCurrentAccountArrangementsPostRequestBodies;
 import static java.util.Collections.synchronizedList;
+import static java.util.stream.Collectors.toList;
 import static org.apache.http.HttpStatus.SC_CREATED;
 
+import com.backbase.ct.bbfuel.IngestException;
 import com.backbase.ct.bbfuel.client.productsummary.ArrangementsIntegrationRestClient;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.data.CommonConstants;
 import com.backbase.ct.bbfuel.data.ProductSummaryDataGenerator;
 import com.backbase.ct.bbfuel.dto.ArrangementId;
 import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
+import com.backbase.ct.bbfuel.metrics.jfr.IngestionEvents;
+import com.backbase.ct.bbfuel.metrics.tracing.Tracing;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
 import com.backbase.dbs.arrangement.integration.inbound.api.v2.model.ArrangementAddedResponse;
 import com.backbase.dbs.arrangement.integration.inbound.api.v2.model.BalanceHistoryItem;
 import com.backbase.dbs.arrangement.integration.inbound.api.v2.model.PostArrangement;
 import com.backbase.dbs.arrangement.integration.inbound.api.v2.model.ProductItem;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,8 +41,25 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ProductSummaryConfigurator {
 
+    private static final GlobalProperties globalProperties = GlobalProperties.getInstance();
+
     private final ArrangementsIntegrationRestClient arrangementsIntegrationRestClient;
 
+    private final IngestionConfig ingestionConfig;
+
+    // The concurrency is validated by the ingestion config, which is created before this configurator
+    private final ExecutorService arrangementsExecutor = Tracing.wrap(Executors.newFixedThreadPool(
+        globalProperties.getInt(PROPERTY_ARRANGEMENTS_CONCURRENCY),
+        new ThreadFactoryBuilder().setNameFormat("arrangements-%d").setDaemon(true).build()));
+
+    /**
+     * Stop the threads with the application context, as the job server creates a context per job.
+     */
+    @PreDestroy
+    public void shutdown() {
+        arrangementsExecutor.shutdownNow();
+    }
+
     public void ingestProducts() {
         List<ProductItem> products = ProductSummaryDataGenerator.getProductsFromFile();
         products.stream().parallel()
@@ -34,8 +67,17 @@ public class ProductSummaryConfigurator {
     }
 
     public List<ArrangementId> ingestArrangements(String externalLegalEntityId, ProductGroupSeed productGroupSeed) {
+        return ingestArrangements(externalLegalEntityId, productGroupSeed, arrangementId -> {
+        });
+    }
+
+    /**
+     * Ingest the arrangements of a product group, handing over each arrangement id to the given consumer as soon as
+     * the arrangement has been ingested. The consumer is called from the threads ingesting the arrangements.
+     */
+    public List<ArrangementId> ingestArrangements(String externalLegalEntityId, ProductGroupSeed productGroupSeed,
+        Consumer<ArrangementId> ingestedArrangementConsumer) {
         List<PostArrangement> arrangements = synchronizedList(new ArrayList<>());
-        List<ArrangementId> arrangementIds = synchronizedList(new ArrayList<>());
         List<String> productIds = productGroupSeed.getProductIds();
 
         int numberOfArrangements = productGroupSeed.getNumberOfArrangements().getRandomNumberInRange();
@@ -57,14 +99,57 @@ public class ProductSummaryConfigurator {
                     : numberOfArrangements));
         }
 
-        arrangements.parallelStream().forEach(arrangement -> {
-            ArrangementAddedResponse arrangementsPostResponseBody = arrangementsIntegrationRestClient
-                .ingestArrangement(arrangement);
-            log.info("Arrangement [{}] ingested for product [{}] under legal entity [{}]",
-                arrangement.getName(), arrangement.getProductId(), externalLegalEntityId);
-            arrangementIds.add(new ArrangementId(arrangementsPostResponseBody.getId(), arrangement.getId()));
-        });
+        return ingestArrangementsInBatches(externalLegalEntityId, arrangements, ingestedArrangementConsumer);
+    }
+
+    /**
+     * Ingest the arrangements in batches of {@link CommonConstants#PROPERTY_ARRANGEMENTS_BATCH_SIZE}, of which at most
+     * {@link CommonConstants#PROPERTY_ARRANGEMENTS_CONCURRENCY} are ingested at the same time.
+     *
+     * @return arrangement ids in the same order as the given arrangements
+     */
+    List<ArrangementId> ingestArrangementsInBatches(String externalLegalEntityId,
+        List<PostArrangement> arrangements, Consumer<ArrangementId> ingestedArrangementConsumer) {
+        List<Future<List<ArrangementId>>> batches = Lists
+            .partition(arrangements, ingestionConfig.getArrangementsBatchSize())
+            .stream()
+            .map(batch -> arrangementsExecutor.submit(() ->
+                ingestArrangementBatch(externalLegalEntityId, batch, ingestedArrangementConsumer)))
+            .collect(toList());
+
+        List<ArrangementId> arrangementIds = new ArrayList<>(arrangements.size());
+        try {
+            for (Future<List<ArrangementId>> batch : batches) {
+                arrangementIds.addAll(batch.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestException("Interrupted while ingesting arrangements", e);
+        } catch (ExecutionException e) {
+            batches.forEach(batch -> batch.cancel(true));
+            throw new IngestException("Failed ingesting arrangements under legal entity " + externalLegalEntityId,
+                e.getCause());
+        }
+        return arrangementIds;
+    }
 
+    private List<ArrangementId> ingestArrangementBatch(String externalLegalEntityId, List<PostArrangement> batch,
+        Consumer<ArrangementId> ingestedArrangementConsumer) {
+        List<ArrangementId> arrangementIds = new ArrayList<>(batch.size());
+        try (IngestionEvents.Scope event = IngestionEvents.arrangementBatch(
+            getClass(), externalLegalEntityId, batch.size())) {
+            batch.forEach(arrangement -> {
+                ArrangementAddedResponse arrangementsPostResponseBody = arrangementsIntegrationRestClient
+                    .ingestArrangement(arrangement);
+                log.debug("Arrangement [{}] ingested for product [{}] under legal entity [{}]",
+                    arrangement.getName(), arrangement.getProductId(), externalLegalEntityId);
+                ArrangementId arrangementId = new ArrangementId(arrangementsPostResponseBody.getId(),
+                    arrangement.getId());
+                arrangementIds.add(arrangementId);
+                ingestedArrangementConsumer.accept(arrangementId);
+            });
+        }
+        log.info("Arrangements [{}] ingested under legal entity [{}]", batch.size(), externalLegalEntityId);
         return arrangementIds;
     }
 
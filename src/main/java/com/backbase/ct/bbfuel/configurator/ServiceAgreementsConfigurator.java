@@ -10,6 +10,8 @@ import com.backbase.ct.bbfuel.client.accessgroup.UserContextPresentationRestClie
 import com.backbase.ct.bbfuel.client.common.LoginRestClient;
 import com.backbase.ct.bbfuel.client.legalentity.LegalEntityIntegrationRestClient;
 import com.backbase.ct.bbfuel.client.user.UserPresentationRestClient;
+import com.backbase.ct.bbfuel.service.IngestionJournal;
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
 import com.backbase.dbs.accesscontrol.client.v3.model.ServiceAgreementItem;
 import com.backbase.integration.accessgroup.rest.spec.v2.accessgroups.serviceagreements.Participant;
 import com.backbase.integration.accessgroup.rest.spec.v2.accessgroups.serviceagreements.ServiceAgreementPostResponseBody;
@@ -31,6 +33,7 @@ public class ServiceAgreementsConfigurator {
     private final LegalEntityIntegrationRestClient legalEntityIntegrationRestClient;
     private final ServiceAgreementsIntegrationRestClient serviceAgreementsIntegrationRestClient;
     private final UserContextPresentationRestClient userContextPresentationRestClient;
+    private final IngestionJournal ingestionJournal;
 
     public String ingestServiceAgreementWithProvidersAndConsumers(Set<Participant> participants) {
         loginRestClient.loginBankAdmin();
@@ -52,7 +55,14 @@ public class ServiceAgreementsConfigurator {
         return serviceAgreementId;
     }
 
+    /**
+     * The external id is generated, so it is not updated again when journaled by a previous run: the ids of groups
+     * journaled by that run are keyed by it.
+     */
     public void updateMasterServiceAgreementWithExternalIdByLegalEntity(String externalLegalEntityId) {
+        if (ingestionJournal.isCompleted(Unit.MASTER_SERVICE_AGREEMENT, externalLegalEntityId)) {
+            return;
+        }
         String internalServiceAgreementId = legalEntityIntegrationRestClient
             .getMasterServiceAgreementOfLegalEntity(externalLegalEntityId)
             .getId();
@@ -63,6 +73,7 @@ public class ServiceAgreementsConfigurator {
             .statusCode(SC_OK);
 
         log.info("Service agreement [{}] updated with external id", internalServiceAgreementId);
+        ingestionJournal.complete(Unit.MASTER_SERVICE_AGREEMENT, externalLegalEntityId, internalServiceAgreementId);
     }
 
     private void enrichParticipantsWithExternalId(Set<Participant> participants) {
@@ -3,11 +3,11 @@ package com.backbase.ct.bbfuel.configurator;
 import static org.apache.http.HttpStatus.SC_CREATED;
 
 import com.backbase.ct.bbfuel.client.transaction.TransactionsIntegrationRestClient;
-import com.backbase.ct.bbfuel.data.CommonConstants;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
 import com.backbase.ct.bbfuel.data.TransactionsDataGenerator;
 import com.backbase.ct.bbfuel.input.TransactionsReader;
+import com.backbase.ct.bbfuel.metrics.jfr.IngestionEvents;
 import com.backbase.ct.bbfuel.util.CommonHelpers;
-import com.backbase.ct.bbfuel.util.GlobalProperties;
 import com.backbase.dbs.pocket.tailor.client.v2.model.Pocket;
 import com.backbase.dbs.transaction.client.v2.model.TransactionsPostRequestBody;
 import com.google.common.collect.ImmutableList;
@@ -27,18 +27,18 @@ public class TransactionsConfigurator {
 
     public static final int NUMBER_OF_POCKET_TRANSACTIONS = 5;
 
-    private static GlobalProperties globalProperties = GlobalProperties.getInstance();
-
     private final TransactionsReader reader = new TransactionsReader();
 
     private final TransactionsIntegrationRestClient transactionsIntegrationRestClient;
 
+    private final IngestionConfig ingestionConfig;
+
     public void ingestTransactionsByArrangement(String externalArrangementId, boolean isRetail) {
+        long generationStart = System.nanoTime();
         List<TransactionsPostRequestBody> transactions = Collections.synchronizedList(new ArrayList<>());
 
         int randomAmount = CommonHelpers
-            .generateRandomNumberInRange(globalProperties.getInt(CommonConstants.PROPERTY_TRANSACTIONS_MIN),
-                globalProperties.getInt(CommonConstants.PROPERTY_TRANSACTIONS_MAX));
+            .generateRandomNumberInRange(ingestionConfig.getTransactionsMin(), ingestionConfig.getTransactionsMax());
 
         if (isRetail) {
             // Add 1 check images per account.
@@ -51,11 +51,15 @@ public class TransactionsConfigurator {
         } else {
             IntStream.range(0, randomAmount).parallel()
                     .forEach(randomNumber -> transactions.add(
-                            TransactionsDataGenerator.generateTransactionsPostRequestBody(externalArrangementId)));
+                            TransactionsDataGenerator.generateTransactionsPostRequestBody(externalArrangementId,
+                                ingestionConfig)));
+        }
+        try (IngestionEvents.Scope event = IngestionEvents.transactionBatch(getClass(), externalArrangementId,
+            transactions.size(), System.nanoTime() - generationStart)) {
+            transactionsIntegrationRestClient.ingestTransactions(transactions)
+                .then()
+                .statusCode(SC_CREATED);
         }
-        transactionsIntegrationRestClient.ingestTransactions(transactions)
-            .then()
-            .statusCode(SC_CREATED);
 
         log.info("Transactions [{}] ingested for arrangement [{}]", randomAmount, externalArrangementId);
     }
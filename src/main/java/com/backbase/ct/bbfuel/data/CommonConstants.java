@@ -12,9 +12,58 @@ public final class CommonConstants {
     public static final String ENVIRONMENT_PROPERTIES_FILE_NAME = "environment.properties";
     public static final String PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES = "healthcheck.timeout.in.minutes";
     public static final String PROPERTY_HEALTH_CHECK_USE_ACTUATOR = "healthcheck.use.actuator";
+    public static final String PROPERTY_HEALTH_CHECK_INITIAL_INTERVAL_MILLIS = "healthcheck.initial.interval.millis";
+    public static final String PROPERTY_HEALTH_CHECK_MAX_INTERVAL_MILLIS = "healthcheck.max.interval.millis";
     public static final String PROPERTY_LOG_ALL_REQUESTS_RESPONSES = "log.all.requests.responses";
     public static final String PROPERTY_MULTI_TENANCY_ENVIRONMENT = "multi.tenancy.environment";
     public static final String PROPERTY_TENANT_ID = "tenant.id";
+    public static final String PROPERTY_CONCURRENCY_LIMITER_ENABLED = "concurrency.limiter.enabled";
+    public static final String PROPERTY_CONCURRENCY_LIMITER_INITIAL_LIMIT = "concurrency.limiter.initial.limit";
+    public static final String PROPERTY_CONCURRENCY_LIMITER_MIN_LIMIT = "concurrency.limiter.min.limit";
+    public static final String PROPERTY_CONCURRENCY_LIMITER_MAX_LIMIT = "concurrency.limiter.max.limit";
+    public static final String PROPERTY_CONCURRENCY_LIMITER_LATENCY_TOLERANCE = "concurrency.limiter.latency.tolerance";
+    public static final String PROPERTY_RETRY_MAX_ATTEMPTS = "retry.max.attempts";
+    public static final String PROPERTY_RETRY_INITIAL_BACKOFF_MILLIS = "retry.initial.backoff.millis";
+    public static final String PROPERTY_RETRY_MAX_BACKOFF_MILLIS = "retry.max.backoff.millis";
+    public static final String PROPERTY_RETRY_STATUS_CODES = "retry.status.codes";
+    public static final String PROPERTY_RETRY_NON_IDEMPOTENT_METHODS = "retry.non.idempotent.methods";
+    public static final String PROPERTY_CIRCUIT_BREAKER_ENABLED = "circuit.breaker.enabled";
+    public static final String PROPERTY_CIRCUIT_BREAKER_FAILURE_THRESHOLD = "circuit.breaker.failure.threshold";
+    public static final String PROPERTY_CIRCUIT_BREAKER_OPEN_DURATION_MILLIS = "circuit.breaker.open.duration.millis";
+    public static final String PROPERTY_METRICS_ENABLED = "metrics.enabled";
+    public static final String PROPERTY_REPORT_DIR = "report.dir";
+    public static final String PROPERTY_REQUEST_FINGERPRINTS_ENABLED = "request.fingerprints.enabled";
+    public static final String PROPERTY_REQUEST_FINGERPRINTS_TOP = "request.fingerprints.top";
+    public static final String PROPERTY_REQUEST_BUDGET_PER_ENTITY = "request.budget.per.entity";
+    public static final String PROPERTY_JFR_EVENTS_ENABLED = "jfr.events.enabled";
+    public static final String PROPERTY_TRACING_ENABLED = "tracing.enabled";
+    public static final String PROPERTY_JOURNAL_ENABLED = "journal.enabled";
+    public static final String PROPERTY_JOURNAL_FILE = "journal.file";
+    public static final String PROPERTY_PLAN_ENABLED = "plan.enabled";
+    public static final String PROPERTY_SHARD_INDEX = "shard.index";
+    public static final String PROPERTY_SHARD_COUNT = "shard.count";
+    public static final String PROPERTY_SHARD_DIR = "shard.dir";
+    public static final String PROPERTY_SHARD_RUN_ID = "shard.run.id";
+    public static final String PROPERTY_SHARD_WAIT_SECONDS = "shard.wait.seconds";
+    public static final String PROPERTY_JOB_SERVER_ENABLED = "job.server.enabled";
+    public static final String PROPERTY_JOB_SERVER_PORT = "job.server.port";
+    public static final String PROPERTY_JOB_SERVER_BIND_ADDRESS = "job.server.bind.address";
+    public static final String PROPERTY_JOB_SERVER_TOKEN = "job.server.token";
+    public static final String PROPERTY_JOB_SERVER_ALLOWED_PROPERTIES = "job.server.allowed.properties";
+    public static final String PROPERTY_STARTUP_BUDGET_MILLIS = "startup.budget.millis";
+    public static final String PROPERTY_TRAFFIC_ENABLED = "traffic.enabled";
+    public static final String PROPERTY_TRAFFIC_TPS = "traffic.tps";
+    public static final String PROPERTY_TRAFFIC_DURATION_SECONDS = "traffic.duration.seconds";
+    public static final String PROPERTY_TRAFFIC_MAX_IN_FLIGHT = "traffic.max.in.flight";
+    public static final String PROPERTY_TRAFFIC_TRANSACTIONS_PER_REQUEST = "traffic.transactions.per.request";
+    public static final String PROPERTY_TRAFFIC_ARRANGEMENTS = "traffic.arrangements";
+    public static final String PROPERTY_WARMUP_ENABLED = "warmup.enabled";
+    public static final String PROPERTY_WARMUP_READS = "warmup.reads";
+    public static final String PROPERTY_WARMUP_ROUNDS = "warmup.rounds";
+    public static final String PROPERTY_WARMUP_USERS = "warmup.users";
+    public static final String PROPERTY_WARMUP_CONCURRENCY = "warmup.concurrency";
+    public static final String PROPERTY_EXPORT_IDS_ENABLED = "export.ids.enabled";
+    public static final String PROPERTY_EXPORT_IDS_FORMAT = "export.ids.format";
 
     // Users
     public static final String PROPERTY_ROOT_ENTITLEMENTS_ADMIN = "root.entitlements.admin";
@@ -53,6 +102,7 @@ public final class CommonConstants {
     public static final String PRIVILEGE_CREATE = "create";
     public static final String PRIVILEGE_VIEW = "view";
     public static final String PROPERTY_INGEST_ACCESS_CONTROL = "ingest.access.control";
+    public static final String PROPERTY_INGEST_DELTA = "ingest.delta";
     public static final String PROPERTY_INGEST_CUSTOM_SERVICE_AGREEMENTS = "ingest.custom.service.agreements";
     public static final String PROPERTY_JOB_PROFILES_JSON_LOCATION = "job.profiles.json";
     public static final String PROPERTY_PRODUCT_GROUP_SEED_JSON_LOCATION = "product.group.seed.json";
@@ -109,6 +159,9 @@ public final class CommonConstants {
         "arrangement.not.currentaccount.legal.entity.externalId.limit";
     public static final String PROPERTY_ARRANGEMENT_NOT_CURRENT_ACCOUNT_PRODUCT_ID_LIMIT =
         "arrangement.not.currentaccount.productId.limit";
+    public static final String PROPERTY_ARRANGEMENTS_BATCH_SIZE = "arrangements.batch.size";
+    public static final String PROPERTY_ARRANGEMENTS_CONCURRENCY = "arrangements.concurrency";
+    public static final String PROPERTY_ARRANGEMENTS_PIPELINED = "arrangements.pipelined";
 
     // Payments
     public static final String PAYMENT_TYPE_SEPA_CREDIT_TRANSFER = "SEPA_CREDIT_TRANSFER";
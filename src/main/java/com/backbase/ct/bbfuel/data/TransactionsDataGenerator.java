@@ -1,7 +1,7 @@
 package com.backbase.ct.bbfuel.data;
 
+import com.backbase.ct.bbfuel.config.IngestionConfig;
 import com.backbase.ct.bbfuel.util.CommonHelpers;
-import com.backbase.ct.bbfuel.util.GlobalProperties;
 import com.backbase.dbs.transaction.client.v2.model.TransactionsPostRequestBody;
 import com.backbase.dbs.transaction.client.v2.model.TransactionsPostRequestBody.CreditDebitIndicatorEnum;
 import com.backbase.dbs.transaction.client.v2.model.Currency;
@@ -10,13 +10,9 @@ import org.iban4j.Iban;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
-import static com.backbase.ct.bbfuel.data.CommonConstants.IBAN_ACCOUNT_TYPE;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONTACTS_ACCOUNT_TYPES;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRANSACTIONS_CURRENCY;
 import static com.backbase.ct.bbfuel.util.CommonHelpers.generateRandomNumberInRange;
 import static com.backbase.ct.bbfuel.util.CommonHelpers.getRandomFromEnumValues;
 import static com.backbase.ct.bbfuel.util.CommonHelpers.getRandomFromList;
@@ -25,7 +21,6 @@ import static java.util.Arrays.asList;
 public class TransactionsDataGenerator {
 
     private static Faker faker = new Faker();
-    private static final GlobalProperties GLOBAL_PROPERTIES = GlobalProperties.getInstance();
     private static final List<String> TRANSACTION_TYPE_GROUPS = asList(
         "Payment",
         "Withdrawal",
@@ -61,7 +56,8 @@ public class TransactionsDataGenerator {
         "Term deposit"
     );
 
-    public static TransactionsPostRequestBody generateTransactionsPostRequestBody(String externalArrangementId) {
+    public static TransactionsPostRequestBody generateTransactionsPostRequestBody(String externalArrangementId,
+        IngestionConfig ingestionConfig) {
         CreditDebitIndicatorEnum creditDebitIndicator = getRandomFromEnumValues(CreditDebitIndicatorEnum.values());
 
         String finalCategory = creditDebitIndicator == CreditDebitIndicatorEnum.CRDT
@@ -72,9 +68,9 @@ public class TransactionsDataGenerator {
         String counterPartyName = faker.name().fullName();
 
         BigDecimal amount = CommonHelpers.generateRandomAmountInRange(100L, 9999L);
-        String currency = getRandomFromList(Arrays.asList(GLOBAL_PROPERTIES.getString(PROPERTY_TRANSACTIONS_CURRENCY).split(",")));
+        String currency = getRandomFromList(ingestionConfig.getTransactionCurrencies());
 
-        String accountNumber = GLOBAL_PROPERTIES.getString(PROPERTY_CONTACTS_ACCOUNT_TYPES).contains(IBAN_ACCOUNT_TYPE) ?
+        String accountNumber = ingestionConfig.isIbanCounterPartyAccounts() ?
             Iban.random().toString() :
             String.valueOf(generateRandomNumberInRange(100000, 999999999));
 
@@ -0,0 +1,185 @@
+package com.backbase.ct.bbfuel.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+
+import com.backbase.ct.bbfuel.dto.ArrangementId;
+import com.backbase.ct.bbfuel.dto.UserContext;
+import com.backbase.ct.bbfuel.dto.entitlement.DbsEntity;
+import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
+import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
+import com.backbase.ct.bbfuel.service.JobProfileService;
+import com.backbase.ct.bbfuel.service.ProductGroupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects the internal ids of the users, legal entities, service agreements, arrangements, data groups and function
+ * groups of a run by their external ids or names, and exports them per entity type, so load tests can use them as
+ * feeders instead of looking them up in the environment again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdMapExport {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String FILE_PREFIX = "ids-";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ProductGroupService productGroupService;
+    private final JobProfileService jobProfileService;
+
+    private final Collection<UserContext> userContexts = new ConcurrentLinkedQueue<>();
+    private final Collection<Arrangement> arrangements = new ConcurrentLinkedQueue<>();
+
+    public void addUserContext(UserContext userContext) {
+        this.userContexts.add(userContext);
+    }
+
+    public void addArrangements(List<ArrangementId> arrangementIds, ProductGroupSeed productGroupSeed,
+        String externalLegalEntityId, boolean isRetail) {
+        arrangementIds.forEach(arrangementId -> this.arrangements.add(new Arrangement(
+            arrangementId.getExternalArrangementId(), arrangementId.getInternalArrangementId(), externalLegalEntityId,
+            productGroupSeed.getExternalServiceAgreementId(), productGroupSeed.getId(), isRetail)));
+    }
+
+    /**
+     * @return the arrangements ingested by this run or a previous run, the external id of an arrangement that was
+     * found in the environment instead of journaled by a previous run is null
+     */
+    public List<Arrangement> getArrangements() {
+        return new ArrayList<>(this.arrangements);
+    }
+
+    /**
+     * Write a file per entity type to given directory, with a row per entity.
+     *
+     * @param format {@link #FORMAT_CSV} for a header and comma separated values per row, or {@link #FORMAT_NDJSON}
+     * for a JSON object per row
+     */
+    public void export(Path dir, String format) throws IOException {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new IllegalArgumentException(String.format("Unknown id export format [%s], expected %s or %s",
+                format, FORMAT_CSV, FORMAT_NDJSON));
+        }
+        Files.createDirectories(dir);
+        Map<String, UserContext> usersByExternalId = distinct(this.userContexts, UserContext::getExternalUserId);
+
+        write(dir, format, "users", asList("externalUserId", "internalUserId", "externalLegalEntityId",
+            "internalLegalEntityId", "externalServiceAgreementId", "internalServiceAgreementId"),
+            usersByExternalId.values().stream()
+                .map(userContext -> asList(userContext.getExternalUserId(), userContext.getInternalUserId(),
+                    userContext.getExternalLegalEntityId(), userContext.getInternalLegalEntityId(),
+                    userContext.getExternalServiceAgreementId(), userContext.getInternalServiceAgreementId()))
+                .collect(Collectors.toList()));
+        write(dir, format, "legal-entities", asList("externalLegalEntityId", "internalLegalEntityId"),
+            distinct(usersByExternalId.values(), UserContext::getExternalLegalEntityId).values().stream()
+                .map(userContext -> asList(userContext.getExternalLegalEntityId(),
+                    userContext.getInternalLegalEntityId()))
+                .collect(Collectors.toList()));
+        write(dir, format, "service-agreements", asList("externalServiceAgreementId", "internalServiceAgreementId",
+            "externalLegalEntityId"),
+            distinct(usersByExternalId.values(), UserContext::getExternalServiceAgreementId).values().stream()
+                .map(userContext -> asList(userContext.getExternalServiceAgreementId(),
+                    userContext.getInternalServiceAgreementId(), userContext.getExternalLegalEntityId()))
+                .collect(Collectors.toList()));
+        write(dir, format, "arrangements", asList("externalArrangementId", "internalArrangementId",
+            "externalLegalEntityId", "externalServiceAgreementId", "dataGroupId", "retail"),
+            distinct(this.arrangements, Arrangement::getInternalArrangementId).values().stream()
+                .map(arrangement -> asList(arrangement.getExternalArrangementId(),
+                    arrangement.getInternalArrangementId(), arrangement.getExternalLegalEntityId(),
+                    arrangement.getExternalServiceAgreementId(), arrangement.getDataGroupId(),
+                    String.valueOf(arrangement.isRetail())))
+                .collect(Collectors.toList()));
+        write(dir, format, "data-groups", asList("name", "id", "externalServiceAgreementId"),
+            toGroupRows(this.productGroupService.getAssignedProductGroups(), ProductGroupSeed::getProductGroupName));
+        write(dir, format, "function-groups", asList("name", "id", "externalServiceAgreementId"),
+            toGroupRows(this.jobProfileService.getAssignedJobProfiles(), JobProfile::getJobProfileName));
+        log.info("Exported ids of {} users and {} arrangements to {}", usersByExternalId.size(),
+            this.arrangements.size(), dir.toAbsolutePath());
+    }
+
+    private static <T extends DbsEntity> List<List<String>> toGroupRows(List<T> groups,
+        Function<T, String> nameMapper) {
+        return distinct(groups, group -> group.getExternalServiceAgreementId() + "-" + nameMapper.apply(group))
+            .values().stream()
+            .map(group -> asList(nameMapper.apply(group), group.getId(), group.getExternalServiceAgreementId()))
+            .collect(Collectors.toList());
+    }
+
+    private static <T> Map<String, T> distinct(Collection<T> entities, Function<T, String> keyMapper) {
+        Map<String, T> distinctEntities = new LinkedHashMap<>();
+        entities.forEach(entity -> distinctEntities.putIfAbsent(keyMapper.apply(entity), entity));
+        return distinctEntities;
+    }
+
+    private static void write(Path dir, String format, String entityType, List<String> columns,
+        List<List<String>> rows) throws IOException {
+        Path file = dir.resolve(FILE_PREFIX + entityType + "." + format);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, UTF_8)) {
+            if (FORMAT_CSV.equals(format)) {
+                writer.write(toCsvLine(columns));
+                for (List<String> row : rows) {
+                    writer.write(toCsvLine(row));
+                }
+            } else {
+                for (List<String> row : rows) {
+                    Map<String, String> object = new LinkedHashMap<>();
+                    for (int i = 0; i < columns.size(); i++) {
+                        object.put(columns.get(i), row.get(i));
+                    }
+                    writer.write(MAPPER.writeValueAsString(object));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    private static String toCsvLine(List<String> values) {
+        return values.stream()
+            .map(IdMapExport::toCsvValue)
+            .collect(Collectors.joining(",", "", "\n"));
+    }
+
+    private static String toCsvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    /**
+     * Ids of an arrangement of a data group of this run.
+     */
+    @Value
+    public static class Arrangement {
+
+        String externalArrangementId;
+        String internalArrangementId;
+        String externalLegalEntityId;
+        String externalServiceAgreementId;
+        String dataGroupId;
+        boolean retail;
+    }
+}
@@ -13,6 +13,7 @@ import com.backbase.ct.bbfuel.client.user.UserPresentationRestClient;
 import com.backbase.ct.bbfuel.data.CommonConstants;
 import com.backbase.ct.bbfuel.util.GlobalProperties;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -20,6 +21,7 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class AccessControlHealthCheck {
 
+    private final HealthCheck healthCheck;
     private final AccessGroupIntegrationRestClient accessGroupIntegrationRestClient;
     private final AccessGroupPresentationRestClient accessGroupPresentationRestClient;
     private final ServiceAgreementsIntegrationRestClient serviceAgreementsIntegrationRestClient;
@@ -30,8 +32,7 @@ public class AccessControlHealthCheck {
 
     private GlobalProperties globalProperties = GlobalProperties.getInstance();
 
-    public void checkAccessControlServicesHealth() {
-        HealthCheck healthCheck = new HealthCheck();
+    public CompletableFuture<Void> startAccessControlServicesHealthCheck() {
         long healthCheckTimeOutInMinutes = globalProperties
             .getLong(CommonConstants.PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES);
 
@@ -45,7 +46,12 @@ public class AccessControlHealthCheck {
                 userIntegrationRestClient,
                 userPresentationRestClient);
 
-            healthCheck.checkServicesHealth(restClients);
+            return healthCheck.checkServicesHealthAsync(restClients);
         }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public void checkAccessControlServicesHealth() {
+        HealthCheck.await(startAccessControlServicesHealthCheck());
     }
 }
@@ -7,7 +7,9 @@ import com.backbase.ct.bbfuel.client.common.RestClient;
 import com.backbase.ct.bbfuel.data.CommonConstants;
 import com.backbase.ct.bbfuel.util.GlobalProperties;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -16,18 +18,25 @@ public class BillPayHealthCheck {
     
     private GlobalProperties globalProperties = GlobalProperties.getInstance();
     
+    private final HealthCheck healthCheck;
+
+    @Lazy
     private final BillPayPresentationRestClient billPayPresentationRestClient;
     
-    public void checkBillPayServicesHealth() {
-        HealthCheck healthCheck = new HealthCheck();
+    public CompletableFuture<Void> startBillPayServicesHealthCheck() {
         long healthCheckTimeOutInMinutes = globalProperties
                         .getLong(CommonConstants.PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES);
         boolean ingestBillPay = globalProperties.getBoolean(CommonConstants.PROPERTY_INGEST_BILLPAY);
         
         if (ingestBillPay && healthCheckTimeOutInMinutes > 0) {
             List<RestClient> restClients = singletonList(billPayPresentationRestClient);
-            healthCheck.checkServicesHealth(restClients);
+            return healthCheck.checkServicesHealthAsync(restClients);
         }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public void checkBillPayServicesHealth() {
+        HealthCheck.await(startBillPayServicesHealthCheck());
     }
 
 }
\ No newline at end of file
@@ -1,50 +1,125 @@
 package com.backbase.ct.bbfuel.healthcheck;
 
+import com.backbase.ct.bbfuel.IngestException;
 import com.backbase.ct.bbfuel.client.common.RestClient;
 import com.backbase.ct.bbfuel.data.CommonConstants;
 import com.backbase.ct.bbfuel.util.CommonHelpers;
 import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+/**
+ * Polls the health of services until they are up, each on its own thread with exponential backoff between polls. The
+ * outcome per service is cached, so services checked for one tenant or capability are not polled again for the next.
+ * Services that timed out are forgotten, so the next check polls them again.
+ */
 @Slf4j
 @Component
 public class HealthCheck {
 
+    /**
+     * Polling without any delay would keep a thread busy and flood a service that is starting.
+     */
+    private static final long MIN_INTERVAL_MILLIS = 10;
+
     private GlobalProperties globalProperties = GlobalProperties.getInstance();
 
+    private final Map<String, CompletableFuture<Void>> servicesHealth = new ConcurrentHashMap<>();
+
+    private final ExecutorService healthCheckExecutor = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("health-check-%d").setDaemon(true).build());
+
+    /**
+     * Stop polling with the application context, as the job server creates a context per job.
+     */
+    @PreDestroy
+    public void shutdown() {
+        healthCheckExecutor.shutdownNow();
+    }
+
+    /**
+     * Start checking the health of given services that are not checked yet.
+     *
+     * @return a future completing when all given services are up, or exceptionally when one of them timed out
+     */
+    public CompletableFuture<Void> checkServicesHealthAsync(List<RestClient> restClients) {
+        return CompletableFuture.allOf(restClients.stream()
+            .map(this::checkServiceHealthAsync)
+            .toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> checkServiceHealthAsync(RestClient restClient) {
+        String serviceUri = restClient.getServiceUri();
+        CompletableFuture<Void> health = servicesHealth.computeIfAbsent(serviceUri,
+            key -> CompletableFuture.runAsync(() -> waitUntilUp(restClient, serviceUri), healthCheckExecutor));
+        // callers continue once a service that timed out has been forgotten
+        return health.whenComplete((result, failure) -> {
+            if (failure != null) {
+                servicesHealth.remove(serviceUri, health);
+            }
+        });
+    }
+
     public void checkServicesHealth(List<RestClient> restClients) {
-        long healthCheckTimeOutInMinutes = globalProperties
-            .getLong(CommonConstants.PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES);
-        long timeOutInMillis = CommonHelpers.convertMinutesToMillis(healthCheckTimeOutInMinutes);
-
-        restClients.parallelStream()
-            .forEach(restClient -> {
-                String serviceUri = restClient.getBaseURI().toString() + "/" + restClient.getInitialPath();
-                long startTime = System.currentTimeMillis();
-                while (System.currentTimeMillis() - startTime < timeOutInMillis) {
-                    try {
-                        // Wait between retries to avoid network storm.
-                        if (restClient.isUp()) {
-                            log.info("[{}] online after {} milliseconds", serviceUri,
-                                System.currentTimeMillis() - startTime);
-                            return;
-                        } else {
-                            log.info("[{}] not available", serviceUri);
-                        }
-                    } catch (Exception ex) {
-                        log.info("[{}] not available: {}", serviceUri, ex.getMessage());
-                    }
-
-                    try {
-                        Thread.sleep(10000);
-                    } catch (InterruptedException e) {
-                        log.info("Sleep cancelled", e);
-                        Thread.currentThread().interrupt();
-                    }
+        await(checkServicesHealthAsync(restClients));
+    }
+
+    /**
+     * Wait for the outcome of a health check started before.
+     *
+     * @throws IllegalStateException when one of the services timed out
+     * @throws IngestException when one of the health checks was interrupted
+     */
+    public static void await(CompletableFuture<Void> health) {
+        try {
+            health.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void waitUntilUp(RestClient restClient, String serviceUri) {
+        long timeOutInMillis = CommonHelpers.convertMinutesToMillis(globalProperties
+            .getLong(CommonConstants.PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES));
+        long intervalMillis = Math.max(MIN_INTERVAL_MILLIS,
+            globalProperties.getLong(CommonConstants.PROPERTY_HEALTH_CHECK_INITIAL_INTERVAL_MILLIS));
+        long maxIntervalMillis = Math.max(intervalMillis,
+            globalProperties.getLong(CommonConstants.PROPERTY_HEALTH_CHECK_MAX_INTERVAL_MILLIS));
+        long startTime = System.currentTimeMillis();
+        while (System.currentTimeMillis() - startTime < timeOutInMillis) {
+            try {
+                if (restClient.isUp()) {
+                    log.info("[{}] online after {} milliseconds", serviceUri,
+                        System.currentTimeMillis() - startTime);
+                    return;
+                } else {
+                    log.info("[{}] not available", serviceUri);
                 }
-                throw new IllegalStateException("[" + serviceUri + "] timed out");
-            });
+            } catch (Exception ex) {
+                log.info("[{}] not available: {}", serviceUri, ex.getMessage());
+            }
+
+            try {
+                // Back off exponentially to avoid a network storm on services that take a while to start.
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IngestException("[" + serviceUri + "] health check interrupted", e);
+            }
+            intervalMillis = Math.min(intervalMillis * 2, maxIntervalMillis);
+        }
+        throw new IllegalStateException("[" + serviceUri + "] timed out");
     }
 }
@@ -7,6 +7,7 @@ import com.backbase.ct.bbfuel.data.CommonConstants;
 import com.backbase.ct.bbfuel.util.GlobalProperties;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -14,14 +15,15 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class ProductSummaryHealthCheck {
 
+    private final HealthCheck healthCheck;
+
     private final ArrangementsIntegrationRestClient arrangementsIntegrationRestClient;
 
     private final ProductSummaryPresentationRestClient productSummaryPresentationRestClient;
 
     private GlobalProperties globalProperties = GlobalProperties.getInstance();
 
-    public void checkProductSummaryServicesHealth() {
-        HealthCheck healthCheck = new HealthCheck();
+    public CompletableFuture<Void> startProductSummaryServicesHealthCheck() {
         long healthCheckTimeOutInMinutes = globalProperties
             .getLong(CommonConstants.PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES);
 
@@ -30,7 +32,12 @@ public class ProductSummaryHealthCheck {
                 arrangementsIntegrationRestClient,
                 productSummaryPresentationRestClient);
 
-            healthCheck.checkServicesHealth(restClients);
+            return healthCheck.checkServicesHealthAsync(restClients);
         }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public void checkProductSummaryServicesHealth() {
+        HealthCheck.await(startProductSummaryServicesHealthCheck());
     }
 }
@@ -7,7 +7,9 @@ import com.backbase.ct.bbfuel.client.transaction.TransactionsIntegrationRestClie
 import com.backbase.ct.bbfuel.data.CommonConstants;
 import com.backbase.ct.bbfuel.util.GlobalProperties;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -16,17 +18,24 @@ public class TransactionsHealthCheck {
 
     private GlobalProperties globalProperties = GlobalProperties.getInstance();
 
+    private final HealthCheck healthCheck;
+
+    @Lazy
     private final TransactionsIntegrationRestClient transactionsIntegrationRestClient;
 
-    public void checkTransactionsServicesHealth() {
-        HealthCheck healthCheck = new HealthCheck();
+    public CompletableFuture<Void> startTransactionsServicesHealthCheck() {
         long healthCheckTimeOutInMinutes = globalProperties
             .getLong(CommonConstants.PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES);
         boolean ingestTransactions = globalProperties.getBoolean(CommonConstants.PROPERTY_INGEST_TRANSACTIONS);
 
         if (ingestTransactions && healthCheckTimeOutInMinutes > 0) {
             List<RestClient> restClients = singletonList(transactionsIntegrationRestClient);
-            healthCheck.checkServicesHealth(restClients);
+            return healthCheck.checkServicesHealthAsync(restClients);
         }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public void checkTransactionsServicesHealth() {
+        HealthCheck.await(startTransactionsServicesHealthCheck());
     }
 }
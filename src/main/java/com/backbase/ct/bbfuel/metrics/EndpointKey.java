@@ -0,0 +1,28 @@
+package com.backbase.ct.bbfuel.metrics;
+
+import lombok.Value;
+
+/**
+ * Identifies the requests aggregated in one {@link EndpointMetrics}.
+ */
+@Value
+public class EndpointKey implements Comparable<EndpointKey> {
+
+    String service;
+    String method;
+    String pathTemplate;
+    /**
+     * Status code of the response, 0 when no response was received.
+     */
+    int status;
+
+    @Override
+    public int compareTo(EndpointKey other) {
+        return toString().compareTo(other.toString());
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + service + pathTemplate + " " + status;
+    }
+}
@@ -0,0 +1,71 @@
+package com.backbase.ct.bbfuel.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Request count, errors, bytes and latency distribution of the requests to a single endpoint.
+ */
+public class EndpointMetrics {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final Histogram latencyMicros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final AtomicLong firstStartNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastEndNanos = new AtomicLong(Long.MIN_VALUE);
+
+    void record(long startNanos, long endNanos, long requestBytes, long responseBytes, boolean error) {
+        count.increment();
+        if (error) {
+            errors.increment();
+        }
+        bytesSent.add(requestBytes);
+        bytesReceived.add(responseBytes);
+        latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos));
+        firstStartNanos.accumulateAndGet(startNanos, Math::min);
+        lastEndNanos.accumulateAndGet(endNanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    public double getLatencyMillisAtPercentile(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double getMaxLatencyMillis() {
+        return latencyMicros.getMaxValue() / 1000.0;
+    }
+
+    public double getTotalLatencySeconds() {
+        return latencyMicros.getMean() * latencyMicros.getTotalCount() / 1_000_000.0;
+    }
+
+    /**
+     * @return requests per second between the start of the first and the end of the last request
+     */
+    public double getThroughput() {
+        long activeNanos = lastEndNanos.get() - firstStartNanos.get();
+        return activeNanos > 0 ? getCount() * 1_000_000_000.0 / activeNanos : 0;
+    }
+}
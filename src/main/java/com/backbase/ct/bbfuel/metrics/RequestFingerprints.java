@@ -0,0 +1,174 @@
+package com.backbase.ct.bbfuel.metrics;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingLong;
+
+import com.backbase.ct.bbfuel.IngestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts identical requests, identified by method, URI including query parameters, request and form parameters and
+ * body, to find data that is fetched over and over again instead of once. JSON bodies are compared regardless of the
+ * order of their fields.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RequestFingerprints {
+
+    private static final String PACKAGE = "com.backbase.ct.bbfuel.";
+    private static final String[] INSTRUMENTATION_PACKAGES = {PACKAGE + "client.", PACKAGE + "metrics."};
+    private static final Map<String, Fingerprint> FINGERPRINTS = new ConcurrentHashMap<>();
+    private static final LongAdder TOTAL_REQUESTS = new LongAdder();
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    // Parameters carry credentials on login, so they are hashed with a key that never leaves this JVM.
+    private static final HashFunction PARAMS_HASH = Hashing.hmacSha256(secretKey());
+
+    /**
+     * @return fingerprint of a request, with a hash of its body of which the fields of JSON objects are sorted
+     */
+    public static String fingerprint(String method, String uri, Object body) {
+        if (body == null) {
+            return method + " " + uri;
+        }
+        String content = body instanceof byte[] ? new String((byte[]) body, UTF_8) : body.toString();
+        return method + " " + uri + " body#" + Hashing.murmur3_128().hashString(canonicalize(content), UTF_8);
+    }
+
+    /**
+     * @return fingerprint of a request as above, with a keyed hash of its parameters regardless of their order
+     */
+    public static String fingerprint(String method, String uri, Object body, Map<String, ?> params) {
+        String fingerprint = fingerprint(method, uri, body);
+        if (params.isEmpty()) {
+            return fingerprint;
+        }
+        return fingerprint + " params#" + PARAMS_HASH.hashString(new TreeMap<>(params).toString(), UTF_8);
+    }
+
+    private static byte[] secretKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static String canonicalize(String content) {
+        try {
+            return CANONICAL_MAPPER.writeValueAsString(CANONICAL_MAPPER.readValue(content, Object.class));
+        } catch (IOException e) {
+            return content;
+        }
+    }
+
+    /**
+     * Count a request, attributing it to the first bb-fuel class on the stack outside the REST clients.
+     */
+    public static void record(String fingerprint) {
+        TOTAL_REQUESTS.increment();
+        FINGERPRINTS.computeIfAbsent(fingerprint, key -> new Fingerprint()).record(findCaller());
+    }
+
+    /**
+     * Forget the requests of a previous run in the same JVM.
+     */
+    public static void reset() {
+        FINGERPRINTS.clear();
+        TOTAL_REQUESTS.reset();
+    }
+
+    public static long getTotalRequests() {
+        return TOTAL_REQUESTS.sum();
+    }
+
+    /**
+     * @return number of requests that were identical to an earlier request
+     */
+    public static long getRedundantRequests() {
+        return FINGERPRINTS.values().stream()
+            .mapToLong(fingerprint -> fingerprint.count.sum() - 1)
+            .sum();
+    }
+
+    /**
+     * Log the requests sent most often with the callers sending them.
+     */
+    public static void logTopRedundant(int top) {
+        String redundantRequests = FINGERPRINTS.entrySet().stream()
+            .filter(entry -> entry.getValue().count.sum() > 1)
+            .sorted(comparingLong((Map.Entry<String, Fingerprint> entry) -> entry.getValue().count.sum()).reversed())
+            .limit(top)
+            .map(entry -> String.format("%8d  %s%n          called by %s",
+                entry.getValue().count.sum(), entry.getKey(), entry.getValue().getCallers()))
+            .collect(Collectors.joining(System.lineSeparator()));
+        if (!redundantRequests.isEmpty()) {
+            log.info("{} of {} requests were identical to an earlier request, most repeated:{}{}",
+                getRedundantRequests(), getTotalRequests(), System.lineSeparator(), redundantRequests);
+        }
+    }
+
+    /**
+     * @param entities number of ingested entities
+     * @param budgetPerEntity allowed number of requests per entity
+     * @throws IngestException when more requests were sent than allowed by the budget
+     */
+    public static void verifyBudget(long entities, double budgetPerEntity) {
+        double budget = entities * budgetPerEntity;
+        if (getTotalRequests() > budget) {
+            throw new IngestException(String.format(
+                "Request budget exceeded: %d requests for %d entities, budget is %.1f requests per entity",
+                getTotalRequests(), entities, budgetPerEntity));
+        }
+        log.info("{} requests for {} entities within budget of {} requests per entity",
+            getTotalRequests(), entities, budgetPerEntity);
+    }
+
+    private static String findCaller() {
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            String className = element.getClassName();
+            if (className.startsWith(PACKAGE) && !isInstrumentation(className)) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + element.getMethodName();
+            }
+        }
+        return "unknown";
+    }
+
+    private static boolean isInstrumentation(String className) {
+        for (String instrumentationPackage : INSTRUMENTATION_PACKAGES) {
+            if (className.startsWith(instrumentationPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Fingerprint {
+
+        private final LongAdder count = new LongAdder();
+        private final Map<String, LongAdder> callers = new ConcurrentHashMap<>();
+
+        private void record(String caller) {
+            count.increment();
+            callers.computeIfAbsent(caller, key -> new LongAdder()).increment();
+        }
+
+        private String getCallers() {
+            return callers.entrySet().stream()
+                .sorted(comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .map(entry -> entry.getKey() + " (" + entry.getValue().sum() + ")")
+                .collect(Collectors.joining(", "));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.backbase.ct.bbfuel.metrics;
+
+import static java.util.Comparator.comparingDouble;
+
+import com.backbase.ct.bbfuel.util.ParserUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the metrics of all requests of a run per endpoint and reports them as a summary table, JSON and
+ * Prometheus text format.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RequestMetrics {
+
+    public static final String JSON_REPORT = "request-metrics.json";
+    public static final String PROMETHEUS_REPORT = "request-metrics.prom";
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("(?!v\\d+$).*\\d.*");
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+    private static final Map<EndpointKey, EndpointMetrics> METRICS = new ConcurrentHashMap<>();
+    private static final LongAdder TOTAL_REQUESTS = new LongAdder();
+
+    public static void record(EndpointKey key, long startNanos, long endNanos, long requestBytes,
+        long responseBytes, boolean error) {
+        TOTAL_REQUESTS.increment();
+        METRICS.computeIfAbsent(key, k -> new EndpointMetrics())
+            .record(startNanos, endNanos, requestBytes, responseBytes, error);
+    }
+
+    /**
+     * Forget the requests of a previous run in the same JVM.
+     */
+    public static void reset() {
+        METRICS.clear();
+        TOTAL_REQUESTS.reset();
+    }
+
+    public static long getTotalRequests() {
+        return TOTAL_REQUESTS.sum();
+    }
+
+    public static Map<EndpointKey, EndpointMetrics> getMetrics() {
+        return METRICS;
+    }
+
+    /**
+     * Replace the path segments containing digits (except the API version) and the query by placeholders, so requests
+     * for different entities are aggregated into the same endpoint.
+     */
+    public static String toPathTemplate(String path) {
+        String pathWithoutQuery = path.split("\\?", 2)[0];
+        return Pattern.compile("/").splitAsStream(pathWithoutQuery)
+            .map(segment -> ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment)
+            .collect(Collectors.joining("/"));
+    }
+
+    /**
+     * Log a table of all endpoints, the endpoints with most time spent in requests first.
+     */
+    public static void logSummary() {
+        if (METRICS.isEmpty()) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder(String.format("%n%8s %7s %9s %9s %9s %9s %9s %9s  %s%n",
+            "count", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "total s", "req/s", "endpoint"));
+        sortedByTotalLatency().forEach(entry -> {
+            EndpointMetrics metrics = entry.getValue();
+            summary.append(String.format("%8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                metrics.getCount(), metrics.getErrors(),
+                metrics.getLatencyMillisAtPercentile(50), metrics.getLatencyMillisAtPercentile(95),
+                metrics.getLatencyMillisAtPercentile(99), metrics.getMaxLatencyMillis(),
+                metrics.getTotalLatencySeconds(), metrics.getThroughput(), entry.getKey()));
+        });
+        log.info("Request metrics per endpoint:{}", summary);
+    }
+
+    public static void writeJson(Path file) throws IOException {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        sortedByTotalLatency().forEach(entry -> {
+            EndpointKey key = entry.getKey();
+            EndpointMetrics metrics = entry.getValue();
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("service", key.getService());
+            endpoint.put("method", key.getMethod());
+            endpoint.put("path", key.getPathTemplate());
+            endpoint.put("status", key.getStatus());
+            endpoint.put("count", metrics.getCount());
+            endpoint.put("errors", metrics.getErrors());
+            endpoint.put("bytesSent", metrics.getBytesSent());
+            endpoint.put("bytesReceived", metrics.getBytesReceived());
+            endpoint.put("totalSeconds", metrics.getTotalLatencySeconds());
+            endpoint.put("requestsPerSecond", metrics.getThroughput());
+            Map<String, Double> latencyMillis = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                latencyMillis.put("p" + (int) percentile, metrics.getLatencyMillisAtPercentile(percentile));
+            }
+            latencyMillis.put("max", metrics.getMaxLatencyMillis());
+            endpoint.put("latencyMillis", latencyMillis);
+            endpoints.add(endpoint);
+        });
+        try (OutputStream output = Files.newOutputStream(file)) {
+            ParserUtil.convertObjectToJson(output, endpoints);
+        }
+    }
+
+    public static void writePrometheus(Path file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("# TYPE bbfuel_http_request_duration_seconds summary");
+            METRICS.forEach((key, metrics) -> {
+                for (double percentile : PERCENTILES) {
+                    writer.printf(Locale.ROOT, "bbfuel_http_request_duration_seconds{%s,quantile=\"%s\"} %f%n",
+                        labels(key), percentile / 100, metrics.getLatencyMillisAtPercentile(percentile) / 1000);
+                }
+                writer.printf(Locale.ROOT, "bbfuel_http_request_duration_seconds_sum{%s} %f%n",
+                    labels(key), metrics.getTotalLatencySeconds());
+                writer.printf(Locale.ROOT, "bbfuel_http_request_duration_seconds_count{%s} %d%n",
+                    labels(key), metrics.getCount());
+            });
+            writer.println("# TYPE bbfuel_http_request_errors_total counter");
+            METRICS.forEach((key, metrics) ->
+                writer.printf(Locale.ROOT, "bbfuel_http_request_errors_total{%s} %d%n",
+                    labels(key), metrics.getErrors()));
+            writer.println("# TYPE bbfuel_http_request_bytes_total counter");
+            METRICS.forEach((key, metrics) -> {
+                writer.printf(Locale.ROOT, "bbfuel_http_request_bytes_total{%s,direction=\"sent\"} %d%n",
+                    labels(key), metrics.getBytesSent());
+                writer.printf(Locale.ROOT, "bbfuel_http_request_bytes_total{%s,direction=\"received\"} %d%n",
+                    labels(key), metrics.getBytesReceived());
+            });
+        }
+    }
+
+    private static String labels(EndpointKey key) {
+        return String.format("service=\"%s\",method=\"%s\",path=\"%s\",status=\"%d\"",
+            key.getService(), key.getMethod(), key.getPathTemplate(), key.getStatus());
+    }
+
+    private static List<Map.Entry<EndpointKey, EndpointMetrics>> sortedByTotalLatency() {
+        return METRICS.entrySet().stream()
+            .sorted(comparingDouble((Map.Entry<EndpointKey, EndpointMetrics> entry) ->
+                entry.getValue().getTotalLatencySeconds()).reversed())
+            .collect(Collectors.toList());
+    }
+}
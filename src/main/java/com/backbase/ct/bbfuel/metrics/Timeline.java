@@ -0,0 +1,161 @@
+package com.backbase.ct.bbfuel.metrics;
+
+import static java.util.Comparator.comparingLong;
+
+import com.backbase.ct.bbfuel.metrics.tracing.Tracing;
+import com.backbase.ct.bbfuel.util.ParserUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records the start, duration, entity count and request count of the phases of a run, nested per thread. Each phase
+ * is traced as a span as well.
+ * <p>
+ * Usage:
+ * <pre>
+ * try (Timeline.Phase phase = Timeline.start("capability payments")) {
+ *     phase.setEntities(users.size());
+ *     ...
+ * }
+ * </pre>
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class Timeline {
+
+    public static final String JSON_REPORT = "timeline.json";
+    public static final String KIND_PHASE = "phase";
+    public static final String KIND_LEGAL_ENTITY = "legal entity";
+
+    private static final int SLOWEST_LEGAL_ENTITIES = 10;
+    private static final List<Phase> PHASES = Collections.synchronizedList(new ArrayList<>());
+    private static final ThreadLocal<Deque<Phase>> CURRENT_PHASES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public static Phase start(String name) {
+        return start(name, KIND_PHASE);
+    }
+
+    /**
+     * Start a phase as child of the phase currently running on this thread.
+     */
+    public static Phase start(String name, String kind) {
+        Deque<Phase> currentPhases = CURRENT_PHASES.get();
+        Phase parent = currentPhases.peek();
+        Phase phase = new Phase(name, parent == null ? name : parent.getPath() + " / " + name, kind);
+        currentPhases.push(phase);
+        PHASES.add(phase);
+        return phase;
+    }
+
+    /**
+     * Forget the phases of a previous run in the same JVM.
+     */
+    public static void reset() {
+        PHASES.clear();
+    }
+
+    public static List<Phase> getPhases() {
+        synchronized (PHASES) {
+            return new ArrayList<>(PHASES);
+        }
+    }
+
+    /**
+     * Log all phases sorted by duration, followed by the slowest legal entities.
+     */
+    public static void logSummary() {
+        List<Phase> phases = getPhases();
+        if (phases.isEmpty()) {
+            return;
+        }
+        log.info("Phases by duration:{}{}", System.lineSeparator(), format(phases.stream()
+            .filter(phase -> KIND_PHASE.equals(phase.getKind()))
+            .sorted(comparingLong(Phase::getDurationMillis).reversed())
+            .collect(Collectors.toList())));
+
+        List<Phase> slowestLegalEntities = phases.stream()
+            .filter(phase -> KIND_LEGAL_ENTITY.equals(phase.getKind()))
+            .sorted(comparingLong(Phase::getDurationMillis).reversed())
+            .limit(SLOWEST_LEGAL_ENTITIES)
+            .collect(Collectors.toList());
+        if (!slowestLegalEntities.isEmpty()) {
+            log.info("Slowest legal entities:{}{}", System.lineSeparator(), format(slowestLegalEntities));
+        }
+    }
+
+    public static void writeJson(Path file) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file)) {
+            ParserUtil.convertObjectToJson(output, getPhases());
+        }
+    }
+
+    private static String format(List<Phase> phases) {
+        return phases.stream()
+            .map(phase -> String.format("%10.1f s %8d requests %6d entities  %s",
+                phase.getDurationMillis() / 1000.0, phase.getRequests(), phase.getEntities(), phase.getPath()))
+            .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    @Getter
+    public static class Phase implements AutoCloseable {
+
+        private final String path;
+        private final String kind;
+        private final String start;
+        @Getter(AccessLevel.NONE)
+        private final long startRequests;
+        @Getter(AccessLevel.NONE)
+        private final long startNanos;
+        @Getter(AccessLevel.NONE)
+        private final Tracing.SpanScope span;
+        private long durationMillis;
+        private long requests;
+        private long entities;
+
+        private Phase(String name, String path, String kind) {
+            this.path = path;
+            this.kind = kind;
+            this.start = Instant.now().toString();
+            this.startRequests = RequestMetrics.getTotalRequests();
+            this.startNanos = System.nanoTime();
+            this.span = Tracing.startSpan(name).setAttribute("bbfuel.phase.kind", kind);
+        }
+
+        public void setEntities(long entities) {
+            this.entities = entities;
+            span.setAttribute("bbfuel.entities", entities);
+        }
+
+        /**
+         * Add an attribute to the trace span of the phase.
+         */
+        public void setAttribute(String key, String value) {
+            span.setAttribute(key, value);
+        }
+
+        /**
+         * End the phase. Request counts include requests of concurrent phases on other threads.
+         */
+        @Override
+        public void close() {
+            durationMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            requests = RequestMetrics.getTotalRequests() - startRequests;
+            CURRENT_PHASES.get().remove(this);
+            span.setAttribute("bbfuel.requests", requests);
+            span.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.backbase.ct.bbfuel.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.backbase.bbfuel.ArrangementBatch")
+@Label("Arrangement Batch")
+@Description("Ingestion of a batch of arrangements of a legal entity")
+@Category({"bb-fuel", "Ingestion"})
+@StackTrace(false)
+class ArrangementBatchEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("External Legal Entity Id")
+    String externalLegalEntityId;
+
+    @Label("Arrangements")
+    int arrangements;
+}
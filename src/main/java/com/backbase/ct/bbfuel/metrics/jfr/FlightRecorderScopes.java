@@ -0,0 +1,64 @@
+package com.backbase.ct.bbfuel.metrics.jfr;
+
+import com.backbase.ct.bbfuel.metrics.jfr.IngestionEvents.Scope;
+import jdk.jfr.Event;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Creates the actual events, only to be used when the JVM supports JFR.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class FlightRecorderScopes {
+
+    static Scope legalEntity(Class<?> source, String externalLegalEntityId, int users) {
+        LegalEntityEvent event = new LegalEntityEvent();
+        event.source = source.getSimpleName();
+        event.externalLegalEntityId = externalLegalEntityId;
+        event.users = users;
+        return begin(event);
+    }
+
+    static Scope arrangementBatch(Class<?> source, String externalLegalEntityId, int arrangements) {
+        ArrangementBatchEvent event = new ArrangementBatchEvent();
+        event.source = source.getSimpleName();
+        event.externalLegalEntityId = externalLegalEntityId;
+        event.arrangements = arrangements;
+        return begin(event);
+    }
+
+    static Scope transactionBatch(Class<?> source, String externalArrangementId, int transactions,
+        long generationDurationNanos) {
+        TransactionBatchEvent event = new TransactionBatchEvent();
+        event.source = source.getSimpleName();
+        event.externalArrangementId = externalArrangementId;
+        event.transactions = transactions;
+        event.generationDuration = generationDurationNanos;
+        return begin(event);
+    }
+
+    static Scope httpRequest(String source, String service, String method, String path) {
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.source = source;
+        event.service = service;
+        event.method = method;
+        event.path = path;
+        event.begin();
+        return new Scope() {
+            @Override
+            public void setStatus(int status) {
+                event.status = status;
+            }
+
+            @Override
+            public void close() {
+                event.commit();
+            }
+        };
+    }
+
+    private static Scope begin(Event event) {
+        event.begin();
+        return event::commit;
+    }
+}
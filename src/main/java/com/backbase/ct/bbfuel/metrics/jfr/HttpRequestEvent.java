@@ -0,0 +1,31 @@
+package com.backbase.ct.bbfuel.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.backbase.bbfuel.HttpRequest")
+@Label("HTTP Request")
+@Description("Request to a DBS service, from sending the serialized body until the response is received")
+@Category({"bb-fuel", "HTTP"})
+@StackTrace(false)
+class HttpRequestEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("Service")
+    String service;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,116 @@
+package com.backbase.ct.bbfuel.metrics.jfr;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JFR_EVENTS_ENABLED;
+
+import com.backbase.ct.bbfuel.metrics.tracing.Tracing;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Emits Java Flight Recorder events for the units of ingestion, so a recording shows the time spent per legal entity,
+ * batch and request next to the profiling data of the JVM. Batches are traced as spans as well when tracing is
+ * enabled.
+ * <p>
+ * Events are only emitted when the JVM supports JFR (Java 11 and Java 8 from update 262) and cost hardly anything
+ * when no recording is running. Event classes are only loaded through {@link FlightRecorderScopes} when supported.
+ * <pre>
+ * try (IngestionEvents.Scope scope = IngestionEvents.legalEntity(getClass(), externalId, users.size())) {
+ *     ...
+ * }
+ * </pre>
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class IngestionEvents {
+
+    private static final Scope NO_SCOPE = () -> {
+    };
+    private static final boolean ENABLED = isEnabledAndSupported();
+
+    /**
+     * An event in progress, committed when closed.
+     */
+    public interface Scope extends AutoCloseable {
+
+        /**
+         * Record the status of the response of a request event.
+         */
+        default void setStatus(int status) {
+        }
+
+        @Override
+        void close();
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static Scope legalEntity(Class<?> source, String externalLegalEntityId, int users) {
+        return ENABLED ? FlightRecorderScopes.legalEntity(source, externalLegalEntityId, users) : NO_SCOPE;
+    }
+
+    public static Scope arrangementBatch(Class<?> source, String externalLegalEntityId, int arrangements) {
+        Scope event = ENABLED
+            ? FlightRecorderScopes.arrangementBatch(source, externalLegalEntityId, arrangements)
+            : NO_SCOPE;
+        return withSpan(event, "arrangement batch", Attributes.builder()
+            .put("bbfuel.source", source.getSimpleName())
+            .put("bbfuel.legal_entity.external_id", externalLegalEntityId)
+            .put("bbfuel.batch.size", arrangements)
+            .build());
+    }
+
+    /**
+     * @param generationDurationNanos time spent generating the transactions before the scope was started
+     */
+    public static Scope transactionBatch(Class<?> source, String externalArrangementId, int transactions,
+        long generationDurationNanos) {
+        Scope event = ENABLED
+            ? FlightRecorderScopes.transactionBatch(source, externalArrangementId, transactions,
+            generationDurationNanos)
+            : NO_SCOPE;
+        return withSpan(event, "transaction batch", Attributes.builder()
+            .put("bbfuel.source", source.getSimpleName())
+            .put("bbfuel.arrangement.external_id", externalArrangementId)
+            .put("bbfuel.batch.size", transactions)
+            .build());
+    }
+
+    public static Scope httpRequest(String source, String service, String method, String path) {
+        return ENABLED ? FlightRecorderScopes.httpRequest(source, service, method, path) : NO_SCOPE;
+    }
+
+    /**
+     * Trace the batch as well, as span ended after the event.
+     */
+    private static Scope withSpan(Scope event, String name, Attributes attributes) {
+        if (!Tracing.isEnabled()) {
+            return event;
+        }
+        Tracing.SpanScope span = Tracing.startSpan(name, SpanKind.INTERNAL, attributes);
+        return () -> {
+            event.close();
+            span.close();
+        };
+    }
+
+    private static boolean isEnabledAndSupported() {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        if (!globalProperties.containsKey(PROPERTY_JFR_EVENTS_ENABLED)
+            || !globalProperties.getBoolean(PROPERTY_JFR_EVENTS_ENABLED)) {
+            return false;
+        }
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException e) {
+            log.info("Flight recorder events are not supported by this JVM");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.backbase.ct.bbfuel.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.backbase.bbfuel.LegalEntity")
+@Label("Legal Entity")
+@Description("Ingestion of the users, function groups, data groups and permissions of a legal entity")
+@Category({"bb-fuel", "Ingestion"})
+@StackTrace(false)
+class LegalEntityEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("External Legal Entity Id")
+    String externalLegalEntityId;
+
+    @Label("Users")
+    int users;
+}
@@ -0,0 +1,30 @@
+package com.backbase.ct.bbfuel.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.backbase.bbfuel.TransactionBatch")
+@Label("Transaction Batch")
+@Description("Ingestion of the transactions of an arrangement, with the time spent generating them before")
+@Category({"bb-fuel", "Ingestion"})
+@StackTrace(false)
+class TransactionBatchEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("External Arrangement Id")
+    String externalArrangementId;
+
+    @Label("Transactions")
+    int transactions;
+
+    @Label("Generation Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long generationDuration;
+}
@@ -0,0 +1,149 @@
+package com.backbase.ct.bbfuel.metrics.tracing;
+
+import static java.util.Collections.singletonList;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeType;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Appends each batch of spans as one line of OTLP JSON, the format of the OpenTelemetry collector's OTLP JSON file
+ * receiver.
+ */
+@Slf4j
+public class OtlpJsonFileSpanExporter implements SpanExporter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Getter
+    private final Path file;
+    private BufferedWriter writer;
+
+    public OtlpJsonFileSpanExporter(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        if (spans.isEmpty()) {
+            return CompletableResultCode.ofSuccess();
+        }
+        try {
+            getWriter().write(MAPPER.writeValueAsString(toExportRequest(spans)));
+            getWriter().newLine();
+            getWriter().flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed exporting {} spans to {}", spans.size(), file, e);
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private BufferedWriter getWriter() throws IOException {
+        if (writer == null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return writer;
+    }
+
+    private static Map<String, Object> toExportRequest(Collection<SpanData> spans) {
+        SpanData first = spans.iterator().next();
+
+        Map<String, Object> scope = new LinkedHashMap<>();
+        scope.put("name", first.getInstrumentationScopeInfo().getName());
+
+        Map<String, Object> scopeSpans = new LinkedHashMap<>();
+        scopeSpans.put("scope", scope);
+        scopeSpans.put("spans", spans.stream().map(OtlpJsonFileSpanExporter::toSpan).collect(Collectors.toList()));
+
+        Map<String, Object> resource = new LinkedHashMap<>();
+        resource.put("attributes", toAttributes(first.getResource().getAttributes()));
+
+        Map<String, Object> resourceSpans = new LinkedHashMap<>();
+        resourceSpans.put("resource", resource);
+        resourceSpans.put("scopeSpans", singletonList(scopeSpans));
+
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("resourceSpans", singletonList(resourceSpans));
+        return request;
+    }
+
+    private static Map<String, Object> toSpan(SpanData spanData) {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("traceId", spanData.getTraceId());
+        span.put("spanId", spanData.getSpanId());
+        if (spanData.getParentSpanContext().isValid()) {
+            span.put("parentSpanId", spanData.getParentSpanId());
+        }
+        span.put("name", spanData.getName());
+        // OTLP span kinds start at 1 for INTERNAL, in the same order as the SpanKind enum
+        span.put("kind", spanData.getKind().ordinal() + 1);
+        span.put("startTimeUnixNano", String.valueOf(spanData.getStartEpochNanos()));
+        span.put("endTimeUnixNano", String.valueOf(spanData.getEndEpochNanos()));
+        span.put("attributes", toAttributes(spanData.getAttributes()));
+        Map<String, Object> status = new LinkedHashMap<>();
+        // OTLP status codes are UNSET, OK and ERROR, in the same order as the StatusCode enum
+        status.put("code", spanData.getStatus().getStatusCode().ordinal());
+        span.put("status", status);
+        return span;
+    }
+
+    private static List<Map<String, Object>> toAttributes(Attributes attributes) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        attributes.forEach((key, value) -> {
+            Map<String, Object> anyValue = new LinkedHashMap<>();
+            AttributeType type = key.getType();
+            if (type == AttributeType.LONG) {
+                anyValue.put("intValue", String.valueOf(value));
+            } else if (type == AttributeType.DOUBLE) {
+                anyValue.put("doubleValue", value);
+            } else if (type == AttributeType.BOOLEAN) {
+                anyValue.put("boolValue", value);
+            } else {
+                anyValue.put("stringValue", String.valueOf(value));
+            }
+            Map<String, Object> attribute = new LinkedHashMap<>();
+            attribute.put("key", key.getKey());
+            attribute.put("value", anyValue);
+            result.add(attribute);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+package com.backbase.ct.bbfuel.metrics.tracing;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_REPORT_DIR;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRACING_ENABLED;
+
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Traces the ingestion with OpenTelemetry: phases and batches as internal spans, requests as client spans of which the
+ * trace context is propagated to the services. Spans are exported to a local file in OTLP JSON format, so tracing
+ * works without a collector. When tracing is disabled all spans are no-ops.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class Tracing {
+
+    public static final String TRACES_FILE = "traces.jsonl";
+
+    private static final String INSTRUMENTATION_NAME = "com.backbase.ct.bbfuel";
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+    private static final OpenTelemetry OPEN_TELEMETRY = createOpenTelemetry();
+    private static final Tracer TRACER = OPEN_TELEMETRY.getTracer(INSTRUMENTATION_NAME);
+
+    /**
+     * A span that is current on this thread until closed.
+     */
+    public static class SpanScope implements AutoCloseable {
+
+        private final Span span;
+        private final Scope scope;
+
+        private SpanScope(Span span) {
+            this.span = span;
+            this.scope = span.makeCurrent();
+        }
+
+        public SpanScope setAttribute(String key, String value) {
+            span.setAttribute(key, value);
+            return this;
+        }
+
+        public SpanScope setAttribute(String key, long value) {
+            span.setAttribute(key, value);
+            return this;
+        }
+
+        public void setError(Throwable throwable) {
+            span.recordException(throwable);
+            span.setStatus(StatusCode.ERROR);
+        }
+
+        @Override
+        public void close() {
+            scope.close();
+            span.end();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return OPEN_TELEMETRY instanceof OpenTelemetrySdk;
+    }
+
+    /**
+     * Start a span as child of the current span of this thread.
+     */
+    public static SpanScope startSpan(String name) {
+        return startSpan(name, SpanKind.INTERNAL, Attributes.empty());
+    }
+
+    public static SpanScope startSpan(String name, SpanKind kind, Attributes attributes) {
+        return new SpanScope(TRACER.spanBuilder(name)
+            .setSpanKind(kind)
+            .setAllAttributes(attributes)
+            .startSpan());
+    }
+
+    /**
+     * Pass the context of the current span to a request, as W3C trace context headers.
+     */
+    public static void injectContext(BiConsumer<String, String> headerSetter) {
+        OPEN_TELEMETRY.getPropagators().getTextMapPropagator()
+            .inject(Context.current(), headerSetter, (setter, key, value) -> setter.accept(key, value));
+    }
+
+    /**
+     * Make tasks submitted to the executor run in the context of the span that submitted them.
+     */
+    public static ExecutorService wrap(ExecutorService executorService) {
+        return Context.taskWrapping(executorService);
+    }
+
+    /**
+     * Export the remaining spans and close the traces file.
+     */
+    public static void shutdown() {
+        if (isEnabled()) {
+            ((OpenTelemetrySdk) OPEN_TELEMETRY).getSdkTracerProvider().shutdown().join(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Export the spans ended so far, keeping tracing open for the next run in the same JVM.
+     */
+    public static void flush() {
+        if (isEnabled()) {
+            ((OpenTelemetrySdk) OPEN_TELEMETRY).getSdkTracerProvider().forceFlush().join(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static OpenTelemetry createOpenTelemetry() {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        if (!globalProperties.containsKey(PROPERTY_TRACING_ENABLED)
+            || !globalProperties.getBoolean(PROPERTY_TRACING_ENABLED)) {
+            return OpenTelemetry.noop();
+        }
+
+        OtlpJsonFileSpanExporter exporter = new OtlpJsonFileSpanExporter(
+            Paths.get(globalProperties.getString(PROPERTY_REPORT_DIR), TRACES_FILE));
+        log.info("Exporting traces to {}", exporter.getFile().toAbsolutePath());
+        return OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, "bb-fuel"))))
+                .addSpanProcessor(BatchSpanProcessor.builder(exporter).build())
+                .build())
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.backbase.ct.bbfuel.plan;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingDouble;
+
+import com.backbase.ct.bbfuel.util.ParserUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Expected number of entities and requests per phase and service of an ingestion, as planned by the
+ * {@link IngestionPlanner}. Counts of randomized ranges are the average of the range, so they are fractional.
+ */
+@Slf4j
+@Getter
+public class IngestionPlan {
+
+    public static final String JSON_REPORT = "plan.json";
+
+    private final Map<List<String>, Step> steps = new LinkedHashMap<>();
+
+    /**
+     * Estimated duration in seconds per phase, based on the request rates of a previous run, or empty when there are
+     * no reports of a previous run.
+     */
+    @Setter
+    private Map<String, Double> estimatedSecondsPerPhase = new LinkedHashMap<>();
+
+    /**
+     * Mean latency and number of concurrent requests of the previous run, 0 when unknown.
+     */
+    @Setter
+    private double previousMeanLatencyMillis;
+    @Setter
+    private double previousConcurrency;
+
+    public void add(String phase, String service, String entity, double entities, double requests) {
+        if (requests <= 0) {
+            return;
+        }
+        Step step = steps.computeIfAbsent(Arrays.asList(phase, service, entity),
+            key -> new Step(phase, service, entity));
+        step.entities += entities;
+        step.requests += requests;
+    }
+
+    public double getTotalRequests() {
+        return steps.values().stream().mapToDouble(Step::getRequests).sum();
+    }
+
+    public Map<String, Double> getRequestsPerPhase() {
+        return sumRequestsBy(Step::getPhase);
+    }
+
+    public Map<String, Double> getRequestsPerService() {
+        return sumRequestsBy(Step::getService);
+    }
+
+    public double getEstimatedSeconds() {
+        return estimatedSecondsPerPhase.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    public void logSummary() {
+        StringBuilder summary = new StringBuilder(String.format("%n%-16s %-16s %-22s %12s %12s%n",
+            "phase", "service", "entity", "entities", "requests"));
+        steps.values().forEach(step -> summary.append(String.format("%-16s %-16s %-22s %12.0f %12.0f%n",
+            step.getPhase(), step.getService(), step.getEntity(), step.getEntities(), step.getRequests())));
+        summary.append(String.format("%-56s %12.0f%n", "total", getTotalRequests()));
+        getRequestsPerService().forEach((service, requests) ->
+            summary.append(String.format("%-56s %12.0f%n", "service " + service, requests)));
+        log.info("Ingestion plan:{}", summary);
+
+        if (estimatedSecondsPerPhase.isEmpty()) {
+            log.info("No reports of a previous run found to estimate the duration of the ingestion");
+            return;
+        }
+        estimatedSecondsPerPhase.forEach((phase, seconds) ->
+            log.info("Estimated duration of {}: {} minutes", phase, Math.round(seconds / 60)));
+        log.info("Estimated duration of the ingestion: {} minutes, previous run had {} ms mean latency and {} "
+                + "concurrent requests", Math.round(getEstimatedSeconds() / 60),
+            Math.round(previousMeanLatencyMillis), String.format("%.1f", previousConcurrency));
+    }
+
+    public void writeJson(Path file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("steps", new ArrayList<>(steps.values()));
+        report.put("requestsPerPhase", getRequestsPerPhase());
+        report.put("requestsPerService", getRequestsPerService());
+        report.put("totalRequests", getTotalRequests());
+        if (!estimatedSecondsPerPhase.isEmpty()) {
+            report.put("estimatedSecondsPerPhase", estimatedSecondsPerPhase);
+            report.put("estimatedSeconds", getEstimatedSeconds());
+            report.put("previousMeanLatencyMillis", previousMeanLatencyMillis);
+            report.put("previousConcurrency", previousConcurrency);
+        }
+        try (OutputStream output = Files.newOutputStream(file)) {
+            ParserUtil.convertObjectToJson(output, report);
+        }
+    }
+
+    private Map<String, Double> sumRequestsBy(Function<Step, String> classifier) {
+        return steps.values().stream()
+            .collect(groupingBy(classifier, TreeMap::new, summingDouble(Step::getRequests)));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Step {
+
+        private final String phase;
+        private final String service;
+        private final String entity;
+        private double entities;
+        private double requests;
+    }
+}
@@ -0,0 +1,270 @@
+package com.backbase.ct.bbfuel.plan;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONTACTS_MAX;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONTACTS_MIN;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_CONTACTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_PAYMENTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_PAYMENTS_MAX;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_PAYMENTS_MIN;
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.data.ProductSummaryDataGenerator;
+import com.backbase.ct.bbfuel.dto.AmountRange;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
+import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
+import com.backbase.ct.bbfuel.input.JobProfileReader;
+import com.backbase.ct.bbfuel.input.LegalEntityWithUsersReader;
+import com.backbase.ct.bbfuel.input.ProductGroupSeedReader;
+import com.backbase.ct.bbfuel.metrics.RequestMetrics;
+import com.backbase.ct.bbfuel.metrics.Timeline;
+import com.backbase.ct.bbfuel.service.JobProfileService;
+import com.backbase.ct.bbfuel.service.ShardService;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.backbase.integration.accessgroup.rest.spec.v2.accessgroups.functiongroups.FunctionGroupBase.Type;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plans an ingestion without sending any request: the input files and ingest properties determine how many entities
+ * and requests to expect per phase and service. Request rates per phase of a previous run, read from its reports,
+ * turn the plan into an estimated duration.
+ *
+ * <p>Only the phases and capabilities that dominate a run are planned: legal entities, users, service agreements,
+ * groups, permissions, arrangements with their transactions, balance history and subscriptions, payments and contacts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestionPlanner {
+
+    private static final String PHASE_ACCESS_CONTROL = "access control";
+    private static final String PHASE_CAPABILITIES = "capabilities";
+    private static final String PHASE_INGESTION = "ingestion";
+
+    /**
+     * Balance history is ingested weekly for a quarter and daily for a week, both including today.
+     */
+    private static final int BALANCE_HISTORY_ITEMS = 14 + 8;
+
+    /**
+     * Retrieving the legal entity, user, master service agreement and its external id of a user.
+     */
+    private static final int USER_CONTEXT_REQUESTS = 4;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final LegalEntityWithUsersReader legalEntityWithUsersReader;
+    private final JobProfileReader jobProfileReader;
+    private final ProductGroupSeedReader productGroupSeedReader;
+    private final JobProfileService jobProfileService;
+    private final IngestionConfig ingestionConfig;
+    private final ShardService shardService;
+
+    private final GlobalProperties globalProperties = GlobalProperties.getInstance();
+
+    /**
+     * Plan the ingestion of the legal entities with users of all given tenants.
+     */
+    public IngestionPlan plan(String[] tenants) {
+        IngestionPlan plan = new IngestionPlan();
+        List<JobProfile> jobProfiles = this.jobProfileReader.load();
+        List<ProductGroupSeed> productGroups = this.productGroupSeedReader.load();
+
+        if (this.ingestionConfig.isIngestAccessControl() && this.shardService.isGlobalShard()) {
+            planRootLegalEntity(plan);
+        }
+        for (String tenant : tenants) {
+            List<LegalEntityWithUsers> legalEntities = this.shardService.selectShard(
+                this.legalEntityWithUsersReader.load(tenant));
+            if (this.ingestionConfig.isIngestAccessControl()) {
+                legalEntities.forEach(legalEntity -> planAccessControl(plan, legalEntity, jobProfiles, productGroups));
+            }
+            planCapabilities(plan, legalEntities);
+        }
+        return plan;
+    }
+
+    private void planRootLegalEntity(IngestionPlan plan) {
+        plan.add(PHASE_ACCESS_CONTROL, "legalentity", "legal entity", 1, 1);
+        plan.add(PHASE_ACCESS_CONTROL, "accessgroup", "service agreement", 1, 2);
+        plan.add(PHASE_ACCESS_CONTROL, "user", "user", 1, 1);
+        int products = ProductSummaryDataGenerator.getProductsFromFile().size();
+        plan.add(PHASE_ACCESS_CONTROL, "arrangements", "product", products, products);
+    }
+
+    /**
+     * Mirrors the AccessControlSetup: data groups are looked up once per user and product group, while the function
+     * groups and data groups of a service agreement are ingested once.
+     */
+    private void planAccessControl(IngestionPlan plan, LegalEntityWithUsers legalEntity,
+        List<JobProfile> jobProfiles, List<ProductGroupSeed> productGroups) {
+        int users = legalEntity.getUsers().size();
+        boolean isRetail = legalEntity.getCategory().isRetail();
+
+        plan.add(PHASE_ACCESS_CONTROL, "legalentity", "legal entity", 1, 1);
+        plan.add(PHASE_ACCESS_CONTROL, "user", "user", users, users);
+        plan.add(PHASE_ACCESS_CONTROL, "user", "user context", users, users * (double) USER_CONTEXT_REQUESTS);
+        plan.add(PHASE_ACCESS_CONTROL, "accessgroup", "service agreement", 1, 2);
+        plan.add(PHASE_ACCESS_CONTROL, "accessgroup", "permission", users, users);
+
+        long functionGroups = jobProfiles.stream()
+            .filter(jobProfile -> !Type.TEMPLATE.toString().equals(jobProfile.getType()))
+            .filter(jobProfile -> this.jobProfileService.isJobProfileForBranch(isRetail, jobProfile))
+            .count();
+        plan.add(PHASE_ACCESS_CONTROL, "accessgroup", "function group", functionGroups, functionGroups);
+
+        List<ProductGroupSeed> legalEntityProductGroups = productGroups.stream()
+            .filter(productGroup -> isNullOrEmpty(productGroup.getLegalEntityExternalId())
+                || productGroup.getLegalEntityExternalId().equals(legalEntity.getLegalEntityExternalId()))
+            .collect(Collectors.toList());
+        plan.add(PHASE_ACCESS_CONTROL, "accessgroup", "data group", legalEntityProductGroups.size(),
+            legalEntityProductGroups.size() * (1.0 + users));
+
+        double arrangements = legalEntityProductGroups.stream()
+            .mapToDouble(productGroup -> average(productGroup.getNumberOfArrangements()))
+            .sum();
+        plan.add(PHASE_ACCESS_CONTROL, "arrangements", "arrangement", arrangements, arrangements);
+        if (this.ingestionConfig.isIngestTransactions()) {
+            // retail arrangements get one extra transaction with check images
+            double transactionsPerArrangement = average(this.ingestionConfig.getTransactionsMin(),
+                this.ingestionConfig.getTransactionsMax()) + (isRetail ? 1 : 0);
+            plan.add(PHASE_ACCESS_CONTROL, "transactions", "transaction",
+                arrangements * transactionsPerArrangement, arrangements);
+        }
+        if (this.ingestionConfig.isIngestBalanceHistory()) {
+            plan.add(PHASE_ACCESS_CONTROL, "arrangements", "balance history item",
+                arrangements * BALANCE_HISTORY_ITEMS, arrangements * BALANCE_HISTORY_ITEMS);
+        }
+        if (this.ingestionConfig.isIngestPositivePayChecks()) {
+            plan.add(PHASE_ACCESS_CONTROL, "arrangements", "subscription", arrangements, arrangements);
+        }
+    }
+
+    /**
+     * Mirrors the CapabilitiesDataSetup, which skips legal entities with support users.
+     */
+    private void planCapabilities(IngestionPlan plan, List<LegalEntityWithUsers> legalEntities) {
+        List<LegalEntityWithUsers> customers = legalEntities.stream()
+            .filter(legalEntity -> legalEntity.getUsers().stream()
+                .noneMatch(user -> "support".equals(user.getRole())))
+            .collect(Collectors.toList());
+        long users = customers.stream().mapToLong(legalEntity -> legalEntity.getUsers().size()).sum();
+
+        if (this.globalProperties.getBoolean(PROPERTY_INGEST_PAYMENTS)) {
+            double paymentsPerUser = average(this.globalProperties.getInt(PROPERTY_PAYMENTS_MIN),
+                this.globalProperties.getInt(PROPERTY_PAYMENTS_MAX));
+            // login, context selection and four product summary lookups per user
+            plan.add(PHASE_CAPABILITIES, "payments", "user context", users, users * 6.0);
+            plan.add(PHASE_CAPABILITIES, "payments", "payment order", users * paymentsPerUser,
+                users * paymentsPerUser);
+        }
+        if (this.globalProperties.getBoolean(PROPERTY_INGEST_CONTACTS)) {
+            double contactsPerLegalEntity = average(this.globalProperties.getInt(PROPERTY_CONTACTS_MIN),
+                this.globalProperties.getInt(PROPERTY_CONTACTS_MAX));
+            plan.add(PHASE_CAPABILITIES, "user", "user context", customers.size(),
+                customers.size() * (double) USER_CONTEXT_REQUESTS);
+            plan.add(PHASE_CAPABILITIES, "contactmanager", "contact", customers.size() * contactsPerLegalEntity,
+                customers.size());
+        }
+    }
+
+    /**
+     * Estimate the duration of each phase from the request rate of the same phase in the reports of a previous run,
+     * or from its overall request rate when the phase is missing. Nothing is estimated without a previous timeline.
+     */
+    public void estimate(IngestionPlan plan, Path reportDir) {
+        Path timelineReport = reportDir.resolve(Timeline.JSON_REPORT);
+        if (!Files.exists(timelineReport)) {
+            return;
+        }
+        try {
+            JsonNode phases = MAPPER.readTree(timelineReport.toFile());
+            double overallRate = requestsPerSecond(phases, PHASE_INGESTION);
+            Map<String, Double> estimatedSeconds = new LinkedHashMap<>();
+            plan.getRequestsPerPhase().forEach((phase, requests) -> {
+                double rate = requestsPerSecond(phases, phase);
+                rate = rate > 0 ? rate : overallRate;
+                if (rate > 0) {
+                    estimatedSeconds.put(phase, requests / rate);
+                }
+            });
+            plan.setEstimatedSecondsPerPhase(estimatedSeconds);
+
+            Path metricsReport = reportDir.resolve(RequestMetrics.JSON_REPORT);
+            if (Files.exists(metricsReport)) {
+                estimateLatency(plan, MAPPER.readTree(metricsReport.toFile()), totalSeconds(phases, PHASE_INGESTION));
+            }
+        } catch (IOException e) {
+            log.warn("Failed reading reports of the previous run from {}", reportDir.toAbsolutePath(), e);
+        }
+    }
+
+    private static void estimateLatency(IngestionPlan plan, JsonNode endpoints, double ingestionSeconds) {
+        double latencySeconds = 0;
+        long requests = 0;
+        for (JsonNode endpoint : endpoints) {
+            latencySeconds += endpoint.path("totalSeconds").asDouble();
+            requests += endpoint.path("count").asLong();
+        }
+        if (requests > 0) {
+            plan.setPreviousMeanLatencyMillis(latencySeconds * 1000 / requests);
+        }
+        if (ingestionSeconds > 0) {
+            plan.setPreviousConcurrency(latencySeconds / ingestionSeconds);
+        }
+    }
+
+    private static double requestsPerSecond(JsonNode phases, String phaseName) {
+        double seconds = totalSeconds(phases, phaseName);
+        return seconds > 0 ? totalRequests(phases, phaseName) / seconds : 0;
+    }
+
+    /**
+     * Phases of all tenants are summed, their paths end with the name of the phase.
+     */
+    private static double totalSeconds(JsonNode phases, String phaseName) {
+        double seconds = 0;
+        for (JsonNode phase : phases) {
+            if (isPhase(phase, phaseName)) {
+                seconds += phase.path("durationMillis").asLong() / 1000.0;
+            }
+        }
+        return seconds;
+    }
+
+    private static long totalRequests(JsonNode phases, String phaseName) {
+        long requests = 0;
+        for (JsonNode phase : phases) {
+            if (isPhase(phase, phaseName)) {
+                requests += phase.path("requests").asLong();
+            }
+        }
+        return requests;
+    }
+
+    private static boolean isPhase(JsonNode phase, String phaseName) {
+        String path = phase.path("path").asText();
+        return Timeline.KIND_PHASE.equals(phase.path("kind").asText())
+            && (path.equals(phaseName) || path.endsWith(" / " + phaseName));
+    }
+
+    private static double average(AmountRange range) {
+        return range == null || range.getMin() == null ? 0 : average(range.getMin(), range.getMax());
+    }
+
+    private static double average(int min, int max) {
+        return (min + max) / 2.0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.backbase.ct.bbfuel.server;
+
+import com.backbase.ct.bbfuel.metrics.Timeline;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * Ingestion submitted to the {@link JobServer}, with the properties overriding those the server was started with.
+ */
+@Getter
+public class IngestionJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String id;
+    private final Map<String, String> properties;
+    private final String reportDir;
+    private final String submitted = Instant.now().toString();
+    private volatile Status status = Status.QUEUED;
+    private volatile String started;
+    private volatile String finished;
+    private volatile String error;
+    private volatile long requests;
+    private volatile List<Timeline.Phase> phases = Collections.emptyList();
+
+    IngestionJob(String id, Map<String, String> properties, String reportDir) {
+        this.id = id;
+        this.properties = Collections.unmodifiableMap(properties);
+        this.reportDir = reportDir;
+    }
+
+    public boolean isDone() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    void start() {
+        started = Instant.now().toString();
+        status = Status.RUNNING;
+    }
+
+    /**
+     * Keep the phases and number of requests of the job, as the next job resets them.
+     */
+    void finish(Throwable failure) {
+        phases = Timeline.getPhases();
+        finished = Instant.now().toString();
+        if (failure == null) {
+            status = Status.SUCCEEDED;
+        } else {
+            error = String.valueOf(failure.getMessage());
+            status = Status.FAILED;
+        }
+    }
+
+    void setRequests(long requests) {
+        this.requests = requests;
+    }
+}
@@ -0,0 +1,142 @@
+package com.backbase.ct.bbfuel.server;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_REPORT_DIR;
+
+import com.backbase.ct.bbfuel.BbFuelApplication;
+import com.backbase.ct.bbfuel.client.common.CircuitBreakerFilter;
+import com.backbase.ct.bbfuel.client.common.ConcurrencyLimitFilter;
+import com.backbase.ct.bbfuel.client.common.RestClient;
+import com.backbase.ct.bbfuel.client.common.RetryFilter;
+import com.backbase.ct.bbfuel.config.MultiTenancyConfig;
+import com.backbase.ct.bbfuel.metrics.RequestFingerprints;
+import com.backbase.ct.bbfuel.metrics.RequestMetrics;
+import com.backbase.ct.bbfuel.metrics.Timeline;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Runs ingestion jobs one after the other, each in an application context of its own and with the shared session,
+ * tenant and request statistics of the previous job reset, so no client session or cache of one job leaks into the
+ * next. Jobs do not run concurrently, as properties, request metrics and the timeline are
+ * shared by the whole JVM. Properties of a job are applied as system properties for the duration of the job, which
+ * take precedence over all other property sources.
+ */
+@Slf4j
+public class IngestionJobExecutor {
+
+    private final String[] args;
+    private final Consumer<String[]> ingestion;
+    private final Map<String, IngestionJob> jobs = new LinkedHashMap<>();
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("ingestion-job-%d").build());
+
+    public IngestionJobExecutor(String[] args) {
+        this(args, IngestionJobExecutor::runApplication);
+    }
+
+    /**
+     * @param ingestion runs an ingestion with given arguments, failing it by throwing a runtime exception
+     */
+    IngestionJobExecutor(String[] args, Consumer<String[]> ingestion) {
+        this.args = args.clone();
+        this.ingestion = ingestion;
+    }
+
+    /**
+     * Queue an ingestion job. Its reports are written to a directory of its own, unless its properties set one.
+     */
+    public synchronized IngestionJob submit(Map<String, String> properties) {
+        String id = UUID.randomUUID().toString();
+        Map<String, String> jobProperties = new HashMap<>(properties);
+        jobProperties.computeIfAbsent(PROPERTY_REPORT_DIR, key -> Paths.get(
+            GlobalProperties.getInstance().getString(PROPERTY_REPORT_DIR), "jobs", id).toString());
+        IngestionJob job = new IngestionJob(id, jobProperties, jobProperties.get(PROPERTY_REPORT_DIR));
+        jobs.put(id, job);
+        jobExecutor.execute(() -> run(job));
+        log.info("Queued ingestion job [{}] with properties {}", id, properties);
+        return job;
+    }
+
+    public synchronized IngestionJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    public synchronized List<IngestionJob> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * @return the number of requests and the last phase started of a running job
+     */
+    public Map<String, Object> getProgress(IngestionJob job) {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("id", job.getId());
+        progress.put("status", job.getStatus());
+        if (job.getStatus() == IngestionJob.Status.RUNNING) {
+            List<Timeline.Phase> phases = Timeline.getPhases();
+            progress.put("requests", RequestMetrics.getTotalRequests());
+            progress.put("phase", phases.isEmpty() ? null : phases.get(phases.size() - 1).getPath());
+        } else {
+            progress.put("requests", job.getRequests());
+        }
+        return progress;
+    }
+
+    private void run(IngestionJob job) {
+        log.info("Running ingestion job [{}]", job.getId());
+        Map<String, String> previousProperties = applySystemProperties(job.getProperties());
+        Timeline.reset();
+        RequestMetrics.reset();
+        RequestFingerprints.reset();
+        RetryFilter.resetRetryCounts();
+        CircuitBreakerFilter.resetCircuitBreakers();
+        ConcurrencyLimitFilter.resetLimiters();
+        RestClient.clearCookies();
+        MultiTenancyConfig.setTenantId(null);
+        job.start();
+        Throwable failure = null;
+        try {
+            ingestion.accept(args);
+            log.info("Ingestion job [{}] succeeded", job.getId());
+        } catch (RuntimeException e) {
+            log.error("Ingestion job [{}] failed", job.getId(), e);
+            failure = e.getCause() == null ? e : e.getCause();
+        } finally {
+            job.setRequests(RequestMetrics.getTotalRequests());
+            job.finish(failure);
+            applySystemProperties(previousProperties);
+        }
+    }
+
+    private static void runApplication(String[] args) {
+        new SpringApplicationBuilder(BbFuelApplication.class)
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .run(args)
+            .close();
+    }
+
+    /**
+     * @return the previous values of the given properties, null for the ones that were not set
+     */
+    private static Map<String, String> applySystemProperties(Map<String, String> properties) {
+        Map<String, String> previousProperties = new HashMap<>();
+        properties.forEach((key, value) -> previousProperties.put(key,
+            value == null ? System.clearProperty(key) : System.setProperty(key, value)));
+        return previousProperties;
+    }
+}
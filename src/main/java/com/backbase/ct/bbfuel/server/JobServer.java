@@ -0,0 +1,225 @@
+package com.backbase.ct.bbfuel.server;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_ALLOWED_PROPERTIES;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_BIND_ADDRESS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_PORT;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_TOKEN;
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HTTP API of the long-running server mode, to submit ingestion jobs and follow them:
+ * <pre>
+ * POST /jobs                       submit a job, with a JSON object of properties as body
+ * GET  /jobs                       list all jobs
+ * GET  /jobs/{id}                  status, phases and number of requests of a job
+ * GET  /jobs/{id}/progress         progress of a job as a JSON object per line every second, until it is done
+ * GET  /jobs/{id}/reports/{file}   report of a job, e.g. timeline.json
+ * </pre>
+ * The server listens on the loopback address unless a bind address is configured, and only serves requests with the
+ * configured token. Properties of a job become system properties, so a job may only set the allowed ones.
+ */
+@Slf4j
+public class JobServer {
+
+    private static final String JOBS_PATH = "/jobs";
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+    private final ObjectMapper mapper = new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final IngestionJobExecutor jobExecutor;
+    private HttpServer server;
+    private byte[] authorization;
+    private List<String> allowedProperties;
+
+    public JobServer(String[] args) {
+        this(new IngestionJobExecutor(args));
+    }
+
+    JobServer(IngestionJobExecutor jobExecutor) {
+        this.jobExecutor = jobExecutor;
+    }
+
+    /**
+     * Start accepting jobs on the configured port, or on any free port when it is 0.
+     */
+    public void start() throws IOException {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        String token = globalProperties.getString(PROPERTY_JOB_SERVER_TOKEN);
+        if (isNullOrEmpty(token)) {
+            token = UUID.randomUUID().toString();
+            log.info("No {} configured, submit jobs with generated token {}", PROPERTY_JOB_SERVER_TOKEN, token);
+        }
+        authorization = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        allowedProperties = globalProperties.getList(PROPERTY_JOB_SERVER_ALLOWED_PROPERTIES).stream()
+            .map(String::trim)
+            .filter(property -> !property.isEmpty())
+            .collect(Collectors.toList());
+
+        String bindAddress = globalProperties.getString(PROPERTY_JOB_SERVER_BIND_ADDRESS);
+        InetAddress address = isNullOrEmpty(bindAddress)
+            ? InetAddress.getLoopbackAddress()
+            : InetAddress.getByName(bindAddress);
+        int port = globalProperties.getInt(PROPERTY_JOB_SERVER_PORT);
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.createContext(JOBS_PATH, this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        log.info("Accepting ingestion jobs on {}:{}", address.getHostAddress(), getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting jobs, without waiting for the exchanges in progress.
+     */
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!isAuthorized(exchange)) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                sendError(exchange, 401, "Expected header Authorization: Bearer <" + PROPERTY_JOB_SERVER_TOKEN + ">");
+                return;
+            }
+            String[] segments = exchange.getRequestURI().getPath().substring(JOBS_PATH.length()).split("/");
+            String method = exchange.getRequestMethod();
+            if (segments.length <= 1 && "POST".equals(method)) {
+                submit(exchange);
+            } else if (segments.length <= 1 && "GET".equals(method)) {
+                sendJson(exchange, 200, jobExecutor.getJobs());
+            } else if ("GET".equals(method)) {
+                IngestionJob job = jobExecutor.getJob(segments[1]);
+                if (job == null) {
+                    sendError(exchange, 404, "No job " + segments[1]);
+                } else if (segments.length == 2) {
+                    sendJson(exchange, 200, job);
+                } else if (segments.length == 3 && "progress".equals(segments[2])) {
+                    streamProgress(exchange, job);
+                } else if (segments.length == 4 && "reports".equals(segments[2])) {
+                    sendReport(exchange, job, segments[3]);
+                } else {
+                    sendError(exchange, 404, "Unknown resource");
+                }
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed handling {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            if (exchange.getResponseCode() == -1) {
+                sendError(exchange, 500, e.getMessage());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        Map<String, String> properties;
+        try (InputStream body = exchange.getRequestBody()) {
+            properties = mapper.readValue(body, new TypeReference<Map<String, String>>() {
+            });
+        } catch (IOException e) {
+            sendError(exchange, 400, "Expected a JSON object of properties: " + e.getMessage());
+            return;
+        }
+        List<String> notAllowed = properties.keySet().stream()
+            .filter(property -> !isAllowed(property))
+            .sorted()
+            .collect(Collectors.toList());
+        if (!notAllowed.isEmpty()) {
+            sendError(exchange, 400, "Properties not allowed for jobs: " + notAllowed + ", allowed are "
+                + PROPERTY_JOB_SERVER_ALLOWED_PROPERTIES + " " + allowedProperties);
+            return;
+        }
+        IngestionJob job = jobExecutor.submit(properties);
+        exchange.getResponseHeaders().set("Location", JOBS_PATH + "/" + job.getId());
+        sendJson(exchange, 202, job);
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && MessageDigest.isEqual(authorization, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean isAllowed(String property) {
+        return allowedProperties.stream().anyMatch(allowed -> allowed.endsWith("*")
+            ? property.startsWith(allowed.substring(0, allowed.length() - 1))
+            : property.equals(allowed));
+    }
+
+    private void streamProgress(HttpExchange exchange, IngestionJob job) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream output = exchange.getResponseBody()) {
+            boolean done;
+            do {
+                done = job.isDone();
+                mapper.writeValue(output, jobExecutor.getProgress(job));
+                output.write('\n');
+                output.flush();
+                if (!done) {
+                    Thread.sleep(PROGRESS_INTERVAL_MILLIS);
+                }
+            } while (!done);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendReport(HttpExchange exchange, IngestionJob job, String fileName) throws IOException {
+        Path reportDir = Paths.get(job.getReportDir());
+        Path report = reportDir.resolve(fileName).normalize();
+        if (!report.getParent().equals(reportDir.normalize()) || !Files.isRegularFile(report)) {
+            sendError(exchange, 404, "No report " + fileName);
+            return;
+        }
+        exchange.sendResponseHeaders(200, Files.size(report));
+        try (OutputStream output = exchange.getResponseBody()) {
+            Files.copy(report, output);
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.backbase.ct.bbfuel.service;
+
+import com.backbase.ct.bbfuel.client.accessgroup.AccessGroupPresentationRestClient;
+import com.backbase.ct.bbfuel.client.accessgroup.ServiceAgreementsPresentationRestClient;
+import com.backbase.ct.bbfuel.client.accessgroup.UserContextPresentationRestClient;
+import com.backbase.ct.bbfuel.client.common.LoginRestClient;
+import com.backbase.ct.bbfuel.client.legalentity.LegalEntityPresentationRestClient;
+import com.backbase.ct.bbfuel.client.user.UserPresentationRestClient;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
+import com.backbase.dbs.user.manager.models.v2.LegalEntity;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads which of the legal entities, users, master service agreements, function groups and data groups of the input
+ * exist in the environment already, so a delta ingestion only ingests what is missing. Existing units are recorded in
+ * the {@link IngestionJournal}, which makes the ingestion skip them as if a previous run completed them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExistingStateService {
+
+    private final LoginRestClient loginRestClient;
+    private final UserContextPresentationRestClient userContextPresentationRestClient;
+    private final LegalEntityPresentationRestClient legalEntityPresentationRestClient;
+    private final UserPresentationRestClient userPresentationRestClient;
+    private final ServiceAgreementsPresentationRestClient serviceAgreementsPresentationRestClient;
+    private final AccessGroupPresentationRestClient accessGroupPresentationRestClient;
+    private final IngestionJournal ingestionJournal;
+
+    /**
+     * Read the existing state of given legal entities concurrently. Legal entities without an external id in the
+     * input are always ingested, as their external id is generated.
+     */
+    public void loadExistingState(List<LegalEntityWithUsers> legalEntitiesWithUsers) {
+        this.loginRestClient.loginBankAdmin();
+        this.userContextPresentationRestClient.selectContextBasedOnMasterServiceAgreement();
+
+        long existingLegalEntities = legalEntitiesWithUsers.parallelStream()
+            .filter(legalEntityWithUsers -> legalEntityWithUsers.getLegalEntityExternalId() != null)
+            .filter(this::loadExistingLegalEntity)
+            .count();
+
+        log.info("Found [{}] of [{}] legal entities, [{}] users, [{}] function groups and [{}] data groups existing",
+            existingLegalEntities, legalEntitiesWithUsers.size(),
+            this.ingestionJournal.getCompleted(Unit.USER).size(),
+            this.ingestionJournal.getCompleted(Unit.FUNCTION_GROUP).size(),
+            this.ingestionJournal.getCompleted(Unit.DATA_GROUP).size());
+    }
+
+    /**
+     * Users and groups are only read for an existing legal entity, as a missing one cannot have any.
+     */
+    private boolean loadExistingLegalEntity(LegalEntityWithUsers legalEntityWithUsers) {
+        String externalLegalEntityId = legalEntityWithUsers.getLegalEntityExternalId();
+        LegalEntity legalEntity = this.legalEntityPresentationRestClient
+            .findLegalEntityByExternalId(externalLegalEntityId);
+        if (legalEntity == null) {
+            return false;
+        }
+        this.ingestionJournal.markExisting(Unit.LEGAL_ENTITY, externalLegalEntityId, externalLegalEntityId);
+
+        legalEntityWithUsers.getUsers().parallelStream()
+            .filter(user -> this.userPresentationRestClient.findUserByExternalId(user.getExternalId()) != null)
+            .forEach(user -> this.ingestionJournal.markExisting(Unit.USER, user.getExternalId(),
+                externalLegalEntityId));
+        loadExistingServiceAgreement(legalEntity);
+        return true;
+    }
+
+    private void loadExistingServiceAgreement(LegalEntity legalEntity) {
+        String internalServiceAgreementId = this.legalEntityPresentationRestClient
+            .getMasterServiceAgreementOfLegalEntity(legalEntity.getId())
+            .getId();
+        String externalServiceAgreementId = this.serviceAgreementsPresentationRestClient
+            .retrieveServiceAgreement(internalServiceAgreementId)
+            .getExternalId();
+        if (externalServiceAgreementId == null) {
+            return;
+        }
+        this.ingestionJournal.markExisting(Unit.MASTER_SERVICE_AGREEMENT, legalEntity.getExternalId(),
+            internalServiceAgreementId);
+
+        this.accessGroupPresentationRestClient.retrieveFunctionGroupsByServiceAgreement(internalServiceAgreementId)
+            .forEach(functionGroup -> this.ingestionJournal.markExisting(Unit.FUNCTION_GROUP,
+                JobProfileService.createCacheKey(externalServiceAgreementId, functionGroup.getName()),
+                functionGroup.getId()));
+        this.accessGroupPresentationRestClient.retrieveDataGroupsByServiceAgreement(internalServiceAgreementId)
+            .forEach(dataGroup -> {
+                String key = ProductGroupService.createCacheKey(externalServiceAgreementId, dataGroup.getName());
+                this.ingestionJournal.markExisting(Unit.DATA_GROUP, key, dataGroup.getId());
+                this.ingestionJournal.markExisting(Unit.ARRANGEMENT_SET, key, dataGroup.getId());
+                // external ids of existing arrangements are unknown without looking up each of them
+                if (dataGroup.getItems() != null) {
+                    dataGroup.getItems().forEach(internalArrangementId -> this.ingestionJournal.markExisting(
+                        Unit.ARRANGEMENT, ProductGroupService.createArrangementKey(key, internalArrangementId), null));
+                }
+            });
+    }
+}
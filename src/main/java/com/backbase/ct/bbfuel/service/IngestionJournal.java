@@ -0,0 +1,203 @@
+package com.backbase.ct.bbfuel.service;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOURNAL_ENABLED;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOURNAL_FILE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.backbase.ct.bbfuel.IngestException;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Append-only journal of completed units of ingestion with their resulting ids, one JSON object per line. A run that
+ * finds the journal of an interrupted run skips the units completed by it, instead of ingesting them again only to be
+ * told they already exist. Units found in the environment by a delta ingestion are skipped likewise.
+ */
+@Slf4j
+@Service
+public class IngestionJournal {
+
+    public enum Unit {
+        LEGAL_ENTITY,
+        USER,
+        MASTER_SERVICE_AGREEMENT,
+        FUNCTION_GROUP,
+        DATA_GROUP,
+        /**
+         * Arrangements of a product group with their data group, transactions, balance history and subscriptions.
+         */
+        ARRANGEMENT_SET,
+        /**
+         * Arrangement of an arrangement set with its external id, by the key of the set and its internal id.
+         */
+        ARRANGEMENT,
+        PERMISSION,
+        CAPABILITY
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<Unit, Map<String, String>> completedUnits = new EnumMap<>(Unit.class);
+
+    private Writer writer;
+
+    public IngestionJournal() {
+        for (Unit unit : Unit.values()) {
+            completedUnits.put(unit, new ConcurrentHashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        if (globalProperties.getBoolean(PROPERTY_JOURNAL_ENABLED)) {
+            open(Paths.get(globalProperties.getString(PROPERTY_JOURNAL_FILE)));
+        }
+    }
+
+    /**
+     * Load the units completed by previous runs from given file and append the units completed from now on.
+     */
+    void open(Path file) throws IOException {
+        if (Files.exists(file)) {
+            load(file);
+            truncateIncompleteEntry(file);
+        } else if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND);
+    }
+
+    private void load(Path file) throws IOException {
+        int entries = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    JsonNode entry = MAPPER.readTree(line);
+                    completedUnits.get(Unit.valueOf(entry.get("unit").asText()))
+                        .put(entry.get("key").asText(), entry.path("id").asText());
+                    entries++;
+                } catch (IOException | RuntimeException e) {
+                    // the last line is cut off when the interrupted run was killed while appending it
+                    log.warn("Ignoring unreadable journal entry [{}]: {}", line, e.getMessage());
+                }
+            }
+        }
+        log.info("Resuming from journal {} with {} completed units", file.toAbsolutePath(), entries);
+    }
+
+    /**
+     * Cut off the last entry when the interrupted run was killed while appending it, so the first entry appended by
+     * this run starts on a line of its own instead of being appended to the incomplete one.
+     */
+    private static void truncateIncompleteEntry(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ, WRITE)) {
+            long size = channel.size();
+            long end = size;
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            while (end > 0) {
+                lastByte.clear();
+                channel.read(lastByte, end - 1);
+                if (lastByte.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < size) {
+                log.warn("Truncating incomplete last entry of journal {}", file.toAbsolutePath());
+                channel.truncate(end);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    public boolean isCompleted(Unit unit, String key) {
+        return key != null && completedUnits.get(unit).containsKey(key);
+    }
+
+    /**
+     * @return id of the completed unit, empty when it has none, or null when the unit has not been completed
+     */
+    public String getId(Unit unit, String key) {
+        return key == null ? null : completedUnits.get(unit).get(key);
+    }
+
+    /**
+     * @return ids of the completed units of given type by their key
+     */
+    public Map<String, String> getCompleted(Unit unit) {
+        return Collections.unmodifiableMap(completedUnits.get(unit));
+    }
+
+    /**
+     * Record given unit as existing in the environment already, without journaling it.
+     */
+    public void markExisting(Unit unit, String key, String id) {
+        completedUnits.get(unit).put(key, id == null ? "" : id);
+    }
+
+    public void complete(Unit unit, String key) {
+        complete(unit, key, null);
+    }
+
+    /**
+     * Record given unit as completed. Each entry is flushed right away, as the run may be killed at any moment.
+     */
+    public synchronized void complete(Unit unit, String key, String id) {
+        if (writer == null) {
+            return;
+        }
+        String value = id == null ? "" : id;
+        if (value.equals(completedUnits.get(unit).put(key, value))) {
+            return;
+        }
+        ObjectNode entry = MAPPER.createObjectNode()
+            .put("unit", unit.name())
+            .put("key", key)
+            .put("id", value);
+        try {
+            writer.write(MAPPER.writeValueAsString(entry));
+            writer.write(System.lineSeparator());
+            writer.flush();
+        } catch (IOException e) {
+            throw new IngestException("Failed journaling completed " + unit + " " + key, e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,9 +28,12 @@ public class JobProfileService {
 
     private Map<String, String> functionGroupCache = synchronizedMap(new HashMap<>());
 
-    private static String createCacheKey(JobProfile jobProfile) {
-        return String.format("%s-%s", jobProfile.getExternalServiceAgreementId(),
-            deleteWhitespace(jobProfile.getJobProfileName()).trim());
+    public static String createCacheKey(JobProfile jobProfile) {
+        return createCacheKey(jobProfile.getExternalServiceAgreementId(), jobProfile.getJobProfileName());
+    }
+
+    public static String createCacheKey(String externalServiceAgreementId, String functionGroupName) {
+        return String.format("%s-%s", externalServiceAgreementId, deleteWhitespace(functionGroupName).trim());
     }
 
     public boolean isJobProfileForBranch(boolean isRetail, JobProfile template) {
@@ -68,6 +72,15 @@ public class JobProfileService {
         return assignedJobProfiles.get(externalServiceAgreementId);
     }
 
+    /**
+     * @return the job profiles assigned to all service agreements
+     */
+    public List<JobProfile> getAssignedJobProfiles() {
+        return assignedJobProfiles.values().stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+    }
+
     public void saveAssignedProfile(JobProfile jobProfile) {
         this.assignedJobProfiles
             .computeIfAbsent(
@@ -96,4 +109,13 @@ public class JobProfileService {
     public void storeInCache(JobProfile jobProfile) {
         functionGroupCache.put(createCacheKey(jobProfile), jobProfile.getId());
     }
+
+    /**
+     * Restore ids of function groups ingested by a previous run.
+     *
+     * @param functionGroupIds ids by the cache key of their job profile
+     */
+    public void restoreCache(Map<String, String> functionGroupIds) {
+        functionGroupCache.putAll(functionGroupIds);
+    }
 }
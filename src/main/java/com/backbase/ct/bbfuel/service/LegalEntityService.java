@@ -1,12 +1,22 @@
 package com.backbase.ct.bbfuel.service;
 
 import static com.backbase.ct.bbfuel.data.CommonConstants.EXTERNAL_ROOT_LEGAL_ENTITY_ID;
+import static java.util.stream.Collectors.partitioningBy;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.apache.http.HttpStatus.SC_CREATED;
 
 import com.backbase.ct.bbfuel.client.legalentity.LegalEntityIntegrationRestClient;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.input.InvalidInputException;
 import com.backbase.ct.bbfuel.util.ResponseUtils;
 import com.backbase.dbs.accesscontrol.legalentity.client.v2.model.LegalEntityCreateItem;
 import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -47,4 +57,35 @@ public class LegalEntityService {
         }
     }
 
+    /**
+     * Group legal entities by their level in the hierarchy defined by parentLegalEntityExternalId. Legal entities
+     * without a parent in the given list (e.g. directly under the root legal entity) are on the first level.
+     *
+     * @param legalEntities legal entities with users as read from the input file
+     * @return levels of legal entities, each level only depending on legal entities of the previous levels
+     */
+    public List<List<LegalEntityWithUsers>> groupByHierarchyLevel(List<LegalEntityWithUsers> legalEntities) {
+        Set<String> pendingExternalIds = legalEntities.stream()
+            .map(LegalEntityWithUsers::getLegalEntityExternalId)
+            .filter(Objects::nonNull)
+            .collect(toSet());
+        List<List<LegalEntityWithUsers>> levels = new ArrayList<>();
+        List<LegalEntityWithUsers> remaining = legalEntities;
+
+        while (!remaining.isEmpty()) {
+            Map<Boolean, List<LegalEntityWithUsers>> partitioned = remaining.stream()
+                .collect(partitioningBy(legalEntity -> legalEntity.getParentLegalEntityExternalId() == null
+                    || !pendingExternalIds.contains(legalEntity.getParentLegalEntityExternalId())));
+            List<LegalEntityWithUsers> level = partitioned.get(true);
+
+            if (level.isEmpty()) {
+                throw new InvalidInputException(String.format("Legal entities %s have a cyclic parent hierarchy",
+                    remaining.stream().map(LegalEntityWithUsers::getLegalEntityExternalId).collect(toList())));
+            }
+            level.forEach(legalEntity -> pendingExternalIds.remove(legalEntity.getLegalEntityExternalId()));
+            levels.add(level);
+            remaining = partitioned.get(false);
+        }
+        return levels;
+    }
 }
@@ -28,15 +28,34 @@ public class ProductGroupService {
 
     private Map<String, List<ProductGroupSeed>> assignedProductGroups = new HashMap<>();
 
-    private static String createCacheKey(ProductGroupSeed productGroupSeed) {
-        return String.format("%s-%s", productGroupSeed.getExternalServiceAgreementId(),
-            deleteWhitespace(productGroupSeed.getProductGroupName()).trim());
+    public static String createCacheKey(ProductGroupSeed productGroupSeed) {
+        return createCacheKey(productGroupSeed.getExternalServiceAgreementId(), productGroupSeed.getProductGroupName());
+    }
+
+    public static String createCacheKey(String externalServiceAgreementId, String dataGroupName) {
+        return String.format("%s-%s", externalServiceAgreementId, deleteWhitespace(dataGroupName).trim());
+    }
+
+    /**
+     * @return key of an arrangement within the arrangement set of a product group, by the cache key of that group
+     */
+    public static String createArrangementKey(String productGroupCacheKey, String internalArrangementId) {
+        return String.format("%s/%s", productGroupCacheKey, internalArrangementId);
     }
 
     public List<ProductGroupSeed> findAssignedProductGroups(String externalServiceAgreementId) {
         return assignedProductGroups.get(externalServiceAgreementId);
     }
 
+    /**
+     * @return the product groups assigned to all service agreements
+     */
+    public List<ProductGroupSeed> getAssignedProductGroups() {
+        return assignedProductGroups.values().stream()
+            .flatMap(List::stream)
+            .collect(toList());
+    }
+
     /**
      * Find unique ids of ingested product groups for given externalServiceAgreementId.
      *
@@ -85,4 +104,13 @@ public class ProductGroupService {
     private void storeInCache(ProductGroupSeed productGroupSeed) {
         productGroupCache.put(createCacheKey(productGroupSeed), productGroupSeed.getId());
     }
+
+    /**
+     * Restore ids of data groups ingested by a previous run.
+     *
+     * @param dataGroupIds ids by the cache key of their product group
+     */
+    public void restoreCache(Map<String, String> dataGroupIds) {
+        productGroupCache.putAll(dataGroupIds);
+    }
 }
@@ -0,0 +1,169 @@
+package com.backbase.ct.bbfuel.service;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_DIR;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_WAIT_SECONDS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.stream.Collectors.toList;
+
+import com.backbase.ct.bbfuel.IngestException;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Divides the ingestion of one environment over several processes. Each process ingests the legal entity hierarchies
+ * of the input that hash to its shard, and the first shard also performs the global steps, such as the root legal
+ * entity, products and approval types. Other shards wait for a global step through a marker file the first shard
+ * publishes in the directory of the run within the shared shard directory, which also hands over the ids they need.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShardService {
+
+    public static final String STEP_ACCESS_CONTROL = "access-control";
+    public static final String STEP_APPROVALS = "approvals";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long POLL_MILLIS = 1000;
+
+    private final IngestionConfig ingestionConfig;
+
+    /**
+     * @return whether this process performs the global steps, which is always the case when not sharded
+     */
+    public boolean isGlobalShard() {
+        return this.ingestionConfig.isGlobalShard();
+    }
+
+    /**
+     * Select the legal entities of this shard. A legal entity belongs to the shard of the top of its hierarchy in the
+     * input, so parents are always ingested by the same shard as their children.
+     */
+    public List<LegalEntityWithUsers> selectShard(List<LegalEntityWithUsers> legalEntitiesWithUsers) {
+        if (!this.ingestionConfig.isSharded()) {
+            return legalEntitiesWithUsers;
+        }
+        Map<String, LegalEntityWithUsers> legalEntitiesByExternalId = legalEntitiesWithUsers.stream()
+            .filter(legalEntityWithUsers -> legalEntityWithUsers.getLegalEntityExternalId() != null)
+            .collect(Collectors.toMap(LegalEntityWithUsers::getLegalEntityExternalId, Function.identity(),
+                (first, duplicate) -> first));
+        List<LegalEntityWithUsers> shard = legalEntitiesWithUsers.stream()
+            .filter(legalEntityWithUsers -> shardOf(createShardKey(legalEntityWithUsers, legalEntitiesByExternalId),
+                this.ingestionConfig.getShardCount()) == this.ingestionConfig.getShardIndex())
+            .collect(toList());
+        log.info("Shard [{}] of [{}] ingests [{}] of [{}] legal entities", this.ingestionConfig.getShardIndex(),
+            this.ingestionConfig.getShardCount(), shard.size(), legalEntitiesWithUsers.size());
+        return shard;
+    }
+
+    /**
+     * Consistent hashing moves as few legal entities as possible to another shard when the number of shards changes,
+     * which keeps most of the journal of each shard valid.
+     */
+    static int shardOf(String shardKey, int shardCount) {
+        return Hashing.consistentHash(Hashing.murmur3_32_fixed().hashString(shardKey, UTF_8), shardCount);
+    }
+
+    /**
+     * The external id of the top of the hierarchy in the input, or the first user of a legal entity without one, as
+     * the external id of such a legal entity is generated.
+     */
+    private static String createShardKey(LegalEntityWithUsers legalEntityWithUsers,
+        Map<String, LegalEntityWithUsers> legalEntitiesByExternalId) {
+        LegalEntityWithUsers top = legalEntityWithUsers;
+        Set<String> visited = new HashSet<>();
+        while (top.getParentLegalEntityExternalId() != null
+            && legalEntitiesByExternalId.containsKey(top.getParentLegalEntityExternalId())
+            && visited.add(top.getParentLegalEntityExternalId())) {
+            top = legalEntitiesByExternalId.get(top.getParentLegalEntityExternalId());
+        }
+        if (top.getLegalEntityExternalId() != null || top.getUsers().isEmpty()) {
+            return String.valueOf(top.getLegalEntityExternalId());
+        }
+        return top.getUsers().get(0).getExternalId();
+    }
+
+    /**
+     * Publish that the first shard completed a global step of given file of legal entities with users, with the ids
+     * the other shards need. Nothing is published when not sharded.
+     */
+    public void publish(String legalEntityWithUsersResource, String step, Map<String, String> ids) {
+        if (!this.ingestionConfig.isSharded()) {
+            return;
+        }
+        Path marker = getMarker(legalEntityWithUsersResource, step);
+        try {
+            Files.createDirectories(marker.getParent());
+            Path tempFile = Files.createTempFile(marker.getParent(), step, ".tmp");
+            MAPPER.writeValue(tempFile.toFile(), ids);
+            Files.move(tempFile, marker, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IngestException("Failed publishing " + step + " to the other shards in " + marker, e);
+        }
+        log.info("Published completion of {} to the other shards", step);
+    }
+
+    /**
+     * Wait until the first shard published the completion of a global step, and return the ids it published. Returns
+     * nothing right away when not sharded.
+     */
+    public Map<String, String> await(String legalEntityWithUsersResource, String step) {
+        if (!this.ingestionConfig.isSharded()) {
+            return Collections.emptyMap();
+        }
+        Path marker = getMarker(legalEntityWithUsersResource, step);
+        Instant deadline = Instant.now().plusSeconds(
+            GlobalProperties.getInstance().getInt(PROPERTY_SHARD_WAIT_SECONDS));
+        log.info("Waiting for shard 0 to complete {}", step);
+        Instant start = Instant.now();
+        while (!Files.exists(marker)) {
+            if (Instant.now().isAfter(deadline)) {
+                throw new IngestException("Timed out waiting for shard 0 to complete " + step + ", no " + marker);
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IngestException("Interrupted while waiting for shard 0 to complete " + step, e);
+            }
+        }
+        log.info("Shard 0 completed {}, waited {} seconds", step, Duration.between(start, Instant.now()).getSeconds());
+        try {
+            return MAPPER.readValue(marker.toFile(), new TypeReference<Map<String, String>>() {
+            });
+        } catch (IOException e) {
+            throw new IngestException("Failed reading " + marker, e);
+        }
+    }
+
+    private Path getMarker(String legalEntityWithUsersResource, String step) {
+        return Paths.get(GlobalProperties.getInstance().getString(PROPERTY_SHARD_DIR))
+            .resolve(toFileName(this.ingestionConfig.getShardRunId()))
+            .resolve(toFileName(legalEntityWithUsersResource + "-" + step) + ".json");
+    }
+
+    private static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9.-]", "_");
+    }
+}
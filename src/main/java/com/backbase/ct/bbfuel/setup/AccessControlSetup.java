@@ -1,23 +1,21 @@
 package com.backbase.ct.bbfuel.setup;
 
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_ACCESS_CONTROL;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_BATCHES;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_CONTACTS;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_PAYMENTS;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_BALANCE_HISTORY;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_POCKETS;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_POSITIVE_PAY_CHECKS;
-import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_TRANSACTIONS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_CONCURRENCY;
 import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ROOT_ENTITLEMENTS_ADMIN;
 import static com.backbase.ct.bbfuel.enrich.LegalEntityWithUsersEnricher.createRootLegalEntityWithAdmin;
+import static com.backbase.ct.bbfuel.service.ShardService.STEP_ACCESS_CONTROL;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.synchronizedList;
 
+import com.backbase.ct.bbfuel.IngestException;
 import com.backbase.ct.bbfuel.client.accessgroup.AccessGroupPresentationRestClient;
 import com.backbase.ct.bbfuel.client.accessgroup.ServiceAgreementsIntegrationRestClient;
 import com.backbase.ct.bbfuel.client.accessgroup.UserContextPresentationRestClient;
 import com.backbase.ct.bbfuel.client.common.LoginRestClient;
 import com.backbase.ct.bbfuel.client.user.UserPresentationRestClient;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
 import com.backbase.ct.bbfuel.config.MultiTenancyConfig;
 import com.backbase.ct.bbfuel.configurator.AccessGroupsConfigurator;
 import com.backbase.ct.bbfuel.configurator.LegalEntitiesAndUsersConfigurator;
@@ -34,13 +32,22 @@ import com.backbase.ct.bbfuel.dto.UserContext;
 import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
 import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
 import com.backbase.ct.bbfuel.enrich.ProductGroupSeedEnricher;
+import com.backbase.ct.bbfuel.export.IdMapExport;
+import com.backbase.ct.bbfuel.healthcheck.TransactionsHealthCheck;
 import com.backbase.ct.bbfuel.input.JobProfileReader;
 import com.backbase.ct.bbfuel.input.LegalEntityWithUsersReader;
 import com.backbase.ct.bbfuel.input.ProductGroupSeedReader;
 import com.backbase.ct.bbfuel.input.validation.ProductGroupAssignmentValidator;
+import com.backbase.ct.bbfuel.metrics.Timeline;
+import com.backbase.ct.bbfuel.metrics.jfr.IngestionEvents;
+import com.backbase.ct.bbfuel.metrics.tracing.Tracing;
+import com.backbase.ct.bbfuel.service.ExistingStateService;
+import com.backbase.ct.bbfuel.service.IngestionJournal;
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
 import com.backbase.ct.bbfuel.service.JobProfileService;
 import com.backbase.ct.bbfuel.service.LegalEntityService;
 import com.backbase.ct.bbfuel.service.ProductGroupService;
+import com.backbase.ct.bbfuel.service.ShardService;
 import com.backbase.ct.bbfuel.service.UserContextService;
 import com.backbase.dbs.accesscontrol.client.v3.model.DataGroupItem;
 import com.backbase.dbs.user.manager.models.v2.LegalEntity;
@@ -49,14 +56,22 @@ import com.backbase.integration.accessgroup.rest.spec.v2.accessgroups.functiongr
 import com.backbase.integration.accessgroup.rest.spec.v2.accessgroups.users.permissions.IntegrationFunctionGroupDataGroup;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 @Slf4j
@@ -75,7 +90,9 @@ public class AccessControlSetup extends BaseSetup {
     private final AccessGroupsConfigurator accessGroupsConfigurator;
     private final ServiceAgreementsConfigurator serviceAgreementsConfigurator;
     private final PermissionsConfigurator permissionsConfigurator;
+    @Lazy
     private final TransactionsConfigurator transactionsConfigurator;
+    @Lazy
     private final PositivePayConfigurator positivePayConfigurator;
     private final LegalEntityWithUsersReader legalEntityWithUsersReader;
     private final JobProfileService jobProfileService;
@@ -88,11 +105,23 @@ public class AccessControlSetup extends BaseSetup {
     private final ProductGroupSeedReader productGroupSeedReader;
     private final LegalEntityService legalEntityService;
     private final ServiceAgreementsIntegrationRestClient serviceAgreementsIntegrationRestClient;
+    private final IngestionConfig ingestionConfig;
+    private final IngestionJournal ingestionJournal;
+    @Lazy
+    private final ExistingStateService existingStateService;
+    private final ShardService shardService;
+    private final TransactionsHealthCheck transactionsHealthCheck;
+    private final IdMapExport idMapExport;
+    @Getter
+    private String legalEntityWithUsersResource;
     @Getter
     private List<LegalEntityWithUsers> legalEntitiesWithUsers;
     @Setter
     private List<JobProfile> jobProfileTemplates;
     private List<ProductGroupSeed> productGroupSeedTemplates;
+    private final ExecutorService arrangementDataExecutor = Tracing.wrap(Executors.newFixedThreadPool(
+        globalProperties.getInt(PROPERTY_ARRANGEMENTS_CONCURRENCY),
+        new ThreadFactoryBuilder().setNameFormat("arrangement-data-%d").setDaemon(true).build()));
 
     private static final Predicate<JobProfile> JOB_PROFILE_IS_TEMPLATE =
         jobProfile -> jobProfile.getType().equals(Type.TEMPLATE.toString());
@@ -118,11 +147,20 @@ public class AccessControlSetup extends BaseSetup {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Stop the threads with the application context, as the job server creates a context per job.
+     */
+    @PreDestroy
+    public void shutdown() {
+        arrangementDataExecutor.shutdownNow();
+    }
+
     /**
      * Prepare the environment before ingesting the entities.
      */
     public void prepare(String legalEntityWithUsersResource) {
         log.info("Loading legal entities with users {}", legalEntityWithUsersResource);
+        this.legalEntityWithUsersResource = legalEntityWithUsersResource;
         this.legalEntitiesWithUsers = this.legalEntityWithUsersReader.load(legalEntityWithUsersResource);
         this.jobProfileTemplates = this.jobProfileReader.load();
         loadProductGroups();
@@ -139,22 +177,49 @@ public class AccessControlSetup extends BaseSetup {
         } else {
             legalEntityService.setRootAdmin(globalProperties.getString(PROPERTY_ROOT_ENTITLEMENTS_ADMIN));
         }
+        this.legalEntitiesWithUsers = this.shardService.selectShard(this.legalEntitiesWithUsers);
     }
 
     /**
-     * Legal entities, job profiles and product groups are loaded from files.
+     * Legal entities, job profiles and product groups are loaded from files. When sharded, the root legal entity and
+     * products are ingested by the first shard only, which the other shards wait for. A delta ingestion reads the
+     * existing state once the root legal entity and its entitlements admin exist, as it reads with the latter.
      */
     public void initiate() {
-        if (this.globalProperties.getBoolean(PROPERTY_INGEST_ACCESS_CONTROL)) {
-            this.setupBankWithEntitlementsAdminAndProducts();
+        if (this.ingestionConfig.isIngestAccessControl()) {
+            if (!this.shardService.isGlobalShard()) {
+                try (Timeline.Phase phase = Timeline.start("waiting for shard 0")) {
+                    this.shardService.await(this.legalEntityWithUsersResource, STEP_ACCESS_CONTROL);
+                }
+            }
+            this.restoreGroupCaches();
+            if (this.shardService.isGlobalShard()) {
+                this.setupBankWithEntitlementsAdminAndProducts();
+                this.shardService.publish(this.legalEntityWithUsersResource, STEP_ACCESS_CONTROL, emptyMap());
+            }
+            if (this.ingestionConfig.isIngestDelta()) {
+                try (Timeline.Phase phase = Timeline.start("existing state")) {
+                    this.existingStateService.loadExistingState(this.legalEntitiesWithUsers);
+                }
+                this.restoreGroupCaches();
+            }
             this.setupAccessControlForUsers();
-        } else if (this.globalProperties.getBoolean(PROPERTY_INGEST_APPROVALS_FOR_PAYMENTS)
-            || this.globalProperties.getBoolean(PROPERTY_INGEST_APPROVALS_FOR_CONTACTS)
-            || this.globalProperties.getBoolean(PROPERTY_INGEST_APPROVALS_FOR_BATCHES)) {
+        } else if (this.ingestionConfig.isIngestApprovalsForPayments()
+            || this.ingestionConfig.isIngestApprovalsForContacts()
+            || this.ingestionConfig.isIngestApprovalsForBatches()) {
+            this.restoreGroupCaches();
             this.prepareJobProfiles();
         }
     }
 
+    /**
+     * Reuse the function and data groups journaled by a previous run or found by a delta ingestion.
+     */
+    private void restoreGroupCaches() {
+        this.jobProfileService.restoreCache(this.ingestionJournal.getCompleted(Unit.FUNCTION_GROUP));
+        this.productGroupService.restoreCache(this.ingestionJournal.getCompleted(Unit.DATA_GROUP));
+    }
+
     private void loadProductGroups() {
         this.productGroupSeedTemplates = this.productGroupSeedReader.load();
         this.productGroupAssignmentValidator.verify(this.legalEntitiesWithUsers, this.productGroupSeedTemplates);
@@ -173,9 +238,17 @@ public class AccessControlSetup extends BaseSetup {
     }
 
     private void setupAccessControlForUsers() {
+        this.legalEntitiesAndUsersConfigurator.ingestLegalEntities(this.legalEntitiesWithUsers);
         this.legalEntitiesWithUsers.forEach(legalEntity -> {
-            this.legalEntitiesAndUsersConfigurator.ingestLegalEntityWithUsers(legalEntity);
-            assembleFunctionDataGroupsAndPermissions(legalEntity);
+            try (Timeline.Phase phase = Timeline.start(
+                "legal entity " + legalEntity.getLegalEntityExternalId(), Timeline.KIND_LEGAL_ENTITY);
+                IngestionEvents.Scope event = IngestionEvents.legalEntity(
+                    getClass(), legalEntity.getLegalEntityExternalId(), legalEntity.getUsers().size())) {
+                phase.setEntities(legalEntity.getUsers().size());
+                phase.setAttribute("bbfuel.legal_entity.external_id", legalEntity.getLegalEntityExternalId());
+                this.legalEntitiesAndUsersConfigurator.ingestUsers(legalEntity);
+                assembleFunctionDataGroupsAndPermissions(legalEntity);
+            }
         });
     }
 
@@ -197,6 +270,7 @@ public class AccessControlSetup extends BaseSetup {
             }
 
             UserContext userContext = userContextService.getUserContextBasedOnMSAByExternalUserId(user, legalEntity);
+            this.idMapExport.addUserContext(userContext);
             legalEntitiesUserContextMap.put(userContext.getExternalLegalEntityId(), userContext);
         });
 
@@ -235,6 +309,19 @@ public class AccessControlSetup extends BaseSetup {
                 || productGroupTemplate.getLegalEntityExternalId().equals(externalLegalEntityId))
             .forEach(productGroupTemplate -> {
                 ProductGroupSeed productGroupSeed = new ProductGroupSeed(productGroupTemplate);
+                productGroupSeed.setExternalServiceAgreementId(externalServiceAgreementId);
+                String arrangementSetKey = ProductGroupService.createCacheKey(productGroupSeed);
+
+                String journaledDataGroupId = this.ingestionJournal.getId(Unit.ARRANGEMENT_SET, arrangementSetKey);
+                if (journaledDataGroupId != null) {
+                    productGroupSeed.setId(journaledDataGroupId);
+                    if (productGroupService.retrieveIdFromCache(productGroupSeed) == null) {
+                        productGroupService.saveAssignedProductGroup(productGroupSeed);
+                    }
+                    this.idMapExport.addArrangements(retrieveJournaledArrangements(arrangementSetKey),
+                        productGroupSeed, externalLegalEntityId, isRetail);
+                    return;
+                }
 
                 // Combination of data group name and service agreement is unique in the system
                 DataGroupItem existingDataGroup = accessGroupPresentationRestClient
@@ -246,16 +333,27 @@ public class AccessControlSetup extends BaseSetup {
                     .orElse(null);
 
                 if (existingDataGroup == null) {
-                    List<ArrangementId> arrangementIds = this.productSummaryConfigurator.ingestArrangements(
-                        externalLegalEntityId, productGroupSeed);
-
-                    productGroupSeed.setExternalServiceAgreementId(externalServiceAgreementId);
-                    this.accessGroupsConfigurator.ingestDataGroupForArrangements(productGroupSeed, arrangementIds);
-
-                    ingestTransactions(arrangementIds, isRetail);
-                    ingestBalanceHistory(arrangementIds);
-                    ingestSubscriptions(arrangementIds);
-                    if (this.globalProperties.getBoolean(PROPERTY_INGEST_POCKETS)
+                    List<ArrangementId> arrangementIds;
+                    if (this.ingestionConfig.isArrangementsPipelined()) {
+                        arrangementIds = ingestArrangementsPipelined(externalServiceAgreementId,
+                            externalLegalEntityId, productGroupSeed,
+                            arrangementId -> ingestArrangementData(arrangementId, isRetail));
+                    } else {
+                        arrangementIds = this.productSummaryConfigurator.ingestArrangements(
+                            externalLegalEntityId, productGroupSeed);
+
+                        this.accessGroupsConfigurator.ingestDataGroupForArrangements(productGroupSeed, arrangementIds);
+
+                        ingestTransactions(arrangementIds, isRetail);
+                        ingestBalanceHistory(arrangementIds);
+                        ingestSubscriptions(arrangementIds);
+                    }
+                    this.idMapExport.addArrangements(arrangementIds, productGroupSeed, externalLegalEntityId, isRetail);
+                    arrangementIds.forEach(arrangementId -> this.ingestionJournal.complete(Unit.ARRANGEMENT,
+                        ProductGroupService.createArrangementKey(arrangementSetKey,
+                            arrangementId.getInternalArrangementId()),
+                        arrangementId.getExternalArrangementId()));
+                    if (this.ingestionConfig.isIngestPockets()
                         && productGroupTemplate.getProductGroupName().equals(RETAIL_POCKET)
                         && !productGroupTemplate.getProductIds().isEmpty()
                         && productGroupTemplate.getProductIds().get(0).equals(PRODUCT_ID_CURRENT_ACCOUNT)) {
@@ -264,23 +362,87 @@ public class AccessControlSetup extends BaseSetup {
                             arrangementIds.get(0).getExternalArrangementId(),
                             PocketsConfigurator.EXTERNAL_ARRANGEMENT_ORIGINATION_1);
                     }
+                    this.ingestionJournal.complete(Unit.ARRANGEMENT_SET, arrangementSetKey, productGroupSeed.getId());
                 } else {
                     productGroupSeed.setId(existingDataGroup.getId());
-                    productGroupSeed.setExternalServiceAgreementId(externalServiceAgreementId);
                     productGroupService.saveAssignedProductGroup(productGroupSeed);
+                    if (existingDataGroup.getItems() != null) {
+                        this.idMapExport.addArrangements(existingDataGroup.getItems().stream()
+                                .map(internalArrangementId -> new ArrangementId(internalArrangementId, null))
+                                .collect(Collectors.toList()),
+                            productGroupSeed, externalLegalEntityId, isRetail);
+                    }
                 }
             });
     }
 
+    /**
+     * @return arrangements of given set completed by a previous run, without external id when a delta ingestion
+     * found them in the environment
+     */
+    private List<ArrangementId> retrieveJournaledArrangements(String arrangementSetKey) {
+        String keyPrefix = ProductGroupService.createArrangementKey(arrangementSetKey, "");
+        return this.ingestionJournal.getCompleted(Unit.ARRANGEMENT).entrySet().stream()
+            .filter(arrangement -> arrangement.getKey().startsWith(keyPrefix))
+            .map(arrangement -> new ArrangementId(arrangement.getKey().substring(keyPrefix.length()),
+                arrangement.getValue().isEmpty() ? null : arrangement.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Transactions, balance history and subscriptions of an arrangement are ingested by the given consumer as soon as
+     * the arrangement itself has been ingested, while the data group is ingested once all arrangements of the product
+     * group exist.
+     */
+    List<ArrangementId> ingestArrangementsPipelined(String externalServiceAgreementId,
+        String externalLegalEntityId, ProductGroupSeed productGroupSeed,
+        Consumer<ArrangementId> arrangementDataIngestion) {
+        List<CompletableFuture<Void>> arrangementData = synchronizedList(new ArrayList<>());
+        try {
+            List<ArrangementId> arrangementIds = this.productSummaryConfigurator.ingestArrangements(
+                externalLegalEntityId, productGroupSeed, arrangementId -> arrangementData.add(CompletableFuture
+                    .runAsync(() -> arrangementDataIngestion.accept(arrangementId), arrangementDataExecutor)));
+
+            productGroupSeed.setExternalServiceAgreementId(externalServiceAgreementId);
+            this.accessGroupsConfigurator.ingestDataGroupForArrangements(productGroupSeed, arrangementIds);
+
+            CompletableFuture.allOf(arrangementData.toArray(new CompletableFuture[0])).join();
+            return arrangementIds;
+        } catch (CompletionException e) {
+            throw new IngestException("Failed ingesting data for arrangements under legal entity "
+                + externalLegalEntityId, e.getCause());
+        } finally {
+            // Arrangement data still waiting for a thread is dropped when the arrangements or data group failed
+            synchronized (arrangementData) {
+                arrangementData.forEach(future -> future.cancel(false));
+            }
+        }
+    }
+
+    private void ingestArrangementData(ArrangementId arrangementId, boolean isRetail) {
+        if (this.ingestionConfig.isIngestTransactions()) {
+            this.transactionsHealthCheck.checkTransactionsServicesHealth();
+            this.transactionsConfigurator
+                .ingestTransactionsByArrangement(arrangementId.getExternalArrangementId(), isRetail);
+        }
+        if (this.ingestionConfig.isIngestBalanceHistory()) {
+            this.productSummaryConfigurator.ingestBalanceHistory(arrangementId.getExternalArrangementId());
+        }
+        if (this.ingestionConfig.isIngestPositivePayChecks()) {
+            this.positivePayConfigurator.ingestPositivePaySubscriptions(arrangementId);
+        }
+    }
+
     private void ingestTransactions(List<ArrangementId> arrangementIds, boolean isRetail) {
-        if (this.globalProperties.getBoolean(PROPERTY_INGEST_TRANSACTIONS)) {
+        if (this.ingestionConfig.isIngestTransactions()) {
+            this.transactionsHealthCheck.checkTransactionsServicesHealth();
             arrangementIds.forEach(arrangementId -> this.transactionsConfigurator
                 .ingestTransactionsByArrangement(arrangementId.getExternalArrangementId(), isRetail));
         }
     }
 
     private void ingestBalanceHistory(List<ArrangementId> arrangementIds) {
-        if (this.globalProperties.getBoolean(PROPERTY_INGEST_BALANCE_HISTORY)) {
+        if (this.ingestionConfig.isIngestBalanceHistory()) {
             arrangementIds.parallelStream()
                 .forEach(arrangementId -> this.productSummaryConfigurator
                     .ingestBalanceHistory(arrangementId.getExternalArrangementId()));
@@ -288,7 +450,7 @@ public class AccessControlSetup extends BaseSetup {
     }
 
     private void ingestSubscriptions(List<ArrangementId> arrangementIds) {
-        if (this.globalProperties.getBoolean(PROPERTY_INGEST_POSITIVE_PAY_CHECKS)) {
+        if (this.ingestionConfig.isIngestPositivePayChecks()) {
             arrangementIds.parallelStream()
                 .forEach(positivePayConfigurator::ingestPositivePaySubscriptions);
         }
@@ -337,6 +499,10 @@ public class AccessControlSetup extends BaseSetup {
 
     private void assignPermissions(User user,
         String externalServiceAgreementId, boolean isRetail) {
+        String permissionKey = user.getExternalId() + "-" + externalServiceAgreementId;
+        if (this.ingestionJournal.isCompleted(Unit.PERMISSION, permissionKey)) {
+            return;
+        }
         List<IntegrationFunctionGroupDataGroup> functionGroupDataGroups = new ArrayList<>();
 
         this.jobProfileService.getAssignedJobProfiles(externalServiceAgreementId)
@@ -360,5 +526,6 @@ public class AccessControlSetup extends BaseSetup {
 
         this.permissionsConfigurator.assignPermissions(
             user.getExternalId(), externalServiceAgreementId, functionGroupDataGroups);
+        this.ingestionJournal.complete(Unit.PERMISSION, permissionKey);
     }
 }
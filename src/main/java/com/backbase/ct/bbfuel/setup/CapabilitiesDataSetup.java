@@ -19,10 +19,14 @@ import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_PAYMEN
 import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_POCKETS;
 import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_POSITIVE_PAY_CHECKS;
 import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_POCKET_MAPPING_MODE;
+import static com.backbase.ct.bbfuel.service.ShardService.STEP_APPROVALS;
 import static com.backbase.ct.bbfuel.util.CommonHelpers.getRandomFromList;
 import static java.util.Collections.singletonList;
 
+import com.backbase.ct.bbfuel.IngestException;
 import com.backbase.ct.bbfuel.client.accessgroup.UserContextPresentationRestClient;
+import com.backbase.ct.bbfuel.client.common.CircuitBreakerFilter;
+import com.backbase.ct.bbfuel.client.common.CircuitBreakerOpenException;
 import com.backbase.ct.bbfuel.client.common.LoginRestClient;
 import com.backbase.ct.bbfuel.client.pfm.PocketTailorActuatorClient;
 import com.backbase.ct.bbfuel.client.user.UserPresentationRestClient;
@@ -42,18 +46,34 @@ import com.backbase.ct.bbfuel.configurator.TransactionsConfigurator;
 import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
 import com.backbase.ct.bbfuel.dto.User;
 import com.backbase.ct.bbfuel.dto.UserContext;
+import com.backbase.ct.bbfuel.healthcheck.BillPayHealthCheck;
+import com.backbase.ct.bbfuel.metrics.Timeline;
+import com.backbase.ct.bbfuel.service.IngestionJournal;
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
 import com.backbase.ct.bbfuel.service.LegalEntityService;
+import com.backbase.ct.bbfuel.service.ShardService;
 import com.backbase.ct.bbfuel.service.UserContextService;
 import com.backbase.dbs.user.manager.models.v2.LegalEntity;
 import com.backbase.dbs.pocket.tailor.client.v2.model.Pocket;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+/**
+ * Ingests the data of each capability that is enabled. The configurators of the capabilities are injected lazily, so
+ * the configurators and clients of disabled capabilities are never created.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -62,27 +82,46 @@ public class CapabilitiesDataSetup extends BaseSetup {
     public static final String POCKET_MODE_ONE_TO_ONE = "ONE_TO_ONE";
     public static final String POCKET_MODE_ONE_TO_MANY = "ONE_TO_MANY";
     public static final String PRODUCT_GROUP_NAME_RETAIL_POCKET = "Retail Pocket";
+    private static final int DEFERRED_ATTEMPTS = 2;
 
     private final UserContextService userContextService;
     private final UserContextPresentationRestClient userContextPresentationRestClient;
     private final LoginRestClient loginRestClient;
     private final AccessControlSetup accessControlSetup;
+    @Lazy
     private final ApprovalsConfigurator approvalsConfigurator;
+    @Lazy
     private final LimitsConfigurator limitsConfigurator;
+    @Lazy
     private final NotificationsConfigurator notificationsConfigurator;
+    @Lazy
     private final ContactsConfigurator contactsConfigurator;
+    @Lazy
     private final PaymentsConfigurator paymentsConfigurator;
+    @Lazy
     private final MessagesConfigurator messagesConfigurator;
+    @Lazy
     private final ActionsConfigurator actionsConfigurator;
+    @Lazy
     private final BillPayConfigurator billpayConfigurator;
+    @Lazy
     private final PocketsConfigurator pocketsConfigurator;
     private final LegalEntityService legalEntityService;
+    @Lazy
     private final AccountStatementsConfigurator accountStatementsConfigurator;
+    @Lazy
     private final PositivePayConfigurator positivePayConfigurator;
     private final UserPresentationRestClient userPresentationRestClient;
+    @Lazy
     private final PocketTailorActuatorClient pocketTailorActuatorClient;
+    @Lazy
     private final TransactionsConfigurator transactionsConfigurator;
+    @Lazy
     private final ContentServicesConfigurator contentServicesConfigurator;
+    private final IngestionJournal ingestionJournal;
+    private final ShardService shardService;
+    private final BillPayHealthCheck billPayHealthCheck;
+    private final Set<String> completedUnits = ConcurrentHashMap.newKeySet();
 
     /**
      * Ingest data with services of projects APPR, PO, LIM, NOT, CON, MC, ACT, BPAY and Pockets.
@@ -90,18 +129,123 @@ public class CapabilitiesDataSetup extends BaseSetup {
     @Override
     public void initiate() {
         log.debug("initiate CapabilitiesDataSetup");
-        this.ingestApprovals();
-        this.ingestPaymentsPerUser();
-        this.ingestLimits();
-        this.ingestBankNotifications();
-        this.ingestContactsPerUser();
-        this.ingestConversationsPerUser();
-        this.ingestActionsPerUser();
-        this.ingestBillPayUsers();
-        this.ingestPockets();
-        this.ingestAccountStatementForSelectedUser();
-        this.ingestPositivePayChecksForSelectedUser();
-        this.ingestContents();
+        Map<String, DeferredCapability> deferredCapabilities = new LinkedHashMap<>();
+        ingestCapability("approvals", this::ingestApprovals, deferredCapabilities);
+        ingestCapability("payments", this::ingestPaymentsPerUser, deferredCapabilities);
+        ingestCapability("limits", this::ingestLimits, deferredCapabilities);
+        ingestGlobalCapability("notifications", this::ingestBankNotifications, deferredCapabilities);
+        ingestCapability("contacts", this::ingestContactsPerUser, deferredCapabilities);
+        ingestCapability("messages", this::ingestConversationsPerUser, deferredCapabilities);
+        ingestCapability("actions", this::ingestActionsPerUser, deferredCapabilities);
+        ingestCapability("billpay", this::ingestBillPayUsers, deferredCapabilities);
+        ingestCapability("pockets", this::ingestPockets, deferredCapabilities);
+        ingestGlobalCapability("account statements", this::ingestAccountStatementForSelectedUser,
+            deferredCapabilities);
+        ingestCapability("positive pay", this::ingestPositivePayChecksForSelectedUser, deferredCapabilities);
+        ingestGlobalCapability("contents", this::ingestContents, deferredCapabilities);
+        ingestDeferredCapabilities(deferredCapabilities);
+    }
+
+    /**
+     * Ingest data of a capability, deferring it when the circuit breaker of one of its services is open, so the other
+     * capabilities are not held up by an unavailable service. A capability journaled by a previous run is skipped.
+     */
+    private void ingestCapability(String capability, Runnable ingestion,
+        Map<String, DeferredCapability> deferredCapabilities) {
+        if (this.ingestionJournal.isCompleted(Unit.CAPABILITY, createCapabilityKey(capability))) {
+            log.info("Ingestion of {} journaled, skipped it", capability);
+            return;
+        }
+        try (Timeline.Phase phase = Timeline.start(capability)) {
+            ingestion.run();
+            this.ingestionJournal.complete(Unit.CAPABILITY, createCapabilityKey(capability));
+        } catch (CircuitBreakerOpenException e) {
+            log.warn("Deferring ingestion of {}: {}", capability, e.getMessage());
+            deferredCapabilities.put(capability, new DeferredCapability(ingestion, e.getService()));
+        }
+    }
+
+    /**
+     * Ingest data of a capability that is not specific to the legal entities of the input, which only the first shard
+     * does when sharded.
+     */
+    private void ingestGlobalCapability(String capability, Runnable ingestion,
+        Map<String, DeferredCapability> deferredCapabilities) {
+        if (!this.shardService.isGlobalShard()) {
+            log.info("Ingestion of {} is left to shard 0", capability);
+            return;
+        }
+        ingestCapability(capability, ingestion, deferredCapabilities);
+    }
+
+    /**
+     * Resume deferred capabilities once their circuit breaker allows a trial request again. The units of a capability
+     * completed before its circuit breaker opened are not ingested again.
+     */
+    private void ingestDeferredCapabilities(Map<String, DeferredCapability> deferredCapabilities) {
+        deferredCapabilities.forEach((capability, deferredCapability) -> {
+            try (Timeline.Phase phase = Timeline.start(capability + " (deferred)")) {
+                ingestDeferredCapability(capability, deferredCapability);
+            }
+        });
+    }
+
+    private void ingestDeferredCapability(String capability, DeferredCapability deferredCapability) {
+        String service = deferredCapability.getService();
+        for (int attempt = 1; ; attempt++) {
+            awaitCircuitBreaker(service);
+            log.info("Resuming deferred ingestion of {}", capability);
+            try {
+                deferredCapability.getIngestion().run();
+                this.ingestionJournal.complete(Unit.CAPABILITY, createCapabilityKey(capability));
+                return;
+            } catch (CircuitBreakerOpenException e) {
+                if (attempt >= DEFERRED_ATTEMPTS) {
+                    log.error("Skipped the rest of the ingestion of {}: {}", capability, e.getMessage());
+                    return;
+                }
+                service = e.getService();
+            }
+        }
+    }
+
+    /**
+     * Capabilities are ingested once per file of legal entities with users, of which there is one per tenant.
+     */
+    private String createCapabilityKey(String capability) {
+        return this.accessControlSetup.getLegalEntityWithUsersResource() + "-" + capability;
+    }
+
+    /**
+     * Ingest data of a capability per user, see {@link #ingestUnit(String, String, Runnable)}.
+     */
+    private void ingestPerUser(String capability, List<String> externalUserIds, Consumer<String> ingestion) {
+        externalUserIds.forEach(externalUserId ->
+            ingestUnit(capability, externalUserId, () -> ingestion.accept(externalUserId)));
+    }
+
+    /**
+     * Ingest a unit of a capability, e.g. the data of a single user, unless this run or a journaled one completed it
+     * already. A capability that is resumed after being deferred, or after an interrupted run, thereby does not send
+     * the requests of its completed units again.
+     */
+    private void ingestUnit(String capability, String unit, Runnable ingestion) {
+        String key = createCapabilityKey(capability) + "-" + unit;
+        if (this.completedUnits.contains(key) || this.ingestionJournal.isCompleted(Unit.CAPABILITY, key)) {
+            return;
+        }
+        ingestion.run();
+        this.completedUnits.add(key);
+        this.ingestionJournal.complete(Unit.CAPABILITY, key);
+    }
+
+    private void awaitCircuitBreaker(String service) {
+        try {
+            CircuitBreakerFilter.awaitPermission(service);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestException("Interrupted while waiting for circuit breaker of " + service, e);
+        }
     }
 
     private void ingestApprovals() {
@@ -112,16 +256,37 @@ public class CapabilitiesDataSetup extends BaseSetup {
             this.loginRestClient.loginBankAdmin();
             this.userContextPresentationRestClient.selectContextBasedOnMasterServiceAgreement();
 
-            this.approvalsConfigurator.setupApprovalTypesAndPolicies();
+            // not journaled, as a resumed run needs the ids of the approval types and policies
+            String approvalTypesAndPoliciesKey = createCapabilityKey("approvals") + "-types-and-policies";
+            if (!this.completedUnits.contains(approvalTypesAndPoliciesKey)) {
+                setupApprovalTypesAndPolicies();
+                this.completedUnits.add(approvalTypesAndPoliciesKey);
+            }
 
-            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach(legalEntityWithUsers -> {
-                List<User> users = legalEntityWithUsers.getUsers();
-                UserContext userContext = getRandomUserContextBasedOnMsaByExternalUserId(users);
+            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach(legalEntityWithUsers ->
+                ingestUnit("approvals", legalEntityWithUsers.getLegalEntityExternalId(), () -> {
+                    List<User> users = legalEntityWithUsers.getUsers();
+                    UserContext userContext = getRandomUserContextBasedOnMsaByExternalUserId(users);
+
+                    this.approvalsConfigurator.setupAccessControlAndPerformApprovalAssignments(
+                        userContext.getExternalServiceAgreementId(),
+                        users.size());
+                }));
+        }
+    }
 
-                this.approvalsConfigurator.setupAccessControlAndPerformApprovalAssignments(
-                    userContext.getExternalServiceAgreementId(),
-                    users.size());
-            });
+    /**
+     * When sharded the first shard sets up the approval types and policies, and hands over their ids to the others.
+     */
+    private void setupApprovalTypesAndPolicies() {
+        String legalEntityWithUsersResource = this.accessControlSetup.getLegalEntityWithUsersResource();
+        if (this.shardService.isGlobalShard()) {
+            this.approvalsConfigurator.setupApprovalTypesAndPolicies();
+            this.shardService.publish(legalEntityWithUsersResource, STEP_APPROVALS,
+                this.approvalsConfigurator.getApprovalTypeAndPolicyIds());
+        } else {
+            this.approvalsConfigurator.restoreApprovalTypeAndPolicyIds(
+                this.shardService.await(legalEntityWithUsersResource, STEP_APPROVALS));
         }
     }
 
@@ -133,12 +298,13 @@ public class CapabilitiesDataSetup extends BaseSetup {
 
     private void ingestLimits() {
         if (this.globalProperties.getBoolean(PROPERTY_INGEST_LIMITS)) {
-            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach(legalEntityWithUsers -> {
-                List<User> users = legalEntityWithUsers.getUsers();
-                UserContext userContext = getRandomUserContextBasedOnMsaByExternalUserId(users);
+            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach(legalEntityWithUsers ->
+                ingestUnit("limits", legalEntityWithUsers.getLegalEntityExternalId(), () -> {
+                    List<User> users = legalEntityWithUsers.getUsers();
+                    UserContext userContext = getRandomUserContextBasedOnMsaByExternalUserId(users);
 
-                this.limitsConfigurator.ingestLimits(userContext.getInternalServiceAgreementId());
-            });
+                    this.limitsConfigurator.ingestLimits(userContext.getInternalServiceAgreementId());
+                }));
         }
     }
 
@@ -162,24 +328,26 @@ public class CapabilitiesDataSetup extends BaseSetup {
 
     private void ingestContactsPerUser() {
         if (this.globalProperties.getBoolean(PROPERTY_INGEST_CONTACTS)) {
-            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach(legalEntityWithUsers -> {
-                List<User> users = legalEntityWithUsers.getUsers();
-                UserContext userContext = getRandomUserContextBasedOnMsaByExternalUserId(users);
-
-                this.contactsConfigurator.ingestContacts(
-                    userContext.getExternalServiceAgreementId(),
-                    userContext.getExternalUserId());
-            });
+            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach(legalEntityWithUsers ->
+                ingestUnit("contacts", legalEntityWithUsers.getLegalEntityExternalId(), () -> {
+                    List<User> users = legalEntityWithUsers.getUsers();
+                    UserContext userContext = getRandomUserContextBasedOnMsaByExternalUserId(users);
+
+                    this.contactsConfigurator.ingestContacts(
+                        userContext.getExternalServiceAgreementId(),
+                        userContext.getExternalUserId());
+                }));
         }
     }
 
     private void ingestPaymentsPerUser() {
         if (this.globalProperties.getBoolean(PROPERTY_INGEST_PAYMENTS)) {
-            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().stream()
+            List<String> externalUserIds = this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().stream()
                 .map(LegalEntityWithUsers::getUserExternalIds)
                 .flatMap(List::stream)
-                .collect(Collectors.toList())
-                .forEach(this.paymentsConfigurator::ingestPaymentOrders);
+                .collect(Collectors.toList());
+
+            ingestPerUser("payments", externalUserIds, this.paymentsConfigurator::ingestPaymentOrders);
         }
     }
 
@@ -188,7 +356,8 @@ public class CapabilitiesDataSetup extends BaseSetup {
             this.loginRestClient.loginBankAdmin();
             this.userContextPresentationRestClient.selectContextBasedOnMasterServiceAgreement();
             this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach(legalEntityWithUsers ->
-                this.messagesConfigurator.ingestTopics()
+                ingestUnit("messages", legalEntityWithUsers.getLegalEntityExternalId(),
+                    this.messagesConfigurator::ingestTopics)
             );
         }
     }
@@ -208,16 +377,17 @@ public class CapabilitiesDataSetup extends BaseSetup {
                 .map(User::getExternalId)
                 .collect(Collectors.toList());
 
-            externalUserIds.forEach(this.actionsConfigurator::ingestActions);
+            ingestPerUser("actions", externalUserIds, this.actionsConfigurator::ingestActions);
         }
     }
 
     private void ingestBillPayUsers() {
         if (this.globalProperties.getBoolean(PROPERTY_INGEST_BILLPAY)) {
-            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach((le) -> {
-                billpayConfigurator.ingestBillPayUserAndAccounts(le,
-                    this.globalProperties.getBoolean(PROPERTY_INGEST_BILLPAY_ACCOUNTS));
-            });
+            this.billPayHealthCheck.checkBillPayServicesHealth();
+            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupport().forEach((le) ->
+                ingestUnit("billpay", le.getLegalEntityExternalId(), () ->
+                    billpayConfigurator.ingestBillPayUserAndAccounts(le,
+                        this.globalProperties.getBoolean(PROPERTY_INGEST_BILLPAY_ACCOUNTS))));
         }
     }
 
@@ -243,7 +413,7 @@ public class CapabilitiesDataSetup extends BaseSetup {
                     .get()))
                 .collect(Collectors.toList());
 
-            retailUsers.forEach(retailUser -> {
+            retailUsers.forEach(retailUser -> ingestUnit("pockets", retailUser.getExternalId(), () -> {
                 log.debug("Going to ingest pockets in mode {} for retail user {}",
                     globalProperties.getString(PROPERTY_POCKET_MAPPING_MODE), retailUser);
 
@@ -278,30 +448,35 @@ public class CapabilitiesDataSetup extends BaseSetup {
                     transactionsConfigurator.ingestTransactionsForPocket(
                         PocketsConfigurator.EXTERNAL_ARRANGEMENT_ORIGINATION_1, createdPockets);
                 }
-            });
+            }));
         }
     }
 
     private void ingestAccountStatementForSelectedUser() {
         if (this.globalProperties.getBoolean(PROPERTY_INGEST_ACCOUNT_STATEMENTS)) {
             List<String> externalUserIds = this.globalProperties.getList(PROPERTY_ACCOUNTSTATEMENTS_USERS, true);
-            externalUserIds.forEach(accountStatementsConfigurator::ingestAccountStatements);
-            externalUserIds.forEach(accountStatementsConfigurator::ingestUserProfile);
+            ingestPerUser("account statements", externalUserIds,
+                accountStatementsConfigurator::ingestAccountStatements);
+            ingestPerUser("account statements user profile", externalUserIds,
+                accountStatementsConfigurator::ingestUserProfile);
         }
 
         if (this.globalProperties.getBoolean(PROPERTY_INGEST_ACCOUNT_STATEMENTS_PREFERENCES)) {
             List<String> externalUserIds = this.globalProperties.getList(PROPERTY_ACCOUNTSTATEMENTS_USERS, true);
-            externalUserIds.forEach(accountStatementsConfigurator::ingestAccountStatementPreferences);
+            ingestPerUser("account statements preferences", externalUserIds,
+                accountStatementsConfigurator::ingestAccountStatementPreferences);
         }
     }
 
     private void ingestPositivePayChecksForSelectedUser() {
         if (this.globalProperties.getBoolean(PROPERTY_INGEST_POSITIVE_PAY_CHECKS)) {
-            this.accessControlSetup.getLegalEntitiesWithUsersExcludingSupportAndEmployee().stream()
+            List<String> externalUserIds = this.accessControlSetup
+                .getLegalEntitiesWithUsersExcludingSupportAndEmployee().stream()
                 .map(LegalEntityWithUsers::getUserExternalIds)
                 .flatMap(List::stream)
-                .collect(Collectors.toList())
-                .forEach(this.positivePayConfigurator::ingestPositivePayChecks);
+                .collect(Collectors.toList());
+
+            ingestPerUser("positive pay", externalUserIds, this.positivePayConfigurator::ingestPositivePayChecks);
         }
     }
 
@@ -310,5 +485,14 @@ public class CapabilitiesDataSetup extends BaseSetup {
             this.contentServicesConfigurator.ingestContentForPayments();
         }
     }
-}
 
+    @Value
+    private static class DeferredCapability {
+
+        Runnable ingestion;
+        /**
+         * Service of which the circuit breaker was open.
+         */
+        String service;
+    }
+}
@@ -12,6 +12,7 @@ import com.backbase.ct.bbfuel.configurator.PermissionsConfigurator;
 import com.backbase.ct.bbfuel.configurator.ServiceAgreementsConfigurator;
 import com.backbase.ct.bbfuel.data.CommonConstants;
 import com.backbase.ct.bbfuel.service.ProductGroupService;
+import com.backbase.ct.bbfuel.service.ShardService;
 import com.backbase.ct.bbfuel.util.ParserUtil;
 import com.backbase.integration.accessgroup.rest.spec.v2.accessgroups.IntegrationIdentifier;
 import com.backbase.integration.accessgroup.rest.spec.v2.accessgroups.serviceagreements.Participant;
@@ -38,11 +39,16 @@ public class ServiceAgreementsSetup extends BaseSetup {
     private final UserPresentationRestClient userPresentationRestClient;
     private final AccessControlSetup accessControlSetup;
     private final ProductGroupService productGroupService;
+    private final ShardService shardService;
     private String adminFunctionGroupId;
 
+    /**
+     * Custom service agreements are not specific to a legal entity, so when sharded only the first shard ingests them.
+     */
     @Override
     public void initiate() throws IOException {
-        if (this.globalProperties.getBoolean(CommonConstants.PROPERTY_INGEST_CUSTOM_SERVICE_AGREEMENTS)) {
+        if (this.globalProperties.getBoolean(CommonConstants.PROPERTY_INGEST_CUSTOM_SERVICE_AGREEMENTS)
+            && this.shardService.isGlobalShard()) {
             ServiceAgreementPostRequestBody[] serviceAgreementPostRequestBodies = ParserUtil
                 .convertJsonToObject(
                     this.globalProperties.getString(CommonConstants.PROPERTY_SERVICE_AGREEMENTS_JSON),
@@ -0,0 +1,83 @@
+package com.backbase.ct.bbfuel.traffic;
+
+import com.backbase.ct.bbfuel.util.ParserUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of generating transaction traffic: the number of requests sent, failed and dropped, and the latency
+ * distribution measured from the moment each request was scheduled, so a slow service also delays the requests that
+ * queue up behind it.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class TrafficResult {
+
+    public static final String JSON_REPORT = "transaction-traffic.json";
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final double targetRate;
+    private final long sent;
+    private final long errors;
+    private final long dropped;
+    private final long transactions;
+    private final double elapsedSeconds;
+    private final Histogram latencyMicros;
+
+    /**
+     * @return requests completed per second
+     */
+    public double getAchievedRate() {
+        return elapsedSeconds > 0 ? sent / elapsedSeconds : 0;
+    }
+
+    public double getLatencyMillisAtPercentile(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public void logSummary() {
+        StringBuilder latencies = new StringBuilder();
+        for (double percentile : PERCENTILES) {
+            latencies.append(String.format(" p%s %.1f ms", formatPercentile(percentile),
+                getLatencyMillisAtPercentile(percentile)));
+        }
+        log.info("Transaction traffic: {} requests with {} transactions in {} seconds, {} requests/s of {} targeted, "
+                + "{} errors, {} dropped, latency{} max {} ms", sent, transactions, Math.round(elapsedSeconds),
+            String.format("%.1f", getAchievedRate()), targetRate, errors, dropped, latencies,
+            String.format("%.1f", latencyMicros.getMaxValue() / 1000.0));
+    }
+
+    public void writeJson(Path file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRate", targetRate);
+        report.put("achievedRate", getAchievedRate());
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("sent", sent);
+        report.put("transactions", transactions);
+        report.put("errors", errors);
+        report.put("dropped", dropped);
+        Map<String, Double> latencyMillis = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            latencyMillis.put("p" + formatPercentile(percentile), getLatencyMillisAtPercentile(percentile));
+        }
+        latencyMillis.put("max", latencyMicros.getMaxValue() / 1000.0);
+        report.put("latencyMillis", latencyMillis);
+        try (OutputStream output = Files.newOutputStream(file)) {
+            ParserUtil.convertObjectToJson(output, report);
+        }
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,205 @@
+package com.backbase.ct.bbfuel.traffic;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRAFFIC_DURATION_SECONDS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRAFFIC_MAX_IN_FLIGHT;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRAFFIC_TPS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRAFFIC_TRANSACTIONS_PER_REQUEST;
+import static org.apache.http.HttpStatus.SC_CREATED;
+
+import com.backbase.ct.bbfuel.client.common.RestClient;
+import com.backbase.ct.bbfuel.client.transaction.TransactionsIntegrationRestClient;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.data.TransactionsDataGenerator;
+import com.backbase.ct.bbfuel.input.TransactionsReader;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.backbase.dbs.transaction.client.v2.model.TransactionsPostRequestBody;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * Posts transactions for ingested arrangements at a target rate, to use bb-fuel as load source of the transaction
+ * pipeline. Requests are scheduled open-loop: each request is sent at its scheduled moment whether or not earlier
+ * requests completed, up to a maximum number of requests in flight, beyond which scheduled requests are dropped and
+ * counted. Latency is measured from the scheduled moment, so it includes the time a request waited for a sender.
+ * Requests are neither retried nor limited in concurrency by the client, as both would lower the offered load.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionTraffic {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private final TransactionsReader reader = new TransactionsReader();
+
+    @Lazy
+    private final TransactionsIntegrationRestClient transactionsIntegrationRestClient;
+
+    private final IngestionConfig ingestionConfig;
+
+    private Clock clock = Clock.SYSTEM;
+
+    /**
+     * Source of time the requests are scheduled by.
+     */
+    interface Clock {
+
+        Clock SYSTEM = new Clock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void parkNanos(long nanos) {
+                LockSupport.parkNanos(nanos);
+            }
+        };
+
+        long nanoTime();
+
+        /**
+         * Wait for given nanoseconds, or return right away when they are not positive.
+         */
+        void parkNanos(long nanos);
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Generate transaction traffic as configured by the traffic properties.
+     *
+     * @param arrangements external arrangement ids, with whether they are retail arrangements, which get transactions
+     * from the retail templates instead of generated ones
+     */
+    public TrafficResult generate(Map<String, Boolean> arrangements) {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        double targetRate = globalProperties.getDouble(PROPERTY_TRAFFIC_TPS);
+        int maxInFlight = globalProperties.getInt(PROPERTY_TRAFFIC_MAX_IN_FLIGHT);
+        int transactionsPerRequest = globalProperties.getInt(PROPERTY_TRAFFIC_TRANSACTIONS_PER_REQUEST);
+        if (targetRate <= 0 || maxInFlight < 1 || transactionsPerRequest < 1) {
+            throw new IllegalArgumentException(String.format("Invalid traffic: %s=%s, %s=%s and %s=%s must be positive",
+                PROPERTY_TRAFFIC_TPS, targetRate, PROPERTY_TRAFFIC_MAX_IN_FLIGHT, maxInFlight,
+                PROPERTY_TRAFFIC_TRANSACTIONS_PER_REQUEST, transactionsPerRequest));
+        }
+        return generate(new ArrayList<>(arrangements.entrySet()), targetRate,
+            TimeUnit.SECONDS.toNanos(globalProperties.getLong(PROPERTY_TRAFFIC_DURATION_SECONDS)), maxInFlight,
+            transactionsPerRequest);
+    }
+
+    TrafficResult generate(List<Entry<String, Boolean>> arrangements, double targetRate, long durationNanos,
+        int maxInFlight, int transactionsPerRequest) {
+        log.info("Generating {} requests/s of {} transactions each for {} arrangements during {} seconds", targetRate,
+            transactionsPerRequest, arrangements.size(), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        long intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / targetRate));
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService senders = Executors.newFixedThreadPool(maxInFlight,
+            new ThreadFactoryBuilder().setNameFormat("transaction-traffic-%d").setDaemon(true).build());
+        Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        Histogram latencyMicros = new Histogram(SIGNIFICANT_DIGITS);
+        LongAdder sent = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder transactions = new LongAdder();
+        long dropped = 0;
+
+        long start = clock.nanoTime();
+        long nextReport = start + REPORT_INTERVAL_NANOS;
+        try {
+            for (long scheduled = start; scheduled - start < durationNanos; scheduled += intervalNanos) {
+                clock.parkNanos(scheduled - clock.nanoTime());
+                if (clock.nanoTime() - nextReport >= 0) {
+                    logInterval(recorder.getIntervalHistogram(), latencyMicros);
+                    nextReport += REPORT_INTERVAL_NANOS;
+                }
+                if (!inFlight.tryAcquire()) {
+                    dropped++;
+                    continue;
+                }
+                Entry<String, Boolean> arrangement = arrangements.get(
+                    ThreadLocalRandom.current().nextInt(arrangements.size()));
+                long scheduledNanos = scheduled;
+                senders.execute(() -> {
+                    try {
+                        if (send(arrangement.getKey(), Boolean.TRUE.equals(arrangement.getValue()),
+                            transactionsPerRequest)) {
+                            transactions.add(transactionsPerRequest);
+                        } else {
+                            errors.increment();
+                        }
+                    } finally {
+                        recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(clock.nanoTime() - scheduledNanos));
+                        sent.increment();
+                        inFlight.release();
+                    }
+                });
+            }
+            senders.shutdown();
+            if (!senders.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Requests still in flight after {} seconds are not counted", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            log.warn("Transaction traffic interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            senders.shutdownNow();
+        }
+        double elapsedSeconds = (clock.nanoTime() - start) / 1_000_000_000.0;
+        latencyMicros.add(recorder.getIntervalHistogram());
+        return new TrafficResult(targetRate, sent.sum(), errors.sum(), dropped, transactions.sum(), elapsedSeconds,
+            latencyMicros);
+    }
+
+    /**
+     * @return whether the transactions were created
+     */
+    private boolean send(String externalArrangementId, boolean isRetail, int transactionsPerRequest) {
+        List<TransactionsPostRequestBody> transactions = new ArrayList<>(transactionsPerRequest);
+        for (int i = 0; i < transactionsPerRequest; i++) {
+            transactions.add(isRetail
+                ? reader.loadSingle(externalArrangementId)
+                : TransactionsDataGenerator.generateTransactionsPostRequestBody(externalArrangementId,
+                    ingestionConfig));
+        }
+        try {
+            Response response = RestClient.runUnthrottled(
+                () -> transactionsIntegrationRestClient.ingestTransactions(transactions));
+            if (response.statusCode() == SC_CREATED) {
+                return true;
+            }
+            log.debug("Failed posting transactions for arrangement [{}]: status {}", externalArrangementId,
+                response.statusCode());
+        } catch (RuntimeException e) {
+            log.debug("Failed posting transactions for arrangement [{}]", externalArrangementId, e);
+        }
+        return false;
+    }
+
+    private static void logInterval(Histogram interval, Histogram total) {
+        total.add(interval);
+        log.info("Transaction traffic: {} requests/s, latency p50 {} ms p99 {} ms",
+            String.format("%.1f", interval.getTotalCount() / (REPORT_INTERVAL_NANOS / 1_000_000_000.0)),
+            String.format("%.1f", interval.getValueAtPercentile(50) / 1000.0),
+            String.format("%.1f", interval.getValueAtPercentile(99) / 1000.0));
+    }
+}
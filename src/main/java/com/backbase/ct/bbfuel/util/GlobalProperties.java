@@ -125,6 +125,10 @@ public class GlobalProperties {
         return configuration.getLong(key);
     }
 
+    public double getDouble(String key) {
+        return configuration.getDouble(key);
+    }
+
     public boolean getBoolean(String key) {
         return configuration.getBoolean(key);
     }
@@ -0,0 +1,176 @@
+package com.backbase.ct.bbfuel.warmup;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_CONCURRENCY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_READS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_ROUNDS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_USERS;
+import static java.util.stream.Collectors.toList;
+
+import com.backbase.ct.bbfuel.client.accessgroup.AccessGroupPresentationRestClient;
+import com.backbase.ct.bbfuel.client.accessgroup.UserContextPresentationRestClient;
+import com.backbase.ct.bbfuel.client.common.LoginRestClient;
+import com.backbase.ct.bbfuel.client.common.RestClient;
+import com.backbase.ct.bbfuel.client.productsummary.ProductSummaryPresentationRestClient;
+import com.backbase.ct.bbfuel.client.transaction.TransactionsPresentationRestClient;
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import com.backbase.dbs.arrangement.client.api.v2.model.ProductSummaryItem;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * Primes the caches of the read path after ingesting, so the first users of a performance test do not hit cold
+ * caches. Each ingested user logs in, selects its master service agreement and performs the configured reads a number
+ * of rounds, with several users at once, each in a session of its own.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadPathWarmup {
+
+    public static final String READ_USER_CONTEXT = "user-context";
+    public static final String READ_PRODUCT_SUMMARY = "product-summary";
+    public static final String READ_FUNCTION_GROUPS = "function-groups";
+    public static final String READ_DATA_GROUPS = "data-groups";
+    public static final String READ_TRANSACTIONS = "transactions";
+
+    private static final List<String> READS = Arrays.asList(READ_USER_CONTEXT, READ_PRODUCT_SUMMARY,
+        READ_FUNCTION_GROUPS, READ_DATA_GROUPS, READ_TRANSACTIONS);
+    private static final int TRANSACTIONS_PAGE_SIZE = 10;
+
+    private final LoginRestClient loginRestClient;
+    private final UserContextPresentationRestClient userContextPresentationRestClient;
+    private final AccessGroupPresentationRestClient accessGroupPresentationRestClient;
+    @Lazy
+    private final ProductSummaryPresentationRestClient productSummaryPresentationRestClient;
+    @Lazy
+    private final TransactionsPresentationRestClient transactionsPresentationRestClient;
+
+    /**
+     * Warm up the read path with given users, as configured by the warmup properties.
+     */
+    public WarmupResult warmUp(List<String> externalUserIds) {
+        GlobalProperties globalProperties = GlobalProperties.getInstance();
+        List<String> reads = globalProperties.getList(PROPERTY_WARMUP_READS).stream()
+            .map(String::trim)
+            .filter(StringUtils::isNotEmpty)
+            .collect(toList());
+        reads.stream()
+            .filter(read -> !READS.contains(read))
+            .findFirst()
+            .ifPresent(read -> {
+                throw new IllegalArgumentException(String.format("Unknown read [%s] in %s, known reads are %s",
+                    read, PROPERTY_WARMUP_READS, READS));
+            });
+        int maxUsers = globalProperties.getInt(PROPERTY_WARMUP_USERS);
+        List<String> users = maxUsers > 0 && maxUsers < externalUserIds.size()
+            ? externalUserIds.subList(0, maxUsers)
+            : externalUserIds;
+        int rounds = globalProperties.getInt(PROPERTY_WARMUP_ROUNDS);
+        log.info("Warming up {} with {} users in {} rounds", reads, users.size(), rounds);
+
+        WarmupResult result = new WarmupResult(reads, users.size());
+        ExecutorService warmupExecutor = Executors.newFixedThreadPool(
+            globalProperties.getInt(PROPERTY_WARMUP_CONCURRENCY),
+            new ThreadFactoryBuilder().setNameFormat("warmup-%d").setDaemon(true).build());
+        try {
+            CompletableFuture.allOf(users.stream()
+                .map(externalUserId -> CompletableFuture.runAsync(() -> RestClient.runInOwnSession(
+                    () -> warmUp(externalUserId, reads, rounds, result)), warmupExecutor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+        } finally {
+            warmupExecutor.shutdownNow();
+        }
+        return result;
+    }
+
+    private void warmUp(String externalUserId, List<String> reads, int rounds, WarmupResult result) {
+        UserSession session = new UserSession();
+        try {
+            loginRestClient.login(externalUserId, externalUserId);
+            session.serviceAgreementId = userContextPresentationRestClient
+                .selectContextBasedOnMasterServiceAgreement().getId();
+        } catch (RuntimeException e) {
+            log.warn("User [{}] failed to log in for the warmup: {}", externalUserId, e.getMessage());
+            result.recordFailedUser();
+            return;
+        }
+        for (int round = 0; round < rounds; round++) {
+            for (String read : reads) {
+                if (READ_TRANSACTIONS.equals(read)) {
+                    readTransactions(session, round == 0, result);
+                } else {
+                    timed(read, round == 0, result, () -> read(read, session));
+                }
+            }
+        }
+    }
+
+    private void read(String read, UserSession session) {
+        switch (read) {
+            case READ_USER_CONTEXT:
+                userContextPresentationRestClient.getMasterServiceAgreementForUserContext();
+                break;
+            case READ_PRODUCT_SUMMARY:
+                session.arrangements = productSummaryPresentationRestClient.getProductSummaryArrangements();
+                break;
+            case READ_FUNCTION_GROUPS:
+                accessGroupPresentationRestClient.retrieveFunctionGroupsByServiceAgreement(session.serviceAgreementId);
+                break;
+            case READ_DATA_GROUPS:
+                accessGroupPresentationRestClient.retrieveDataGroupsByServiceAgreement(session.serviceAgreementId);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown read " + read);
+        }
+    }
+
+    /**
+     * Read the first page of transactions of each arrangement of the user, each as a request of its own.
+     */
+    private void readTransactions(UserSession session, boolean firstRound, WarmupResult result) {
+        if (session.arrangements == null) {
+            try {
+                session.arrangements = productSummaryPresentationRestClient.getProductSummaryArrangements();
+            } catch (RuntimeException e) {
+                log.debug("Failed retrieving arrangements to read transactions of", e);
+                result.record(READ_TRANSACTIONS, firstRound, 0, true);
+                return;
+            }
+        }
+        for (ProductSummaryItem arrangement : session.arrangements) {
+            timed(READ_TRANSACTIONS, firstRound, result, () -> transactionsPresentationRestClient
+                .retrieveTransactions(arrangement.getId(), TRANSACTIONS_PAGE_SIZE));
+        }
+    }
+
+    /**
+     * Reads are not retried, so their latency is that of a single request rather than including backoff.
+     */
+    private static void timed(String read, boolean firstRound, WarmupResult result, Runnable request) {
+        long start = System.nanoTime();
+        boolean error = false;
+        try {
+            RestClient.runWithoutRetries(request);
+        } catch (RuntimeException e) {
+            log.debug("Failed warmup read {}", read, e);
+            error = true;
+        }
+        result.record(read, firstRound, System.nanoTime() - start, error);
+    }
+
+    private static class UserSession {
+
+        private String serviceAgreementId;
+        private List<ProductSummaryItem> arrangements;
+    }
+}
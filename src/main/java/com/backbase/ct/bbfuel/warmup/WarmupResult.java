@@ -0,0 +1,115 @@
+package com.backbase.ct.bbfuel.warmup;
+
+import com.backbase.ct.bbfuel.util.ParserUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency per read of a warmup, separately for the first round, which hits cold caches, and the later rounds.
+ */
+@Slf4j
+public class WarmupResult {
+
+    public static final String JSON_REPORT = "warmup.json";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Read> reads;
+    private final LongAdder failedUsers = new LongAdder();
+    @Getter
+    private final int users;
+
+    public WarmupResult(List<String> reads, int users) {
+        Map<String, Read> readsByName = new LinkedHashMap<>();
+        reads.forEach(read -> readsByName.put(read, new Read()));
+        this.reads = Collections.unmodifiableMap(readsByName);
+        this.users = users;
+    }
+
+    void record(String read, boolean firstRound, long nanos, boolean error) {
+        Read metrics = reads.get(read);
+        (firstRound ? metrics.firstRoundMicros : metrics.laterRoundsMicros)
+            .recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+        if (error) {
+            metrics.errors.increment();
+        }
+    }
+
+    void recordFailedUser() {
+        failedUsers.increment();
+    }
+
+    public long getFailedUsers() {
+        return failedUsers.sum();
+    }
+
+    public long getRequests(String read) {
+        Read metrics = reads.get(read);
+        return metrics.firstRoundMicros.getTotalCount() + metrics.laterRoundsMicros.getTotalCount();
+    }
+
+    public long getErrors(String read) {
+        return reads.get(read).errors.sum();
+    }
+
+    public void logSummary() {
+        StringBuilder summary = new StringBuilder(String.format("%n%-16s %9s %7s %12s %12s %12s %12s%n",
+            "read", "requests", "errors", "first p50", "first p99", "later p50", "later p99"));
+        reads.forEach((read, metrics) -> summary.append(String.format("%-16s %9d %7d %12.1f %12.1f %12.1f %12.1f%n",
+            read, getRequests(read), getErrors(read),
+            toMillis(metrics.firstRoundMicros, 50), toMillis(metrics.firstRoundMicros, 99),
+            toMillis(metrics.laterRoundsMicros, 50), toMillis(metrics.laterRoundsMicros, 99))));
+        log.info("Warmup of {} users, {} failed to log in, latency in ms:{}", users, getFailedUsers(), summary);
+    }
+
+    public void writeJson(Path file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", users);
+        report.put("failedUsers", getFailedUsers());
+        Map<String, Object> readReports = new LinkedHashMap<>();
+        reads.forEach((read, metrics) -> {
+            Map<String, Object> readReport = new LinkedHashMap<>();
+            readReport.put("requests", getRequests(read));
+            readReport.put("errors", getErrors(read));
+            readReport.put("firstRoundLatencyMillis", toPercentiles(metrics.firstRoundMicros));
+            readReport.put("laterRoundsLatencyMillis", toPercentiles(metrics.laterRoundsMicros));
+            readReports.put(read, readReport);
+        });
+        report.put("reads", readReports);
+        try (OutputStream output = Files.newOutputStream(file)) {
+            ParserUtil.convertObjectToJson(output, report);
+        }
+    }
+
+    private static Map<String, Double> toPercentiles(Histogram latencyMicros) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", toMillis(latencyMicros, 50));
+        percentiles.put("p90", toMillis(latencyMicros, 90));
+        percentiles.put("p99", toMillis(latencyMicros, 99));
+        percentiles.put("max", latencyMicros.getMaxValue() / 1000.0);
+        return percentiles;
+    }
+
+    private static double toMillis(Histogram latencyMicros, double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static class Read {
+
+        private final Histogram firstRoundMicros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final Histogram laterRoundsMicros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+    }
+}
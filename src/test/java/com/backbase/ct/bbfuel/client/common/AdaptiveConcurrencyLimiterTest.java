@@ -0,0 +1,85 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong now = new AtomicLong();
+    private AdaptiveConcurrencyLimiter subject = new AdaptiveConcurrencyLimiter("service", 10, 1, 20, 2.0, now::get);
+
+    @Test
+    public void testLimitIncreasesWhenUsedAndHealthy() throws InterruptedException {
+        for (int window = 0; window < 5; window++) {
+            int limit = subject.getLimit();
+            for (int i = 0; i < limit; i++) {
+                subject.acquire();
+            }
+            for (int i = 0; i < limit; i++) {
+                subject.release(LATENCY, false);
+            }
+        }
+
+        assertThat(subject.getLimit(), greaterThan(10));
+        assertThat(subject.getInFlight(), is(0));
+    }
+
+    @Test
+    public void testLimitDecreasesOnDroppedRequest() throws InterruptedException {
+        request(LATENCY, true);
+
+        assertThat(subject.getLimit(), is(9));
+    }
+
+    @Test
+    public void testLimitDecreasesOnSlowRequest() throws InterruptedException {
+        request(LATENCY, false);
+        request(LATENCY * 3, false);
+
+        assertThat(subject.getLimit(), is(9));
+    }
+
+    @Test
+    public void testLimitDecreasesOncePerWindow() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            subject.acquire();
+        }
+        now.addAndGet(LATENCY);
+        for (int i = 0; i < 10; i++) {
+            subject.release(LATENCY, true);
+        }
+
+        assertThat(subject.getLimit(), is(9));
+
+        request(LATENCY, true);
+
+        assertThat(subject.getLimit(), is(8));
+    }
+
+    @Test
+    public void testLimitDoesNotDropBelowMinimum() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            request(LATENCY, true);
+        }
+
+        assertThat(subject.getLimit(), is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimits() {
+        new AdaptiveConcurrencyLimiter("service", 30, 1, 20, 2.0);
+    }
+
+    private void request(long latencyNanos, boolean dropped) throws InterruptedException {
+        subject.acquire();
+        now.addAndGet(latencyNanos);
+        subject.release(latencyNanos, dropped);
+    }
+}
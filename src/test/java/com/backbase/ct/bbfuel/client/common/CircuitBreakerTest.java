@@ -0,0 +1,95 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.backbase.ct.bbfuel.client.common.CircuitBreaker.State;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private volatile long now;
+
+    private CircuitBreaker subject = new CircuitBreaker("service", 3, 1000, () -> now);
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        subject.onFailure();
+        subject.onFailure();
+        subject.onSuccess();
+        subject.onFailure();
+        subject.onFailure();
+        assertThat(subject.getState(), is(State.CLOSED));
+
+        subject.onFailure();
+        assertThat(subject.getState(), is(State.OPEN));
+    }
+
+    @Test(expected = CircuitBreakerOpenException.class)
+    public void testFailsFastWhenOpen() {
+        openCircuit();
+        now += TimeUnit.MILLISECONDS.toNanos(999);
+
+        subject.acquirePermission();
+    }
+
+    @Test
+    public void testClosesAfterSuccessfulTrialRequest() {
+        openCircuit();
+        now += TimeUnit.MILLISECONDS.toNanos(1000);
+
+        subject.acquirePermission();
+        assertThat(subject.getState(), is(State.HALF_OPEN));
+        subject.onSuccess();
+        assertThat(subject.getState(), is(State.CLOSED));
+    }
+
+    @Test
+    public void testOpensAgainAfterFailedTrialRequest() {
+        openCircuit();
+        now += TimeUnit.MILLISECONDS.toNanos(1000);
+
+        subject.acquirePermission();
+        subject.onFailure();
+        assertThat(subject.getState(), is(State.OPEN));
+    }
+
+    @Test(timeout = 5000)
+    public void testAwaitPermissionUntilTrialRequestMayBeSent() throws InterruptedException {
+        openCircuit();
+        now += TimeUnit.MILLISECONDS.toNanos(1000);
+
+        subject.awaitPermission();
+        subject.acquirePermission();
+        assertThat(subject.getState(), is(State.HALF_OPEN));
+    }
+
+    @Test(timeout = 5000)
+    public void testAwaitPermissionUntilTrialRequestOfOtherThreadCompletes() throws InterruptedException {
+        openCircuit();
+        now += TimeUnit.MILLISECONDS.toNanos(1000);
+        subject.acquirePermission();
+
+        Thread waiting = new Thread(() -> {
+            try {
+                subject.awaitPermission();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        waiting.join(100);
+        assertThat(waiting.isAlive(), is(true));
+
+        subject.onSuccess();
+        waiting.join();
+        assertThat(subject.getState(), is(State.CLOSED));
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            subject.onFailure();
+        }
+    }
+}
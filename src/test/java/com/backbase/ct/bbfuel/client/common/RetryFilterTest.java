@@ -0,0 +1,108 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static java.util.Collections.emptyMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RetryFilterTest {
+
+    private static final int[] STATUS_CODES = {503, 503, 200};
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final RetryPolicy policy = RetryPolicy.builder()
+        .maxAttempts(3)
+        .initialBackoffMillis(1)
+        .maxBackoffMillis(1)
+        .retryableStatusCode(503)
+        .build();
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            int request = requests.getAndIncrement();
+            try (InputStream body = exchange.getRequestBody()) {
+                bodies.add(exchange.getRequestURI() + " " + IOUtils.toString(body, StandardCharsets.UTF_8));
+            }
+            exchange.sendResponseHeaders(STATUS_CODES[Math.min(request, STATUS_CODES.length - 1)], -1);
+            exchange.close();
+        });
+        server.start();
+        RetryFilter.resetRetryCounts();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRetriesAreSentAgain() {
+        Response response = given(policy)
+            .queryParam("size", 10)
+            .get("/arrangements/{id}", "a1");
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(requests.get(), is(3));
+        assertThat(bodies.get(2), is(bodies.get(0)));
+        assertThat(bodies.get(2), is("/service/arrangements/a1?size=10 "));
+        assertThat(RetryFilter.getRetryCounts().values().iterator().next(), is(2L));
+    }
+
+    @Test
+    public void testBodyIsSentAgain() {
+        Response response = given(policy.toBuilder().retryNonIdempotentMethods(true).build())
+            .body("{\"name\":\"a1\"}")
+            .post("/arrangements");
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(requests.get(), is(3));
+        assertThat(bodies.get(2), is("/service/arrangements {\"name\":\"a1\"}"));
+    }
+
+    @Test
+    public void testNonIdempotentRequestIsNotRetried() {
+        Response response = given(policy)
+            .body("{}")
+            .post("/arrangements");
+
+        assertThat(response.statusCode(), is(503));
+        assertThat(requests.get(), is(1));
+    }
+
+    @Test
+    public void testLastFailedAttemptIsReturned() {
+        Response response = given(policy.toBuilder().maxAttempts(2).build())
+            .get("/arrangements");
+
+        assertThat(response.statusCode(), is(503));
+        assertThat(requests.get(), is(2));
+    }
+
+    private RequestSpecification given(RetryPolicy retryPolicy) {
+        return RestAssured.given()
+            .baseUri("http://localhost")
+            .port(server.getAddress().getPort())
+            .basePath("/service")
+            .contentType("application/json")
+            .filter(new RetryFilter("stub", retryPolicy, emptyMap()));
+    }
+}
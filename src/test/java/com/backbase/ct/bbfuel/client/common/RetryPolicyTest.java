@@ -0,0 +1,48 @@
+package com.backbase.ct.bbfuel.client.common;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+    private RetryPolicy subject = RetryPolicy.builder()
+        .maxAttempts(3)
+        .initialBackoffMillis(100)
+        .maxBackoffMillis(1000)
+        .retryableStatusCode(503)
+        .build();
+
+    @Test
+    public void testBackoffGrowsExponentiallyWithJitter() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(subject.getBackoffMillis(1), allOf(greaterThanOrEqualTo(50L), lessThanOrEqualTo(100L)));
+            assertThat(subject.getBackoffMillis(3), allOf(greaterThanOrEqualTo(200L), lessThanOrEqualTo(400L)));
+        }
+    }
+
+    @Test
+    public void testBackoffIsCapped() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(subject.getBackoffMillis(50), allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(1000L)));
+        }
+    }
+
+    @Test
+    public void testOnlyIdempotentMethodsAreRetriedByDefault() {
+        assertThat(subject.isRetryableMethod("GET"), is(true));
+        assertThat(subject.isRetryableMethod("PUT"), is(true));
+        assertThat(subject.isRetryableMethod("POST"), is(false));
+        assertThat(subject.toBuilder().retryNonIdempotentMethods(true).build().isRetryableMethod("POST"), is(true));
+    }
+
+    @Test
+    public void testRetryableStatusCodes() {
+        assertThat(subject.isRetryableStatusCode(503), is(true));
+        assertThat(subject.isRetryableStatusCode(500), is(false));
+    }
+}
@@ -0,0 +1,109 @@
+package com.backbase.ct.bbfuel.config;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_BATCH_SIZE;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_CONCURRENCY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_PIPELINED;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONTACTS_ACCOUNT_TYPES;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_ACCESS_CONTROL;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_BATCHES;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_CONTACTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_APPROVALS_FOR_PAYMENTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_BALANCE_HISTORY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_POCKETS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_POSITIVE_PAY_CHECKS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_TRANSACTIONS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_COUNT;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_INDEX;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_RUN_ID;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRANSACTIONS_CURRENCY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRANSACTIONS_MAX;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_TRANSACTIONS_MIN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import com.backbase.ct.bbfuel.util.GlobalProperties;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IngestionConfigTest {
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        properties.put(PROPERTY_INGEST_ACCESS_CONTROL, "true");
+        properties.put(PROPERTY_INGEST_APPROVALS_FOR_PAYMENTS, "false");
+        properties.put(PROPERTY_INGEST_APPROVALS_FOR_CONTACTS, "false");
+        properties.put(PROPERTY_INGEST_APPROVALS_FOR_BATCHES, "false");
+        properties.put(PROPERTY_ARRANGEMENTS_PIPELINED, "true");
+        properties.put(PROPERTY_ARRANGEMENTS_BATCH_SIZE, "5");
+        properties.put(PROPERTY_ARRANGEMENTS_CONCURRENCY, "2");
+        properties.put(PROPERTY_INGEST_TRANSACTIONS, "true");
+        properties.put(PROPERTY_INGEST_BALANCE_HISTORY, "false");
+        properties.put(PROPERTY_INGEST_POSITIVE_PAY_CHECKS, "false");
+        properties.put(PROPERTY_INGEST_POCKETS, "false");
+        properties.put(PROPERTY_TRANSACTIONS_MIN, "10");
+        properties.put(PROPERTY_TRANSACTIONS_MAX, "20");
+        properties.put(PROPERTY_TRANSACTIONS_CURRENCY, "EUR, USD,GBP");
+        properties.put(PROPERTY_CONTACTS_ACCOUNT_TYPES, "BBAN,IBAN");
+        properties.put(PROPERTY_SHARD_INDEX, "1");
+        properties.put(PROPERTY_SHARD_COUNT, "3");
+        properties.put(PROPERTY_SHARD_RUN_ID, "run-1");
+        properties.forEach(System::setProperty);
+    }
+
+    @After
+    public void tearDown() {
+        properties.keySet().forEach(System::clearProperty);
+    }
+
+    @Test
+    public void testFromProperties() {
+        IngestionConfig config = IngestionConfig.fromProperties(GlobalProperties.getInstance());
+
+        assertThat(config.isIngestAccessControl(), is(true));
+        assertThat(config.isArrangementsPipelined(), is(true));
+        assertThat(config.getArrangementsBatchSize(), is(5));
+        assertThat(config.getArrangementsConcurrency(), is(2));
+        assertThat(config.isIngestBalanceHistory(), is(false));
+        assertThat(config.getTransactionsMin(), is(10));
+        assertThat(config.getTransactionsMax(), is(20));
+        assertThat(config.getTransactionCurrencies(), contains("EUR", "USD", "GBP"));
+        assertThat(config.isIbanCounterPartyAccounts(), is(true));
+        assertThat(config.isSharded(), is(true));
+        assertThat(config.isGlobalShard(), is(false));
+        assertThat(config.getShardRunId(), is("run-1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShardIndexOutOfRange() {
+        System.setProperty(PROPERTY_SHARD_INDEX, "3");
+
+        IngestionConfig.fromProperties(GlobalProperties.getInstance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShardRunIdMissing() {
+        System.setProperty(PROPERTY_SHARD_RUN_ID, " ");
+
+        IngestionConfig.fromProperties(GlobalProperties.getInstance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrangementsBatchSizeOutOfRange() {
+        System.setProperty(PROPERTY_ARRANGEMENTS_BATCH_SIZE, "0");
+
+        IngestionConfig.fromProperties(GlobalProperties.getInstance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrangementsConcurrencyOutOfRange() {
+        System.setProperty(PROPERTY_ARRANGEMENTS_CONCURRENCY, "0");
+
+        IngestionConfig.fromProperties(GlobalProperties.getInstance());
+    }
+}
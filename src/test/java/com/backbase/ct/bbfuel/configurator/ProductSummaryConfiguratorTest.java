@@ -0,0 +1,81 @@
+package com.backbase.ct.bbfuel.configurator;
+
+import static java.util.Collections.synchronizedList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.backbase.ct.bbfuel.client.productsummary.ArrangementsIntegrationRestClient;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.dto.ArrangementId;
+import com.backbase.dbs.arrangement.integration.inbound.api.v2.model.ArrangementAddedResponse;
+import com.backbase.dbs.arrangement.integration.inbound.api.v2.model.PostArrangement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProductSummaryConfiguratorTest {
+
+    private static final String LEGAL_ENTITY_ID = "C000001";
+
+    @Mock
+    private ArrangementsIntegrationRestClient arrangementsIntegrationRestClient;
+
+    private ProductSummaryConfigurator subject;
+
+    @Before
+    public void setUp() {
+        subject = new ProductSummaryConfigurator(arrangementsIntegrationRestClient, IngestionConfig.builder()
+            .arrangementsBatchSize(2)
+            .arrangementsConcurrency(8)
+            .build());
+        when(arrangementsIntegrationRestClient.ingestArrangement(any(PostArrangement.class))).thenAnswer(
+            invocation -> {
+                ArrangementAddedResponse response = new ArrangementAddedResponse();
+                response.setId("internal-" + ((PostArrangement) invocation.getArguments()[0]).getId());
+                return response;
+            });
+    }
+
+    @After
+    public void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    public void testBatchesKeepOrderOfArrangements() {
+        List<String> externalIds = IntStream.rangeClosed(1, 5)
+            .mapToObj(index -> "A" + index)
+            .collect(toList());
+        List<ArrangementId> consumed = synchronizedList(new ArrayList<>());
+
+        List<ArrangementId> arrangementIds = subject.ingestArrangementsInBatches(LEGAL_ENTITY_ID,
+            externalIds.stream().map(this::createArrangement).collect(toList()), consumed::add);
+
+        assertThat(arrangementIds.stream().map(ArrangementId::getExternalArrangementId).collect(toList()),
+            contains("A1", "A2", "A3", "A4", "A5"));
+        assertThat(arrangementIds.stream().map(ArrangementId::getInternalArrangementId).collect(toList()),
+            contains("internal-A1", "internal-A2", "internal-A3", "internal-A4", "internal-A5"));
+        assertThat(consumed.stream().map(ArrangementId::getExternalArrangementId).collect(toList()),
+            containsInAnyOrder("A1", "A2", "A3", "A4", "A5"));
+        verify(arrangementsIntegrationRestClient, times(5)).ingestArrangement(any(PostArrangement.class));
+    }
+
+    private PostArrangement createArrangement(String externalId) {
+        PostArrangement arrangement = new PostArrangement();
+        arrangement.setId(externalId);
+        return arrangement;
+    }
+}
@@ -0,0 +1,106 @@
+package com.backbase.ct.bbfuel.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import com.backbase.ct.bbfuel.dto.ArrangementId;
+import com.backbase.ct.bbfuel.dto.UserContext;
+import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
+import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
+import com.backbase.ct.bbfuel.service.JobProfileService;
+import com.backbase.ct.bbfuel.service.ProductGroupService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IdMapExportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ProductGroupService productGroupService = new ProductGroupService();
+    private final JobProfileService jobProfileService = new JobProfileService();
+    private final IdMapExport subject = new IdMapExport(productGroupService, jobProfileService);
+
+    @Before
+    public void setUp() {
+        subject.addUserContext(createUserContext("U1", "u-1"));
+        subject.addUserContext(createUserContext("U2", "u-2"));
+        subject.addUserContext(createUserContext("U1", "u-1"));
+
+        ProductGroupSeed productGroupSeed = new ProductGroupSeed();
+        productGroupSeed.setId("dg-1");
+        productGroupSeed.setProductGroupName("Current, savings");
+        productGroupSeed.setExternalServiceAgreementId("SA1");
+        productGroupService.saveAssignedProductGroup(productGroupSeed);
+        subject.addArrangements(asList(new ArrangementId("a-1", "A1"), new ArrangementId("a-2", "A2")),
+            productGroupSeed, "LE1", true);
+
+        JobProfile jobProfile = JobProfile.builder().jobProfileName("Admin").build();
+        jobProfile.setId("fg-1");
+        jobProfile.setExternalServiceAgreementId("SA1");
+        jobProfileService.saveAssignedProfile(jobProfile);
+    }
+
+    @Test
+    public void testExportCsv() throws IOException {
+        Path dir = folder.getRoot().toPath();
+
+        subject.export(dir, IdMapExport.FORMAT_CSV);
+
+        assertThat(Files.readAllLines(dir.resolve("ids-users.csv"), UTF_8), contains(
+            "externalUserId,internalUserId,externalLegalEntityId,internalLegalEntityId,externalServiceAgreementId,"
+                + "internalServiceAgreementId",
+            "U1,u-1,LE1,le-1,SA1,sa-1",
+            "U2,u-2,LE1,le-1,SA1,sa-1"));
+        assertThat(Files.readAllLines(dir.resolve("ids-legal-entities.csv"), UTF_8), contains(
+            "externalLegalEntityId,internalLegalEntityId",
+            "LE1,le-1"));
+        assertThat(Files.readAllLines(dir.resolve("ids-arrangements.csv"), UTF_8), contains(
+            "externalArrangementId,internalArrangementId,externalLegalEntityId,externalServiceAgreementId,dataGroupId,"
+                + "retail",
+            "A1,a-1,LE1,SA1,dg-1,true",
+            "A2,a-2,LE1,SA1,dg-1,true"));
+        assertThat(Files.readAllLines(dir.resolve("ids-data-groups.csv"), UTF_8), contains(
+            "name,id,externalServiceAgreementId",
+            "\"Current, savings\",dg-1,SA1"));
+        assertThat(Files.readAllLines(dir.resolve("ids-function-groups.csv"), UTF_8), contains(
+            "name,id,externalServiceAgreementId",
+            "Admin,fg-1,SA1"));
+    }
+
+    @Test
+    public void testExportNdjson() throws IOException {
+        Path dir = folder.getRoot().toPath();
+
+        subject.export(dir, IdMapExport.FORMAT_NDJSON);
+
+        assertThat(Files.readAllLines(dir.resolve("ids-service-agreements.ndjson"), UTF_8), is(singletonList(
+            "{\"externalServiceAgreementId\":\"SA1\",\"internalServiceAgreementId\":\"sa-1\","
+                + "\"externalLegalEntityId\":\"LE1\"}")));
+        assertThat(Files.readAllLines(dir.resolve("ids-users.ndjson"), UTF_8).size(), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFormat() throws IOException {
+        subject.export(folder.getRoot().toPath(), "xml");
+    }
+
+    private static UserContext createUserContext(String externalUserId, String internalUserId) {
+        return new UserContext()
+            .withExternalUserId(externalUserId)
+            .withInternalUserId(internalUserId)
+            .withExternalLegalEntityId("LE1")
+            .withInternalLegalEntityId("le-1")
+            .withExternalServiceAgreementId("SA1")
+            .withInternalServiceAgreementId("sa-1");
+    }
+}
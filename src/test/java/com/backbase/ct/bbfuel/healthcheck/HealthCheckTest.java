@@ -0,0 +1,92 @@
+package com.backbase.ct.bbfuel.healthcheck;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_HEALTH_CHECK_INITIAL_INTERVAL_MILLIS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_HEALTH_CHECK_MAX_INTERVAL_MILLIS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.backbase.ct.bbfuel.client.common.RestClient;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HealthCheckTest {
+
+    private final HealthCheck subject = new HealthCheck();
+
+    @Before
+    public void setUp() {
+        System.setProperty(PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES, "1");
+        System.setProperty(PROPERTY_HEALTH_CHECK_INITIAL_INTERVAL_MILLIS, "1");
+        System.setProperty(PROPERTY_HEALTH_CHECK_MAX_INTERVAL_MILLIS, "4");
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES);
+        System.clearProperty(PROPERTY_HEALTH_CHECK_INITIAL_INTERVAL_MILLIS);
+        System.clearProperty(PROPERTY_HEALTH_CHECK_MAX_INTERVAL_MILLIS);
+    }
+
+    @Test
+    public void testServiceIsPolledUntilUpOnce() {
+        RestClient slowService = createRestClient("http://localhost/slow");
+        when(slowService.isUp()).thenReturn(false, false, true);
+        RestClient service = createRestClient("http://localhost/service");
+        when(service.isUp()).thenReturn(true);
+
+        subject.checkServicesHealth(asList(slowService, service));
+        subject.checkServicesHealth(singletonList(slowService));
+
+        verify(slowService, times(3)).isUp();
+        verify(service, times(1)).isUp();
+    }
+
+    @Test
+    public void testServiceThatTimedOutIsPolledAgain() {
+        RestClient service = createRestClient("http://localhost/service");
+        when(service.isUp()).thenReturn(true);
+        System.setProperty(PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES, "0");
+        try {
+            subject.checkServicesHealth(singletonList(service));
+            fail("Expected the health check to time out");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("[http://localhost/service] timed out"));
+        }
+        System.setProperty(PROPERTY_HEALTH_CHECK_TIMEOUT_IN_MINUTES, "1");
+
+        subject.checkServicesHealth(singletonList(service));
+
+        verify(service, times(1)).isUp();
+    }
+
+    @Test
+    public void testPollingWithoutIntervalIsDelayed() {
+        System.setProperty(PROPERTY_HEALTH_CHECK_INITIAL_INTERVAL_MILLIS, "0");
+        System.setProperty(PROPERTY_HEALTH_CHECK_MAX_INTERVAL_MILLIS, "0");
+        RestClient service = createRestClient("http://localhost/service");
+        when(service.isUp()).thenReturn(false, false, false, true);
+        long start = System.nanoTime();
+
+        subject.checkServicesHealth(singletonList(service));
+
+        verify(service, times(4)).isUp();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(30L));
+    }
+
+    private static RestClient createRestClient(String serviceUri) {
+        RestClient restClient = mock(RestClient.class);
+        when(restClient.getServiceUri()).thenReturn(serviceUri);
+        return restClient;
+    }
+}
@@ -0,0 +1,89 @@
+package com.backbase.ct.bbfuel.metrics;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+public class RequestFingerprintsTest {
+
+    private static final String URI = "http://localhost:8080/api/arrangement-manager/integration-api/v2/arrangements";
+
+    @After
+    public void tearDown() {
+        RequestFingerprints.reset();
+    }
+
+    @Test
+    public void testFieldOrderDoesNotChangeFingerprint() {
+        assertThat(RequestFingerprints.fingerprint("POST", URI,
+            "{\"id\":\"A1\",\"balance\":{\"amount\":10,\"currency\":\"EUR\"},\"tags\":[\"x\",\"y\"]}"),
+            is(RequestFingerprints.fingerprint("POST", URI,
+                "{\"tags\":[\"x\",\"y\"],\"balance\":{\"currency\":\"EUR\",\"amount\":10},\"id\":\"A1\"}")));
+    }
+
+    @Test
+    public void testBytesAndStringOfSameBodyHaveSameFingerprint() {
+        String body = "{\"id\":\"A1\"}";
+
+        assertThat(RequestFingerprints.fingerprint("POST", URI, body.getBytes(UTF_8)),
+            is(RequestFingerprints.fingerprint("POST", URI, body)));
+    }
+
+    @Test
+    public void testDifferentBodiesHaveDifferentFingerprints() {
+        String fingerprint = RequestFingerprints.fingerprint("POST", URI, "{\"id\":\"A1\",\"tags\":[\"x\",\"y\"]}");
+
+        assertThat(RequestFingerprints.fingerprint("POST", URI, "{\"id\":\"A2\",\"tags\":[\"x\",\"y\"]}"),
+            is(not(fingerprint)));
+        assertThat(RequestFingerprints.fingerprint("POST", URI, "{\"id\":\"A1\",\"tags\":[\"y\",\"x\"]}"),
+            is(not(fingerprint)));
+        assertThat(RequestFingerprints.fingerprint("PUT", URI, "{\"id\":\"A1\",\"tags\":[\"x\",\"y\"]}"),
+            is(not(fingerprint)));
+        assertThat(RequestFingerprints.fingerprint("POST", URI, null), is(not(fingerprint)));
+    }
+
+    @Test
+    public void testBodyThatIsNotJson() {
+        assertThat(RequestFingerprints.fingerprint("POST", URI, "id=A1"),
+            is(RequestFingerprints.fingerprint("POST", URI, "id=A1")));
+        assertThat(RequestFingerprints.fingerprint("POST", URI, "id=A1"),
+            is(not(RequestFingerprints.fingerprint("POST", URI, "id=A2"))));
+    }
+
+    @Test
+    public void testParamsAreHashedRegardlessOfOrder() {
+        Map<String, String> admin = new LinkedHashMap<>();
+        admin.put("username", "admin");
+        admin.put("password", "secret");
+        Map<String, String> sameAdmin = new LinkedHashMap<>();
+        sameAdmin.put("password", "secret");
+        sameAdmin.put("username", "admin");
+        String fingerprint = RequestFingerprints.fingerprint("POST", URI, null, admin);
+
+        assertThat(RequestFingerprints.fingerprint("POST", URI, null, sameAdmin), is(fingerprint));
+        assertThat(RequestFingerprints.fingerprint("POST", URI, null, singletonMap("username", "user")),
+            is(not(fingerprint)));
+        assertThat(RequestFingerprints.fingerprint("POST", URI, null, emptyMap()),
+            is(RequestFingerprints.fingerprint("POST", URI, null)));
+        assertThat(fingerprint, not(containsString("secret")));
+    }
+
+    @Test
+    public void testRedundantRequests() {
+        RequestFingerprints.record(RequestFingerprints.fingerprint("POST", URI, "{\"a\":1,\"b\":2}"));
+        RequestFingerprints.record(RequestFingerprints.fingerprint("POST", URI, "{\"b\":2,\"a\":1}"));
+        RequestFingerprints.record(RequestFingerprints.fingerprint("POST", URI, "{\"a\":1,\"b\":3}"));
+
+        assertThat(RequestFingerprints.getTotalRequests(), is(3L));
+        assertThat(RequestFingerprints.getRedundantRequests(), is(1L));
+    }
+}
@@ -0,0 +1,59 @@
+package com.backbase.ct.bbfuel.metrics;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RequestMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Locale defaultLocale = Locale.getDefault();
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(defaultLocale);
+        RequestMetrics.reset();
+    }
+
+    @Test
+    public void testPathTemplateReplacesIdentifiers() {
+        assertThat(RequestMetrics.toPathTemplate("v2/users/externalId/U0011035/legalentities"),
+            is("v2/users/externalId/{id}/legalentities"));
+        assertThat(RequestMetrics.toPathTemplate("v2/arrangements/8a8a8a8a-0000-4000-a000-000000000001"),
+            is("v2/arrangements/{id}"));
+    }
+
+    @Test
+    public void testPathTemplateKeepsVersionAndDropsQuery() {
+        assertThat(RequestMetrics.toPathTemplate("v2/serviceagreements?externalId=sa-1"),
+            is("v2/serviceagreements"));
+    }
+
+    @Test
+    public void testPrometheusUsesDecimalPointRegardlessOfLocale() throws IOException {
+        Locale.setDefault(Locale.GERMANY);
+        RequestMetrics.record(new EndpointKey("user-manager", "GET", "v2/users", 200),
+            0, TimeUnit.MILLISECONDS.toNanos(1500), 100, 200, false);
+        Path file = folder.getRoot().toPath().resolve(RequestMetrics.PROMETHEUS_REPORT);
+
+        RequestMetrics.writePrometheus(file);
+
+        String sum = Files.readAllLines(file, UTF_8).stream()
+            .filter(line -> line.startsWith("bbfuel_http_request_duration_seconds_sum"))
+            .findFirst()
+            .orElse("");
+        assertThat(sum, sum.matches(".*\\} 1\\.5\\d{5}"), is(true));
+    }
+}
@@ -0,0 +1,29 @@
+package com.backbase.ct.bbfuel.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class TimelineTest {
+
+    @Test
+    public void testPhasesAreNestedPerThread() {
+        try (Timeline.Phase tenant = Timeline.start("tenant")) {
+            try (Timeline.Phase legalEntity = Timeline.start("legal entity C000001", Timeline.KIND_LEGAL_ENTITY)) {
+                legalEntity.setEntities(3);
+            }
+            try (Timeline.Phase capabilities = Timeline.start("capabilities")) {
+                assertThat(capabilities.getPath(), is("tenant / capabilities"));
+            }
+        }
+
+        assertThat(Timeline.getPhases().stream().map(Timeline.Phase::getPath).collect(Collectors.toList()),
+            hasItems("tenant", "tenant / legal entity C000001", "tenant / capabilities"));
+        try (Timeline.Phase phase = Timeline.start("next")) {
+            assertThat(phase.getPath(), is("next"));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.backbase.ct.bbfuel.plan;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class IngestionPlanTest {
+
+    @Test
+    public void testAddMergesSameStep() {
+        IngestionPlan plan = new IngestionPlan();
+        plan.add("access control", "user", "user", 2, 2);
+        plan.add("access control", "user", "user", 3, 3);
+        plan.add("access control", "arrangements", "arrangement", 10.5, 10.5);
+        plan.add("capabilities", "payments", "payment order", 7, 7);
+        plan.add("capabilities", "contactmanager", "contact", 0, 0);
+
+        assertThat(plan.getSteps().size(), is(3));
+        assertThat(plan.getTotalRequests(), closeTo(22.5, 0.001));
+        assertThat(plan.getRequestsPerPhase(), hasEntry("access control", 15.5));
+        assertThat(plan.getRequestsPerService(), hasEntry("user", 5.0));
+    }
+
+    @Test
+    public void testEstimatedSecondsSumsPhases() {
+        IngestionPlan plan = new IngestionPlan();
+        Map<String, Double> estimatedSeconds = new LinkedHashMap<>();
+        estimatedSeconds.put("access control", 600.0);
+        estimatedSeconds.put("capabilities", 120.0);
+        plan.setEstimatedSecondsPerPhase(estimatedSeconds);
+
+        assertThat(plan.getEstimatedSeconds(), closeTo(720, 0.001));
+    }
+}
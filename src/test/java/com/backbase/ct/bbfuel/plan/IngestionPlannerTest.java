@@ -0,0 +1,142 @@
+package com.backbase.ct.bbfuel.plan;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONTACTS_MAX;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_CONTACTS_MIN;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_CONTACTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_PAYMENTS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_PAYMENTS_MAX;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_PAYMENTS_MIN;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.dto.AmountRange;
+import com.backbase.ct.bbfuel.dto.Category;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.dto.User;
+import com.backbase.ct.bbfuel.dto.entitlement.JobProfile;
+import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
+import com.backbase.ct.bbfuel.input.JobProfileReader;
+import com.backbase.ct.bbfuel.input.LegalEntityWithUsersReader;
+import com.backbase.ct.bbfuel.input.ProductGroupSeedReader;
+import com.backbase.ct.bbfuel.service.JobProfileService;
+import com.backbase.ct.bbfuel.service.ShardService;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IngestionPlannerTest {
+
+    private static final String TENANT = "legal-entities-with-users.json";
+
+    private final LegalEntityWithUsersReader legalEntityWithUsersReader = mock(LegalEntityWithUsersReader.class);
+    private final JobProfileReader jobProfileReader = mock(JobProfileReader.class);
+    private final ProductGroupSeedReader productGroupSeedReader = mock(ProductGroupSeedReader.class);
+    private final ShardService shardService = mock(ShardService.class);
+
+    @Before
+    public void setUp() {
+        System.setProperty(PROPERTY_PAYMENTS_MIN, "1");
+        System.setProperty(PROPERTY_PAYMENTS_MAX, "3");
+        System.setProperty(PROPERTY_CONTACTS_MIN, "2");
+        System.setProperty(PROPERTY_CONTACTS_MAX, "2");
+        List<LegalEntityWithUsers> legalEntities = singletonList(LegalEntityWithUsers.builder()
+            .legalEntityExternalId("C000001")
+            .category(Category.RETAIL)
+            .user(User.builder().externalId("user1").build())
+            .user(User.builder().externalId("user2").build())
+            .build());
+        when(legalEntityWithUsersReader.load(TENANT)).thenReturn(legalEntities);
+        when(shardService.selectShard(legalEntities)).thenReturn(legalEntities);
+        when(jobProfileReader.load()).thenReturn(singletonList(JobProfile.builder()
+            .jobProfileName("Account owner")
+            .isRetail(true)
+            .build()));
+        when(productGroupSeedReader.load()).thenReturn(singletonList(ProductGroupSeed.builder()
+            .productGroupName("Current accounts")
+            .numberOfArrangements(new AmountRange(2, 4))
+            .build()));
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(PROPERTY_PAYMENTS_MIN);
+        System.clearProperty(PROPERTY_PAYMENTS_MAX);
+        System.clearProperty(PROPERTY_CONTACTS_MIN);
+        System.clearProperty(PROPERTY_CONTACTS_MAX);
+        System.clearProperty(PROPERTY_INGEST_PAYMENTS);
+        System.clearProperty(PROPERTY_INGEST_CONTACTS);
+    }
+
+    @Test
+    public void testStepsFollowOrderOfIngestion() {
+        System.setProperty(PROPERTY_INGEST_PAYMENTS, "true");
+        System.setProperty(PROPERTY_INGEST_CONTACTS, "false");
+        IngestionConfig ingestionConfig = IngestionConfig.builder()
+            .ingestAccessControl(true)
+            .ingestTransactions(true)
+            .transactionsMin(10)
+            .transactionsMax(20)
+            .build();
+
+        IngestionPlan plan = createPlanner(ingestionConfig).plan(new String[]{TENANT});
+
+        assertThat(getSteps(plan), contains(
+            "access control/legal entity",
+            "access control/user",
+            "access control/user context",
+            "access control/service agreement",
+            "access control/permission",
+            "access control/function group",
+            "access control/data group",
+            "access control/arrangement",
+            "access control/transaction",
+            "capabilities/user context",
+            "capabilities/payment order"));
+        // a retail arrangement gets one more transaction than the average of the range
+        assertThat(getStep(plan, "transaction").getEntities(), closeTo(3 * 16, 0.001));
+        assertThat(getStep(plan, "payment order").getEntities(), closeTo(2 * 2, 0.001));
+    }
+
+    @Test
+    public void testDisabledCapabilitiesAreNotPlanned() {
+        System.setProperty(PROPERTY_INGEST_PAYMENTS, "false");
+        System.setProperty(PROPERTY_INGEST_CONTACTS, "true");
+        IngestionConfig ingestionConfig = IngestionConfig.builder()
+            .ingestAccessControl(false)
+            .ingestTransactions(true)
+            .ingestBalanceHistory(true)
+            .build();
+
+        IngestionPlan plan = createPlanner(ingestionConfig).plan(new String[]{TENANT});
+
+        assertThat(getSteps(plan), contains(
+            "capabilities/user context",
+            "capabilities/contact"));
+        assertThat(getStep(plan, "contact").getEntities(), closeTo(2, 0.001));
+    }
+
+    private IngestionPlanner createPlanner(IngestionConfig ingestionConfig) {
+        return new IngestionPlanner(legalEntityWithUsersReader, jobProfileReader, productGroupSeedReader,
+            new JobProfileService(), ingestionConfig, shardService);
+    }
+
+    private static List<String> getSteps(IngestionPlan plan) {
+        return plan.getSteps().values().stream()
+            .map(step -> step.getPhase() + "/" + step.getEntity())
+            .collect(Collectors.toList());
+    }
+
+    private static IngestionPlan.Step getStep(IngestionPlan plan, String entity) {
+        return plan.getSteps().values().stream()
+            .filter(step -> step.getEntity().equals(entity))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No step for " + entity));
+    }
+}
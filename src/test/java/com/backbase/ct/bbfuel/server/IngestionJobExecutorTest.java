@@ -0,0 +1,72 @@
+package com.backbase.ct.bbfuel.server;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_REPORT_DIR;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.backbase.ct.bbfuel.IngestException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+public class IngestionJobExecutorTest {
+
+    private static final String PROPERTY = "ingest.payments";
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final Map<String, String> propertiesDuringJob = new HashMap<>();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(PROPERTY);
+    }
+
+    @Test
+    public void testPropertiesApplyDuringJobOnly() throws InterruptedException {
+        IngestionJobExecutor subject = new IngestionJobExecutor(new String[0],
+            args -> propertiesDuringJob.put(PROPERTY, System.getProperty(PROPERTY)));
+
+        IngestionJob job = awaitDone(subject.submit(singletonMap(PROPERTY, "true")));
+
+        assertThat(job.getStatus(), is(IngestionJob.Status.SUCCEEDED));
+        assertThat(propertiesDuringJob.get(PROPERTY), is("true"));
+        assertThat(System.getProperty(PROPERTY), is(nullValue()));
+    }
+
+    @Test
+    public void testReportDirPerJob() throws InterruptedException {
+        IngestionJobExecutor subject = new IngestionJobExecutor(new String[0],
+            args -> propertiesDuringJob.put(PROPERTY_REPORT_DIR, System.getProperty(PROPERTY_REPORT_DIR)));
+
+        IngestionJob job = awaitDone(subject.submit(singletonMap(PROPERTY, "true")));
+
+        assertThat(Paths.get(job.getReportDir()).getFileName().toString(), is(job.getId()));
+        assertThat(propertiesDuringJob.get(PROPERTY_REPORT_DIR), is(job.getReportDir()));
+        assertThat(subject.getJob(job.getId()), is(job));
+    }
+
+    @Test
+    public void testFailedJob() throws InterruptedException {
+        IngestionJobExecutor subject = new IngestionJobExecutor(new String[0], args -> {
+            throw new IngestException("Service unavailable");
+        });
+
+        IngestionJob job = awaitDone(subject.submit(singletonMap(PROPERTY, "true")));
+
+        assertThat(job.getStatus(), is(IngestionJob.Status.FAILED));
+        assertThat(job.getError(), is("Service unavailable"));
+        assertThat(System.getProperty(PROPERTY), is(nullValue()));
+    }
+
+    private static IngestionJob awaitDone(IngestionJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!job.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,115 @@
+package com.backbase.ct.bbfuel.server;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_ALLOWED_PROPERTIES;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_PORT;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_JOB_SERVER_TOKEN;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import java.io.IOException;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JobServerTest {
+
+    private final IngestionJobExecutor jobExecutor = mock(IngestionJobExecutor.class);
+    private final IngestionJob job = new IngestionJob("job-1", singletonMap("ingest.payments", "true"), "target/job-1");
+    private final JobServer subject = new JobServer(jobExecutor);
+
+    @Before
+    public void setUp() throws IOException {
+        System.setProperty(PROPERTY_JOB_SERVER_PORT, "0");
+        System.setProperty(PROPERTY_JOB_SERVER_TOKEN, "secret");
+        System.setProperty(PROPERTY_JOB_SERVER_ALLOWED_PROPERTIES, "legal.entities.with.users.json,ingest.*");
+        subject.start();
+    }
+
+    @After
+    public void tearDown() {
+        subject.stop();
+        System.clearProperty(PROPERTY_JOB_SERVER_PORT);
+        System.clearProperty(PROPERTY_JOB_SERVER_TOKEN);
+        System.clearProperty(PROPERTY_JOB_SERVER_ALLOWED_PROPERTIES);
+    }
+
+    @Test
+    public void testSubmitJob() {
+        Map<String, String> properties = singletonMap("ingest.payments", "true");
+        when(jobExecutor.submit(properties)).thenReturn(job);
+
+        Response response = given()
+            .body("{\"ingest.payments\":\"true\"}")
+            .post("/jobs");
+
+        assertThat(response.statusCode(), is(202));
+        assertThat(response.header("Location"), is("/jobs/job-1"));
+        assertThat(response.jsonPath().getString("id"), is("job-1"));
+        assertThat(response.jsonPath().getString("status"), is("QUEUED"));
+        verify(jobExecutor).submit(properties);
+    }
+
+    @Test
+    public void testJobStatus() {
+        when(jobExecutor.getJob("job-1")).thenReturn(job);
+
+        Response response = given().get("/jobs/job-1");
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.jsonPath().getString("status"), is("QUEUED"));
+        assertThat(response.jsonPath().getString("reportDir"), is("target/job-1"));
+        assertThat(given().get("/jobs/job-2").statusCode(), is(404));
+    }
+
+    @Test
+    public void testInvalidBody() {
+        Response response = given()
+            .body("[\"ingest.payments\"]")
+            .post("/jobs");
+
+        assertThat(response.statusCode(), is(400));
+        verify(jobExecutor, never()).submit(anyMapOf(String.class, String.class));
+    }
+
+    @Test
+    public void testPropertyNotAllowed() {
+        Response response = given()
+            .body("{\"ingest.payments\":\"true\",\"report.dir\":\"/etc\"}")
+            .post("/jobs");
+
+        assertThat(response.statusCode(), is(400));
+        verify(jobExecutor, never()).submit(anyMapOf(String.class, String.class));
+    }
+
+    @Test
+    public void testRequestWithoutToken() {
+        Response response = RestAssured.given()
+            .baseUri("http://localhost")
+            .port(subject.getPort())
+            .header("Authorization", "Bearer guess")
+            .body("{\"ingest.payments\":\"true\"}")
+            .post("/jobs");
+
+        assertThat(response.statusCode(), is(401));
+        verify(jobExecutor, never()).submit(anyMapOf(String.class, String.class));
+        verify(jobExecutor, never()).getJobs();
+    }
+
+    private RequestSpecification given() {
+        return RestAssured.given()
+            .baseUri("http://localhost")
+            .port(subject.getPort())
+            .header("Authorization", "Bearer secret")
+            .contentType("application/json");
+    }
+}
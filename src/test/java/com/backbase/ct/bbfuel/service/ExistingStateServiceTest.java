@@ -0,0 +1,139 @@
+package com.backbase.ct.bbfuel.service;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.backbase.ct.bbfuel.client.accessgroup.AccessGroupPresentationRestClient;
+import com.backbase.ct.bbfuel.client.accessgroup.ServiceAgreementsPresentationRestClient;
+import com.backbase.ct.bbfuel.client.accessgroup.UserContextPresentationRestClient;
+import com.backbase.ct.bbfuel.client.common.LoginRestClient;
+import com.backbase.ct.bbfuel.client.legalentity.LegalEntityPresentationRestClient;
+import com.backbase.ct.bbfuel.client.user.UserPresentationRestClient;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.dto.User;
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
+import com.backbase.dbs.accesscontrol.client.v3.model.DataGroupItem;
+import com.backbase.dbs.accesscontrol.client.v3.model.FunctionGroupItem;
+import com.backbase.dbs.accesscontrol.client.v3.model.ServiceAgreementItem;
+import com.backbase.dbs.user.manager.models.v2.GetUser;
+import com.backbase.dbs.user.manager.models.v2.LegalEntity;
+import org.junit.Test;
+
+public class ExistingStateServiceTest {
+
+    private final LoginRestClient loginRestClient = mock(LoginRestClient.class);
+    private final UserContextPresentationRestClient userContextPresentationRestClient =
+        mock(UserContextPresentationRestClient.class);
+    private final LegalEntityPresentationRestClient legalEntityPresentationRestClient =
+        mock(LegalEntityPresentationRestClient.class);
+    private final UserPresentationRestClient userPresentationRestClient = mock(UserPresentationRestClient.class);
+    private final ServiceAgreementsPresentationRestClient serviceAgreementsPresentationRestClient =
+        mock(ServiceAgreementsPresentationRestClient.class);
+    private final AccessGroupPresentationRestClient accessGroupPresentationRestClient =
+        mock(AccessGroupPresentationRestClient.class);
+    private final IngestionJournal ingestionJournal = new IngestionJournal();
+    private final ExistingStateService subject = new ExistingStateService(loginRestClient,
+        userContextPresentationRestClient, legalEntityPresentationRestClient, userPresentationRestClient,
+        serviceAgreementsPresentationRestClient, accessGroupPresentationRestClient, ingestionJournal);
+
+    @Test
+    public void testNothingExists() {
+        LegalEntityWithUsers generatedId = createLegalEntity(null, "user3");
+
+        subject.loadExistingState(asList(createLegalEntity("C000001", "user1", "user2"), generatedId));
+
+        assertThat(ingestionJournal.getCompleted(Unit.LEGAL_ENTITY).isEmpty(), is(true));
+        assertThat(ingestionJournal.getCompleted(Unit.USER).isEmpty(), is(true));
+        assertThat(ingestionJournal.getCompleted(Unit.MASTER_SERVICE_AGREEMENT).isEmpty(), is(true));
+        verify(userPresentationRestClient, never()).findUserByExternalId(anyString());
+        verify(legalEntityPresentationRestClient).findLegalEntityByExternalId("C000001");
+        verify(legalEntityPresentationRestClient, never()).findLegalEntityByExternalId(null);
+    }
+
+    @Test
+    public void testEverythingExists() {
+        mockExistingLegalEntity("C000001", "le-1", "sa-1", "SA1");
+        mockExistingUser("user1");
+        mockExistingUser("user2");
+        FunctionGroupItem functionGroup = mock(FunctionGroupItem.class);
+        when(functionGroup.getName()).thenReturn("Admin");
+        when(functionGroup.getId()).thenReturn("fg-1");
+        when(accessGroupPresentationRestClient.retrieveFunctionGroupsByServiceAgreement("sa-1"))
+            .thenReturn(singletonList(functionGroup));
+        DataGroupItem dataGroup = mock(DataGroupItem.class);
+        when(dataGroup.getName()).thenReturn("Current accounts");
+        when(dataGroup.getId()).thenReturn("dg-1");
+        when(dataGroup.getItems()).thenReturn(asList("a-1", "a-2"));
+        when(accessGroupPresentationRestClient.retrieveDataGroupsByServiceAgreement("sa-1"))
+            .thenReturn(singletonList(dataGroup));
+
+        subject.loadExistingState(singletonList(createLegalEntity("C000001", "user1", "user2")));
+
+        String dataGroupKey = ProductGroupService.createCacheKey("SA1", "Current accounts");
+        assertThat(ingestionJournal.isCompleted(Unit.LEGAL_ENTITY, "C000001"), is(true));
+        assertThat(ingestionJournal.getId(Unit.USER, "user1"), is("C000001"));
+        assertThat(ingestionJournal.getId(Unit.USER, "user2"), is("C000001"));
+        assertThat(ingestionJournal.getId(Unit.MASTER_SERVICE_AGREEMENT, "C000001"), is("sa-1"));
+        assertThat(ingestionJournal.getId(Unit.FUNCTION_GROUP, JobProfileService.createCacheKey("SA1", "Admin")),
+            is("fg-1"));
+        assertThat(ingestionJournal.getId(Unit.DATA_GROUP, dataGroupKey), is("dg-1"));
+        assertThat(ingestionJournal.getId(Unit.ARRANGEMENT_SET, dataGroupKey), is("dg-1"));
+        assertThat(ingestionJournal.getId(Unit.ARRANGEMENT,
+            ProductGroupService.createArrangementKey(dataGroupKey, "a-2")), is(""));
+    }
+
+    @Test
+    public void testPartiallyExists() {
+        mockExistingLegalEntity("C000001", "le-1", "sa-1", null);
+        mockExistingUser("user1");
+
+        subject.loadExistingState(asList(
+            createLegalEntity("C000001", "user1", "user2"),
+            createLegalEntity("C000002", "user3")));
+
+        assertThat(ingestionJournal.isCompleted(Unit.LEGAL_ENTITY, "C000001"), is(true));
+        assertThat(ingestionJournal.isCompleted(Unit.LEGAL_ENTITY, "C000002"), is(false));
+        assertThat(ingestionJournal.isCompleted(Unit.USER, "user1"), is(true));
+        assertThat(ingestionJournal.isCompleted(Unit.USER, "user2"), is(false));
+        assertThat(ingestionJournal.isCompleted(Unit.USER, "user3"), is(false));
+        // a master service agreement without external id has not been updated by a previous run
+        assertThat(ingestionJournal.isCompleted(Unit.MASTER_SERVICE_AGREEMENT, "C000001"), is(false));
+        verify(userPresentationRestClient, never()).findUserByExternalId("user3");
+        verify(accessGroupPresentationRestClient, never()).retrieveDataGroupsByServiceAgreement(anyString());
+    }
+
+    private void mockExistingLegalEntity(String externalId, String internalId, String internalServiceAgreementId,
+        String externalServiceAgreementId) {
+        LegalEntity legalEntity = mock(LegalEntity.class);
+        when(legalEntity.getId()).thenReturn(internalId);
+        when(legalEntity.getExternalId()).thenReturn(externalId);
+        when(legalEntityPresentationRestClient.findLegalEntityByExternalId(externalId)).thenReturn(legalEntity);
+        ServiceAgreementItem masterServiceAgreement = mock(ServiceAgreementItem.class);
+        when(masterServiceAgreement.getId()).thenReturn(internalServiceAgreementId);
+        when(masterServiceAgreement.getExternalId()).thenReturn(externalServiceAgreementId);
+        when(legalEntityPresentationRestClient.getMasterServiceAgreementOfLegalEntity(internalId))
+            .thenReturn(masterServiceAgreement);
+        when(serviceAgreementsPresentationRestClient.retrieveServiceAgreement(internalServiceAgreementId))
+            .thenReturn(masterServiceAgreement);
+    }
+
+    private void mockExistingUser(String externalId) {
+        when(userPresentationRestClient.findUserByExternalId(externalId)).thenReturn(mock(GetUser.class));
+    }
+
+    private static LegalEntityWithUsers createLegalEntity(String externalId, String... externalUserIds) {
+        LegalEntityWithUsers.LegalEntityWithUsersBuilder builder = LegalEntityWithUsers.builder()
+            .legalEntityExternalId(externalId);
+        for (String externalUserId : externalUserIds) {
+            builder.user(User.builder().externalId(externalUserId).build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.backbase.ct.bbfuel.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IngestionJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testResumeFromJournal() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("journal.ndjson");
+        IngestionJournal journal = new IngestionJournal();
+        journal.open(file);
+        journal.complete(Unit.LEGAL_ENTITY, "C000000", "C000000");
+        journal.complete(Unit.FUNCTION_GROUP, "sa-1-Admin", "fg-1");
+        journal.complete(Unit.PERMISSION, "user-sa-1");
+        journal.close();
+
+        IngestionJournal resumed = new IngestionJournal();
+        resumed.open(file);
+
+        assertThat(resumed.isCompleted(Unit.LEGAL_ENTITY, "C000000"), is(true));
+        assertThat(resumed.isCompleted(Unit.USER, "C000000"), is(false));
+        assertThat(resumed.isCompleted(Unit.PERMISSION, "user-sa-1"), is(true));
+        assertThat(resumed.getCompleted(Unit.FUNCTION_GROUP), hasEntry("sa-1-Admin", "fg-1"));
+        assertThat(resumed.getId(Unit.DATA_GROUP, "sa-1-Admin"), nullValue());
+    }
+
+    @Test
+    public void testIgnoreTruncatedEntry() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("journal.ndjson");
+        IngestionJournal journal = new IngestionJournal();
+        journal.open(file);
+        journal.complete(Unit.USER, "user1", "C000000");
+        journal.close();
+        Files.write(file, "{\"unit\":\"USER\",\"ke".getBytes(UTF_8), APPEND);
+
+        IngestionJournal resumed = new IngestionJournal();
+        resumed.open(file);
+
+        assertThat(resumed.getId(Unit.USER, "user1"), is("C000000"));
+        assertThat(resumed.getCompleted(Unit.USER).size(), is(1));
+    }
+
+    @Test
+    public void testResumeAfterTruncatedEntry() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("journal.ndjson");
+        IngestionJournal journal = new IngestionJournal();
+        journal.open(file);
+        journal.complete(Unit.USER, "user1", "C000000");
+        journal.close();
+        Files.write(file, "{\"unit\":\"USER\",\"ke".getBytes(UTF_8), APPEND);
+
+        IngestionJournal resumed = new IngestionJournal();
+        resumed.open(file);
+        resumed.complete(Unit.USER, "user2", "C000000");
+        resumed.close();
+
+        IngestionJournal resumedAgain = new IngestionJournal();
+        resumedAgain.open(file);
+
+        assertThat(resumedAgain.getId(Unit.USER, "user1"), is("C000000"));
+        assertThat(resumedAgain.getId(Unit.USER, "user2"), is("C000000"));
+        assertThat(Files.readAllLines(file, UTF_8).size(), is(2));
+    }
+
+    @Test
+    public void testDisabledJournalRecordsNothing() {
+        IngestionJournal journal = new IngestionJournal();
+        journal.complete(Unit.USER, "user1", "C000000");
+
+        assertThat(journal.isEnabled(), is(false));
+        assertThat(journal.isCompleted(Unit.USER, "user1"), is(false));
+    }
+}
@@ -0,0 +1,48 @@
+package com.backbase.ct.bbfuel.service;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.input.InvalidInputException;
+import java.util.List;
+import org.junit.Test;
+
+public class LegalEntityServiceTest {
+
+    private LegalEntityService subject = new LegalEntityService(null);
+
+    @Test
+    public void testGroupByHierarchyLevel() {
+        LegalEntityWithUsers root = createLegalEntity("B000001", null);
+        LegalEntityWithUsers child = createLegalEntity("B000002", "B000001");
+        LegalEntityWithUsers grandChild = createLegalEntity("B000003", "B000002");
+        LegalEntityWithUsers otherChild = createLegalEntity("B000004", "B000001");
+        LegalEntityWithUsers existingParent = createLegalEntity("B000005", "C000000");
+
+        List<List<LegalEntityWithUsers>> levels = subject.groupByHierarchyLevel(
+            asList(grandChild, otherChild, child, existingParent, root));
+
+        assertThat(levels.size(), is(3));
+        assertThat(levels.get(0), containsInAnyOrder(root, existingParent));
+        assertThat(levels.get(1), containsInAnyOrder(child, otherChild));
+        assertThat(levels.get(2), contains(grandChild));
+    }
+
+    @Test(expected = InvalidInputException.class)
+    public void testGroupByHierarchyLevelWithCycle() {
+        subject.groupByHierarchyLevel(asList(
+            createLegalEntity("B000001", "B000002"),
+            createLegalEntity("B000002", "B000001")));
+    }
+
+    private static LegalEntityWithUsers createLegalEntity(String externalId, String parentExternalId) {
+        return LegalEntityWithUsers.builder()
+            .legalEntityExternalId(externalId)
+            .parentLegalEntityExternalId(parentExternalId)
+            .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.backbase.ct.bbfuel.service;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_DIR;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_SHARD_WAIT_SECONDS;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import com.backbase.ct.bbfuel.IngestException;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.dto.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ShardServiceTest {
+
+    private static final int SHARD_COUNT = 3;
+    private static final String RESOURCE = "legal-entities-with-users.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        System.setProperty(PROPERTY_SHARD_DIR, folder.getRoot().getPath());
+        System.setProperty(PROPERTY_SHARD_WAIT_SECONDS, "0");
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(PROPERTY_SHARD_DIR);
+        System.clearProperty(PROPERTY_SHARD_WAIT_SECONDS);
+    }
+
+    @Test
+    public void testSelectShardPartitionsLegalEntities() {
+        List<LegalEntityWithUsers> legalEntities = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            legalEntities.add(createLegalEntity("B" + i, null));
+        }
+        legalEntities.add(LegalEntityWithUsers.builder()
+            .user(User.builder().externalId("generated").build())
+            .build());
+
+        List<LegalEntityWithUsers> selected = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < SHARD_COUNT; shardIndex++) {
+            List<LegalEntityWithUsers> shard = createSubject(shardIndex, SHARD_COUNT).selectShard(legalEntities);
+            assertThat(shard.isEmpty(), is(false));
+            selected.addAll(shard);
+        }
+
+        assertThat(selected, containsInAnyOrder(legalEntities.toArray()));
+    }
+
+    @Test
+    public void testSelectShardKeepsHierarchyTogether() {
+        LegalEntityWithUsers parent = createLegalEntity("B000001", null);
+        LegalEntityWithUsers child = createLegalEntity("B000002", "B000001");
+        LegalEntityWithUsers grandChild = createLegalEntity("B000003", "B000002");
+        List<LegalEntityWithUsers> legalEntities = asList(grandChild, child, parent);
+        int shardIndex = ShardService.shardOf("B000001", SHARD_COUNT);
+
+        assertThat(createSubject(shardIndex, SHARD_COUNT).selectShard(legalEntities),
+            containsInAnyOrder(parent, child, grandChild));
+        assertThat(createSubject((shardIndex + 1) % SHARD_COUNT, SHARD_COUNT).selectShard(legalEntities).isEmpty(),
+            is(true));
+    }
+
+    @Test
+    public void testSelectShardWhenNotSharded() {
+        List<LegalEntityWithUsers> legalEntities = asList(createLegalEntity("B000001", null));
+
+        assertThat(createSubject(0, 1).selectShard(legalEntities), sameInstance(legalEntities));
+    }
+
+    @Test
+    public void testAwaitReturnsIdsPublishedInSameRun() {
+        Map<String, String> ids = singletonMap("rootLegalEntityId", "le-1");
+        createSubject(0, SHARD_COUNT, "run-1").publish(RESOURCE, ShardService.STEP_ACCESS_CONTROL, ids);
+
+        assertThat(createSubject(1, SHARD_COUNT, "run-1").await(RESOURCE, ShardService.STEP_ACCESS_CONTROL), is(ids));
+    }
+
+    @Test
+    public void testAwaitIgnoresMarkerOfEarlierRun() {
+        createSubject(0, SHARD_COUNT, "run-1").publish(RESOURCE, ShardService.STEP_ACCESS_CONTROL,
+            singletonMap("rootLegalEntityId", "le-1"));
+
+        try {
+            createSubject(1, SHARD_COUNT, "run-2").await(RESOURCE, ShardService.STEP_ACCESS_CONTROL);
+            fail("Expected the marker of the earlier run to be ignored");
+        } catch (IngestException e) {
+            assertThat(e.getMessage().startsWith("Timed out"), is(true));
+        }
+    }
+
+    private static ShardService createSubject(int shardIndex, int shardCount) {
+        return createSubject(shardIndex, shardCount, "run-1");
+    }
+
+    private static ShardService createSubject(int shardIndex, int shardCount, String shardRunId) {
+        return new ShardService(IngestionConfig.builder()
+            .shardIndex(shardIndex)
+            .shardCount(shardCount)
+            .shardRunId(shardRunId)
+            .build());
+    }
+
+    private static LegalEntityWithUsers createLegalEntity(String externalId, String parentExternalId) {
+        return LegalEntityWithUsers.builder()
+            .legalEntityExternalId(externalId)
+            .parentLegalEntityExternalId(parentExternalId)
+            .build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.backbase.ct.bbfuel.setup;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_ARRANGEMENTS_CONCURRENCY;
+import static java.util.Arrays.asList;
+import static java.util.Collections.synchronizedList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import com.backbase.ct.bbfuel.IngestException;
+import com.backbase.ct.bbfuel.configurator.AccessGroupsConfigurator;
+import com.backbase.ct.bbfuel.configurator.ProductSummaryConfigurator;
+import com.backbase.ct.bbfuel.dto.ArrangementId;
+import com.backbase.ct.bbfuel.dto.entitlement.ProductGroupSeed;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AccessControlSetupTest {
+
+    private static final String SERVICE_AGREEMENT_ID = "sa_C000001";
+    private static final String LEGAL_ENTITY_ID = "C000001";
+
+    @InjectMocks
+    private AccessControlSetup subject;
+
+    @Mock
+    private ProductSummaryConfigurator productSummaryConfigurator;
+
+    @Mock
+    private AccessGroupsConfigurator accessGroupsConfigurator;
+
+    private final ProductGroupSeed productGroupSeed = ProductGroupSeed.builder().build();
+    private final ArrangementId arrangement1 = new ArrangementId("internal1", "external1");
+    private final ArrangementId arrangement2 = new ArrangementId("internal2", "external2");
+    private final List<ArrangementId> arrangementIds = asList(arrangement1, arrangement2);
+    private final List<ArrangementId> ingestedData = synchronizedList(new ArrayList<>());
+
+    @BeforeClass
+    public static void setUpClass() {
+        // A single thread leaves the data of the second arrangement waiting while the first one is ingested
+        System.setProperty(PROPERTY_ARRANGEMENTS_CONCURRENCY, "1");
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        System.clearProperty(PROPERTY_ARRANGEMENTS_CONCURRENCY);
+    }
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(productSummaryConfigurator.ingestArrangements(eq(LEGAL_ENTITY_ID), eq(productGroupSeed),
+            any(Consumer.class))).thenAnswer(invocation -> {
+                Consumer<ArrangementId> consumer = (Consumer<ArrangementId>) invocation.getArguments()[2];
+                arrangementIds.forEach(consumer);
+                return arrangementIds;
+            });
+    }
+
+    @After
+    public void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    public void testArrangementDataIsIngestedForEveryArrangement() {
+        List<ArrangementId> result = subject.ingestArrangementsPipelined(SERVICE_AGREEMENT_ID, LEGAL_ENTITY_ID,
+            productGroupSeed, ingestedData::add);
+
+        assertThat(result, is(sameInstance(arrangementIds)));
+        assertThat(ingestedData, contains(arrangement1, arrangement2));
+        assertThat(productGroupSeed.getExternalServiceAgreementId(), is(SERVICE_AGREEMENT_ID));
+        InOrder inOrder = inOrder(productSummaryConfigurator, accessGroupsConfigurator);
+        inOrder.verify(productSummaryConfigurator).ingestArrangements(eq(LEGAL_ENTITY_ID), eq(productGroupSeed),
+            any(Consumer.class));
+        inOrder.verify(accessGroupsConfigurator).ingestDataGroupForArrangements(productGroupSeed, arrangementIds);
+    }
+
+    @Test
+    public void testFailedArrangementDataFailsIngestion() {
+        IllegalStateException failure = new IllegalStateException("transactions failed");
+
+        try {
+            subject.ingestArrangementsPipelined(SERVICE_AGREEMENT_ID, LEGAL_ENTITY_ID, productGroupSeed,
+                arrangementId -> {
+                    if (arrangementId == arrangement2) {
+                        throw failure;
+                    }
+                });
+            fail("Expected the failure of the arrangement data");
+        } catch (IngestException e) {
+            assertThat(e.getCause(), is(sameInstance(failure)));
+        }
+    }
+
+    @Test
+    public void testFailedDataGroupCancelsWaitingArrangementData() throws InterruptedException {
+        IllegalStateException failure = new IllegalStateException("data group failed");
+        doThrow(failure).doNothing().when(accessGroupsConfigurator)
+            .ingestDataGroupForArrangements(productGroupSeed, arrangementIds);
+        CountDownLatch firstArrangementStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstArrangement = new CountDownLatch(1);
+
+        try {
+            subject.ingestArrangementsPipelined(SERVICE_AGREEMENT_ID, LEGAL_ENTITY_ID, productGroupSeed,
+                arrangementId -> {
+                    if (arrangementId == arrangement1) {
+                        firstArrangementStarted.countDown();
+                        awaitUninterruptibly(releaseFirstArrangement);
+                    } else {
+                        ingestedData.add(arrangementId);
+                    }
+                });
+            fail("Expected the failure of the data group");
+        } catch (IllegalStateException e) {
+            assertThat(e, is(sameInstance(failure)));
+        }
+        assertThat(firstArrangementStarted.await(5, TimeUnit.SECONDS), is(true));
+        releaseFirstArrangement.countDown();
+
+        // The single thread only gets to the data of this run after the data left waiting by the failed run
+        subject.ingestArrangementsPipelined(SERVICE_AGREEMENT_ID, LEGAL_ENTITY_ID, productGroupSeed,
+            ingestedData::add);
+
+        assertThat(ingestedData, contains(arrangement1, arrangement2));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.backbase.ct.bbfuel.setup;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_INGEST_PAYMENTS;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.backbase.ct.bbfuel.client.common.CircuitBreakerOpenException;
+import com.backbase.ct.bbfuel.configurator.PaymentsConfigurator;
+import com.backbase.ct.bbfuel.dto.LegalEntityWithUsers;
+import com.backbase.ct.bbfuel.dto.User;
+import com.backbase.ct.bbfuel.service.IngestionJournal;
+import com.backbase.ct.bbfuel.service.IngestionJournal.Unit;
+import com.backbase.ct.bbfuel.service.ShardService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CapabilitiesDataSetupTest {
+
+    private static final String LEGAL_ENTITIES_RESOURCE = "legal-entities-with-users.json";
+
+    @InjectMocks
+    private CapabilitiesDataSetup subject;
+
+    @Mock
+    private AccessControlSetup accessControlSetup;
+
+    @Mock
+    private PaymentsConfigurator paymentsConfigurator;
+
+    @Mock
+    private IngestionJournal ingestionJournal;
+
+    @Mock
+    private ShardService shardService;
+
+    @Before
+    public void setUp() {
+        System.setProperty(PROPERTY_INGEST_PAYMENTS, "true");
+        when(accessControlSetup.getLegalEntityWithUsersResource()).thenReturn(LEGAL_ENTITIES_RESOURCE);
+        when(accessControlSetup.getLegalEntitiesWithUsersExcludingSupport()).thenReturn(singletonList(
+            LegalEntityWithUsers.builder()
+                .legalEntityExternalId("C000001")
+                .user(User.builder().externalId("user1").build())
+                .user(User.builder().externalId("user2").build())
+                .user(User.builder().externalId("user3").build())
+                .build()));
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(PROPERTY_INGEST_PAYMENTS);
+    }
+
+    @Test
+    public void testDeferredCapabilityOnlyIngestsUnitsNotCompletedBefore() {
+        doThrow(new CircuitBreakerOpenException("payment-order-service", 0))
+            .doNothing()
+            .when(paymentsConfigurator).ingestPaymentOrders("user2");
+
+        subject.initiate();
+
+        verify(paymentsConfigurator, times(1)).ingestPaymentOrders("user1");
+        verify(paymentsConfigurator, times(2)).ingestPaymentOrders("user2");
+        verify(paymentsConfigurator, times(1)).ingestPaymentOrders("user3");
+        verify(ingestionJournal).complete(Unit.CAPABILITY, LEGAL_ENTITIES_RESOURCE + "-payments");
+    }
+
+    @Test
+    public void testDeferredCapabilityIsSkippedWhenStillUnavailable() {
+        doThrow(new CircuitBreakerOpenException("payment-order-service", 0))
+            .when(paymentsConfigurator).ingestPaymentOrders("user2");
+
+        subject.initiate();
+
+        verify(paymentsConfigurator, times(3)).ingestPaymentOrders("user2");
+        verify(ingestionJournal, times(0)).complete(Unit.CAPABILITY, LEGAL_ENTITIES_RESOURCE + "-payments");
+    }
+}
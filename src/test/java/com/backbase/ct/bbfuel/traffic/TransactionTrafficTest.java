@@ -0,0 +1,125 @@
+package com.backbase.ct.bbfuel.traffic;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.backbase.ct.bbfuel.client.transaction.TransactionsIntegrationRestClient;
+import com.backbase.ct.bbfuel.config.IngestionConfig;
+import com.backbase.dbs.transaction.client.v2.model.TransactionsPostRequestBody;
+import io.restassured.response.Response;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransactionTrafficTest {
+
+    private static final List<Entry<String, Boolean>> ARRANGEMENTS = singletonList(new SimpleEntry<>("A01", false));
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final TransactionsIntegrationRestClient transactionsIntegrationRestClient =
+        mock(TransactionsIntegrationRestClient.class);
+    private final Response response = mock(Response.class);
+    private final List<Long> sendTimes = new CopyOnWriteArrayList<>();
+    private final ScheduleClock clock = new ScheduleClock();
+    private final TransactionTraffic subject = new TransactionTraffic(transactionsIntegrationRestClient,
+        IngestionConfig.builder()
+            .transactionCurrencies(singletonList("EUR"))
+            .build());
+
+    @Before
+    public void setUp() {
+        when(response.statusCode()).thenReturn(201);
+    }
+
+    @Test
+    public void testRequestsAreSentOnSchedule() {
+        subject.setClock(clock);
+        when(transactionsIntegrationRestClient.ingestTransactions(anyListOf(TransactionsPostRequestBody.class)))
+            .thenAnswer(invocation -> {
+                sendTimes.add(clock.nanoTime());
+                return response;
+            });
+
+        TrafficResult result = subject.generate(ARRANGEMENTS, 100, TimeUnit.SECONDS.toNanos(1), 10, 2);
+
+        assertThat(result.getSent(), is(100L));
+        assertThat(result.getTransactions(), is(200L));
+        assertThat(result.getErrors(), is(0L));
+        assertThat(result.getDropped(), is(0L));
+        assertThat(sendTimes.size(), is(100));
+        for (int i = 0; i < sendTimes.size(); i++) {
+            assertThat(sendTimes.get(i), is(i * TimeUnit.MILLISECONDS.toNanos(10)));
+        }
+        assertThat(result.getElapsedSeconds(), closeTo(0.99, 0.000001));
+    }
+
+    @Test
+    public void testSlowServiceDoesNotSlowDownSchedule() {
+        when(transactionsIntegrationRestClient.ingestTransactions(anyListOf(TransactionsPostRequestBody.class)))
+            .thenAnswer(invocation -> {
+                Thread.sleep(200);
+                return response;
+            });
+
+        TrafficResult result = subject.generate(ARRANGEMENTS, 100, TimeUnit.MILLISECONDS.toNanos(500), 2, 1);
+
+        assertThat(result.getSent() + result.getDropped(), is(50L));
+        assertThat(result.getDropped(), greaterThan(0L));
+        assertThat(result.getLatencyMillisAtPercentile(99), greaterThanOrEqualTo(200.0));
+    }
+
+    @Test
+    public void testFailedRequestsAreCounted() {
+        subject.setClock(clock);
+        when(response.statusCode()).thenReturn(500);
+        when(transactionsIntegrationRestClient.ingestTransactions(anyListOf(TransactionsPostRequestBody.class)))
+            .thenAnswer(invocation -> {
+                sendTimes.add(clock.nanoTime());
+                return response;
+            });
+
+        TrafficResult result = subject.generate(ARRANGEMENTS, 100, TimeUnit.MILLISECONDS.toNanos(100), 10, 1);
+
+        assertThat(result.getSent(), is(10L));
+        assertThat(result.getErrors(), is(10L));
+        assertThat(result.getTransactions(), is(0L));
+    }
+
+    /**
+     * Clock that moves to the scheduled moment of a request at once, but only after the previous request has been
+     * sent, so each request is sent at the moment it was scheduled for.
+     */
+    private class ScheduleClock implements TransactionTraffic.Clock {
+
+        private final AtomicLong now = new AtomicLong();
+        private final AtomicInteger parks = new AtomicInteger();
+
+        @Override
+        public long nanoTime() {
+            return now.get();
+        }
+
+        @Override
+        public void parkNanos(long nanos) {
+            int previousRequests = parks.getAndIncrement();
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (sendTimes.size() < previousRequests && System.currentTimeMillis() < deadline) {
+                Thread.yield();
+            }
+            now.addAndGet(Math.max(0, nanos));
+        }
+    }
+}
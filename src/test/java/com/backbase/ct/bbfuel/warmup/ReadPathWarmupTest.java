@@ -0,0 +1,112 @@
+package com.backbase.ct.bbfuel.warmup;
+
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_CONCURRENCY;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_READS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_ROUNDS;
+import static com.backbase.ct.bbfuel.data.CommonConstants.PROPERTY_WARMUP_USERS;
+import static com.backbase.ct.bbfuel.warmup.ReadPathWarmup.READ_DATA_GROUPS;
+import static com.backbase.ct.bbfuel.warmup.ReadPathWarmup.READ_TRANSACTIONS;
+import static com.backbase.ct.bbfuel.warmup.ReadPathWarmup.READ_USER_CONTEXT;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.backbase.ct.bbfuel.client.accessgroup.AccessGroupPresentationRestClient;
+import com.backbase.ct.bbfuel.client.accessgroup.UserContextPresentationRestClient;
+import com.backbase.ct.bbfuel.client.common.LoginRestClient;
+import com.backbase.ct.bbfuel.client.productsummary.ProductSummaryPresentationRestClient;
+import com.backbase.ct.bbfuel.client.transaction.TransactionsPresentationRestClient;
+import com.backbase.dbs.accesscontrol.client.v3.model.ServiceAgreementItem;
+import com.backbase.dbs.arrangement.client.api.v2.model.ProductSummaryItem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReadPathWarmupTest {
+
+    private final LoginRestClient loginRestClient = mock(LoginRestClient.class);
+    private final UserContextPresentationRestClient userContextPresentationRestClient =
+        mock(UserContextPresentationRestClient.class);
+    private final AccessGroupPresentationRestClient accessGroupPresentationRestClient =
+        mock(AccessGroupPresentationRestClient.class);
+    private final ProductSummaryPresentationRestClient productSummaryPresentationRestClient =
+        mock(ProductSummaryPresentationRestClient.class);
+    private final TransactionsPresentationRestClient transactionsPresentationRestClient =
+        mock(TransactionsPresentationRestClient.class);
+    private final ReadPathWarmup subject = new ReadPathWarmup(loginRestClient, userContextPresentationRestClient,
+        accessGroupPresentationRestClient, productSummaryPresentationRestClient, transactionsPresentationRestClient);
+
+    @Before
+    public void setUp() {
+        System.setProperty(PROPERTY_WARMUP_READS, "user-context, data-groups, transactions");
+        System.setProperty(PROPERTY_WARMUP_ROUNDS, "2");
+        System.setProperty(PROPERTY_WARMUP_USERS, "0");
+        System.setProperty(PROPERTY_WARMUP_CONCURRENCY, "2");
+
+        ServiceAgreementItem serviceAgreement = mock(ServiceAgreementItem.class);
+        when(serviceAgreement.getId()).thenReturn("sa");
+        when(userContextPresentationRestClient.selectContextBasedOnMasterServiceAgreement())
+            .thenReturn(serviceAgreement);
+        ProductSummaryItem arrangement = mock(ProductSummaryItem.class);
+        when(arrangement.getId()).thenReturn("arrangement");
+        when(productSummaryPresentationRestClient.getProductSummaryArrangements())
+            .thenReturn(asList(arrangement, arrangement));
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(PROPERTY_WARMUP_READS);
+        System.clearProperty(PROPERTY_WARMUP_ROUNDS);
+        System.clearProperty(PROPERTY_WARMUP_USERS);
+        System.clearProperty(PROPERTY_WARMUP_CONCURRENCY);
+    }
+
+    @Test
+    public void testReadsArePerformedPerUserAndRound() {
+        WarmupResult result = subject.warmUp(asList("user1", "user2"));
+
+        assertThat(result.getFailedUsers(), is(0L));
+        assertThat(result.getRequests(READ_USER_CONTEXT), is(4L));
+        assertThat(result.getRequests(READ_DATA_GROUPS), is(4L));
+        assertThat(result.getRequests(READ_TRANSACTIONS), is(8L));
+        verify(productSummaryPresentationRestClient, times(2)).getProductSummaryArrangements();
+        verify(accessGroupPresentationRestClient, times(4)).retrieveDataGroupsByServiceAgreement("sa");
+    }
+
+    @Test
+    public void testUserFailingToLogInIsSkipped() {
+        doThrow(new IllegalStateException("401")).when(loginRestClient).login("user2", "user2");
+
+        WarmupResult result = subject.warmUp(asList("user1", "user2"));
+
+        assertThat(result.getFailedUsers(), is(1L));
+        assertThat(result.getRequests(READ_USER_CONTEXT), is(2L));
+    }
+
+    @Test
+    public void testFailedReadsAreCounted() {
+        doThrow(new IllegalStateException("500")).when(transactionsPresentationRestClient)
+            .retrieveTransactions(anyString(), anyInt());
+
+        WarmupResult result = subject.warmUp(asList("user1"));
+
+        assertThat(result.getErrors(READ_TRANSACTIONS), is(4L));
+        assertThat(result.getErrors(READ_DATA_GROUPS), is(0L));
+        verify(accessGroupPresentationRestClient, never()).retrieveFunctionGroupsByServiceAgreement(anyString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownRead() {
+        System.setProperty(PROPERTY_WARMUP_READS, "balances");
+
+        subject.warmUp(asList("user1"));
+    }
+}